@@ -3,13 +3,11 @@ package com.pengyu.magnet;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.core.task.AsyncTaskExecutor;
-import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
-@EnableAsync
+@EnableScheduling
 public class MagnetApplication {
 
     public static void main(String[] args) {
@@ -26,19 +24,4 @@ public class MagnetApplication {
         return template;
     }
 
-
-    /**
-     * Enable Async Task
-     * @return
-     */
-    @Bean
-    public AsyncTaskExecutor asyncTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5); // 设置核心线程池大小
-        executor.setMaxPoolSize(10); // 设置最大线程池大小
-        executor.setThreadNamePrefix("MyAsyncThread-"); // 设置线程名前缀
-        executor.initialize();
-        return executor;
-    }
-
 }
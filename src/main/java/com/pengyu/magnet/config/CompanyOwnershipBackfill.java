@@ -0,0 +1,47 @@
+package com.pengyu.magnet.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Test invitations and answer sheets keep the company of their paper in company_id.
+ * Rows created before the column existed are filled in from paper and job before the
+ * application serves requests, in id ranges so no statement locks a whole table.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompanyOwnershipBackfill {
+
+    private static final int BATCH = 1000;
+
+    private static final List<String> TABLES = List.of("assessment_test_invitation", "assessment_answer_sheet");
+
+    // Waits for the schema update that adds the column
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        for(String table : TABLES) {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM " + table + " WHERE company_id IS NULL", Long.class);
+            if(maxId == null) {
+                continue;
+            }
+            long updated = 0;
+            for(long fromId = 0; fromId < maxId; fromId += BATCH) {
+                updated += jdbcTemplate.update("UPDATE " + table + " t " +
+                        "SET t.company_id = (SELECT j.company_id FROM assessment_paper p JOIN job j ON j.id = p.job_id WHERE p.id = t.paper_id) " +
+                        "WHERE t.company_id IS NULL AND t.id > ? AND t.id <= ?", fromId, fromId + BATCH);
+            }
+            log.info("Backfilled company_id of {} rows in {}", updated, table);
+        }
+    }
+}
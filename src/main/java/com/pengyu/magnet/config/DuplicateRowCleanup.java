@@ -0,0 +1,97 @@
+package com.pengyu.magnet.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Unique constraints added to tables which could already hold duplicates.
+ * Duplicates are deleted before the schema update adds the constraint, the newest row of every key is kept.
+ * Rows referring to a duplicate are moved to the kept row or deleted with it first.
+ * Tables that do not exist yet or already have the constraint are skipped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DuplicateRowCleanup {
+
+    /**
+     * @param references statements run before the duplicates are deleted
+     */
+    private record UniqueKey(String table, String constraint, List<String> columns, List<String> references) {
+    }
+
+    // Newest test paper of every job
+    private static final String KEPT_PAPER =
+            "(SELECT job_id, MAX(id) AS id FROM assessment_paper WHERE job_id IS NOT NULL GROUP BY job_id)";
+
+    // Older papers of a job
+    private static final String REPLACED_PAPER =
+            "JOIN assessment_paper n ON n.job_id = p.job_id AND n.id > p.id";
+
+    private static final List<UniqueKey> KEYS = List.of(
+            new UniqueKey("match_matching_index", "match_index_job_resume_uk", List.of("job_id", "resume_id"), List.of()),
+            // Invitations and answer sheets keep the question texts in their answers, so they move to the kept paper
+            new UniqueKey("assessment_paper", "paper_job_id_uk", List.of("job_id"), List.of(
+                    "UPDATE assessment_test_invitation t JOIN assessment_paper p ON p.id = t.paper_id " +
+                            "JOIN " + KEPT_PAPER + " k ON k.job_id = p.job_id SET t.paper_id = k.id WHERE p.id <> k.id",
+                    "UPDATE assessment_answer_sheet t JOIN assessment_paper p ON p.id = t.paper_id " +
+                            "JOIN " + KEPT_PAPER + " k ON k.job_id = p.job_id SET t.paper_id = k.id WHERE p.id <> k.id",
+                    "DELETE o FROM assessment_option_answer o JOIN assessment_question q ON q.id = o.question_id " +
+                            "JOIN assessment_paper p ON p.id = q.paper_id " + REPLACED_PAPER,
+                    "DELETE q FROM assessment_question q JOIN assessment_paper p ON p.id = q.paper_id " + REPLACED_PAPER)));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void cleanup() {
+        for(UniqueKey key : KEYS) {
+            if(!tableExists(key.table()) || constraintExists(key.table(), key.constraint())) {
+                continue;
+            }
+            // Every statement is idempotent, a cleanup stopped half way is finished by the next start
+            key.references().forEach(jdbcTemplate::update);
+            int deleted = deleteDuplicates(key);
+            if(deleted > 0) {
+                log.info("Deleted {} duplicate rows of {} before adding {}", deleted, key.table(), key.constraint());
+            }
+        }
+    }
+
+    private int deleteDuplicates(UniqueKey key) {
+        String sameKey = key.columns().stream()
+                .map(column -> "n." + column + " = t." + column)
+                .reduce((a, b) -> a + " AND " + b)
+                .orElseThrow();
+        return jdbcTemplate.update("DELETE t FROM " + key.table() + " t JOIN " + key.table() + " n " +
+                "ON " + sameKey + " AND n.id > t.id");
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name = ?", Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    private boolean constraintExists(String table, String constraint) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.table_constraints " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND constraint_name = ?",
+                Integer.class, table, constraint);
+        return count != null && count > 0;
+    }
+
+    /**
+     * The EntityManagerFactory runs the schema update, so it waits for the cleanup
+     */
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependency() {
+            super(DuplicateRowCleanup.class);
+        }
+    }
+}
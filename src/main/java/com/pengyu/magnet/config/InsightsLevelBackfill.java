@@ -0,0 +1,89 @@
+package com.pengyu.magnet.config;
+
+import com.pengyu.magnet.service.match.InsightsNormalizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Job and resume insights keep degree, language and experience normalized in level columns,
+ * null if not stated. Before the application serves requests, every row is normalized again
+ * in pages of BATCH rows and rows whose levels changed are updated: rows extracted before
+ * the columns existed, saved with 0 for a level that is not stated, or normalized by an older
+ * InsightsNormalizer.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InsightsLevelBackfill {
+
+    private static final int BATCH = 1000;
+
+    private static final String JOB_TABLE = "match_job_insights";
+    private static final String RESUME_TABLE = "match_resume_insights";
+
+    // Waits for the schema update that adds the columns
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        for(String table : List.of(JOB_TABLE, RESUME_TABLE)) {
+            long updated = 0;
+            long afterId = 0;
+            while(true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                        "SELECT id, degree, language, experience, degree_level, language_level, experience_months " +
+                        "FROM " + table + " WHERE id > ? ORDER BY id LIMIT " + BATCH, afterId);
+                if(rows.isEmpty()) {
+                    break;
+                }
+                List<Object[]> levels = new ArrayList<>();
+                for(Map<String, Object> row : rows) {
+                    Integer[] stored = {integer(row.get("degree_level")), integer(row.get("language_level")),
+                            integer(row.get("experience_months"))};
+                    Integer[] normalized = levels(table, row, stored[2]);
+                    if(!Objects.deepEquals(stored, normalized)) {
+                        levels.add(new Object[]{normalized[0], normalized[1], normalized[2], row.get("id")});
+                    }
+                }
+                if(!levels.isEmpty()) {
+                    jdbcTemplate.batchUpdate("UPDATE " + table + " " +
+                            "SET degree_level = ?, language_level = ?, experience_months = ? WHERE id = ?", levels);
+                }
+                updated += levels.size();
+                afterId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+            }
+            if(updated > 0) {
+                log.info("Normalized levels of {} rows in {}", updated, table);
+            }
+        }
+    }
+
+    private static Integer[] levels(String table, Map<String, Object> row, Integer experienceMonths) {
+        String degree = (String) row.get("degree");
+        String experience = (String) row.get("experience");
+        boolean job = JOB_TABLE.equals(table);
+        return new Integer[]{
+                // A job requires the lowest degree it mentions
+                InsightsNormalizer.known(job ? InsightsNormalizer.requiredDegreeLevel(degree) : InsightsNormalizer.degreeLevel(degree)),
+                InsightsNormalizer.known(InsightsNormalizer.languageLevel((String) row.get("language"))),
+                // Resume experience is calculated from the dates of the work experiences, only old rows are parsed
+                job || experienceMonths == null || experienceMonths == 0
+                        ? InsightsNormalizer.known(InsightsNormalizer.experienceMonths(experience))
+                        : experienceMonths
+        };
+    }
+
+    private static Integer integer(Object value) {
+        return value == null ? null : ((Number) value).intValue();
+    }
+}
@@ -0,0 +1,53 @@
+package com.pengyu.magnet.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+
+/**
+ * Entities with pooled sequence ids used to be IDENTITY, so their tables already hold rows.
+ * MySQL has no sequences, Hibernate keeps the next value in a "<sequence>" table that starts at 1.
+ * Before the application serves requests, every such value is moved past the highest existing id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SequenceAligner {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void align() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        for(EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            for(Field field : entity.getJavaType().getDeclaredFields()) {
+                SequenceGenerator generator = field.getAnnotation(SequenceGenerator.class);
+                if(generator == null || !field.isAnnotationPresent(Id.class)) {
+                    continue;
+                }
+                // Mapped table and id column, as named by the physical naming strategy
+                AbstractEntityPersister persister = (AbstractEntityPersister) sessionFactory
+                        .getMappingMetamodel()
+                        .getEntityDescriptor(entity.getJavaType());
+                String table = persister.getTableName();
+                String id = persister.getIdentifierColumnNames()[0];
+                // A pooled optimizer hands out the allocationSize ids below the value it reads
+                int updated = jdbcTemplate.update("UPDATE " + generator.sequenceName() + " " +
+                        "SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(" + id + "), 0) + ? FROM " + table + "))",
+                        generator.allocationSize() + 1);
+                log.info("Sequence {} aligned with table {}, {} rows changed", generator.sequenceName(), table, updated);
+            }
+        }
+    }
+}
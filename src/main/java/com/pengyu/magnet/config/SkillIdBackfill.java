@@ -0,0 +1,70 @@
+package com.pengyu.magnet.config;
+
+import com.pengyu.magnet.domain.match.Skill;
+import com.pengyu.magnet.service.match.SkillDictionary;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracted and resume skills refer to the skill catalog by skill_id.
+ * Rows saved before the column existed are resolved by SkillDictionary before
+ * the application serves requests, in pages of BATCH rows.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SkillIdBackfill {
+
+    private static final int BATCH = 1000;
+
+    private static final List<String> TABLES = List.of("match_skill", "resume_skill");
+
+    // Tables in the second-level cache, their rows are written here past Hibernate
+    private static final Map<String, Class<?>> CACHED = Map.of("match_skill", Skill.class);
+
+    // Waits for the schema update that adds the column, evicts the skills written here
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final SkillDictionary skillDictionary;
+
+    @PostConstruct
+    public void backfill() {
+        for(String table : TABLES) {
+            long updated = 0;
+            long afterId = 0;
+            while(true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                        "SELECT id, skill FROM " + table + " " +
+                        "WHERE skill_id IS NULL AND id > ? ORDER BY id LIMIT " + BATCH, afterId);
+                if(rows.isEmpty()) {
+                    break;
+                }
+                List<Object[]> ids = new ArrayList<>(rows.size());
+                for(Map<String, Object> row : rows) {
+                    // Blank skills keep no id
+                    Integer skillId = skillDictionary.resolve((String) row.get("skill"));
+                    if(skillId != null) {
+                        ids.add(new Object[]{skillId, row.get("id")});
+                    }
+                }
+                jdbcTemplate.batchUpdate("UPDATE " + table + " SET skill_id = ? WHERE id = ?", ids);
+                updated += ids.size();
+                afterId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+            }
+            if(updated > 0) {
+                if(CACHED.containsKey(table)) {
+                    entityManagerFactory.getCache().evict(CACHED.get(table));
+                }
+                log.info("Resolved skill_id of {} rows in {}", updated, table);
+            }
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.pengyu.magnet.domain.match.JobInsights;
 import com.pengyu.magnet.domain.match.ResumeInsights;
 import com.pengyu.magnet.dto.MatchingIndexDTO;
 import com.pengyu.magnet.service.ai.AIService;
+import com.pengyu.magnet.service.ai.AiWorkScheduler;
+import com.pengyu.magnet.service.match.MatchMode;
 import jakarta.annotation.security.RolesAllowed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +22,8 @@ public class AIMatchController {
 
     private final AIService aiMatchService;
 
+    private final AiWorkScheduler aiWorkScheduler;
+
 //    @GetMapping("/extract_skills")
 //    public List<ResumeDTO.SkillDTO> extractSkill(@RequestParam Long jobId) {
 //        return aiMatchService.extractSkills(jobId);
@@ -33,7 +37,7 @@ public class AIMatchController {
     @GetMapping("/extract_job")
     @RolesAllowed({CONSTANTS.ROLE_ADMIN})
     public JobInsights extractJob(@RequestParam Long jobId) {
-        return aiMatchService.extractJobInsights(jobId);
+        return aiWorkScheduler.call(AiWorkScheduler.Lane.INTERACTIVE, () -> aiMatchService.extractJobInsights(jobId));
     }
 
     /**
@@ -44,19 +48,24 @@ public class AIMatchController {
     @GetMapping("/extract_resume")
     @RolesAllowed({CONSTANTS.ROLE_ADMIN})
     public ResumeInsights extractResume(@RequestParam Long resumeId) {
-        return aiMatchService.extractResumeInsights(resumeId);
+        return aiWorkScheduler.call(AiWorkScheduler.Lane.INTERACTIVE, () -> aiMatchService.extractResumeInsights(resumeId));
     }
 
     /**
      * Match job and resume, return matching result
      * @param jobId
      * @param resumeId
+     * @param mode LLM, EMBEDDING or RULE, the configured mode if not given
      * @return
      */
     @GetMapping("/match")
     @RolesAllowed({CONSTANTS.ROLE_ADMIN})
-    public MatchingIndexDTO match(@RequestParam Long jobId, @RequestParam Long resumeId) {
-        return aiMatchService.match(jobId, resumeId);
+    public MatchingIndexDTO match(@RequestParam Long jobId,
+                                  @RequestParam Long resumeId,
+                                  @RequestParam(required = false) MatchMode mode) {
+        return aiWorkScheduler.call(AiWorkScheduler.Lane.INTERACTIVE, () -> mode == null
+                ? aiMatchService.match(jobId, resumeId)
+                : aiMatchService.match(jobId, resumeId, mode));
     }
 
     /**
@@ -5,12 +5,11 @@ import com.pengyu.magnet.dto.AnswerDTO;
 import com.pengyu.magnet.dto.AnswerSheetDTO;
 import com.pengyu.magnet.repository.assessment.TestInvitationRepository;
 import com.pengyu.magnet.service.assessment.AnswerSheetService;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -72,13 +71,8 @@ public class AnswerSheetController {
                                         @RequestParam(defaultValue = "desc", required = false) String order,
                                         @RequestParam(required = false) Long userId,
                                         HttpServletResponse response){
-        // process sort factor
-        Sort sortBy = "desc".equals(order) ? Sort.by(sort).descending() : Sort.by(sort).ascending();
-
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sortBy);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sort, order);
 
         // Set Header
         String count = String.valueOf(answerSheetService.count(userId));
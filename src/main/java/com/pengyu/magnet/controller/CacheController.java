@@ -0,0 +1,38 @@
+package com.pengyu.magnet.controller;
+
+import com.pengyu.magnet.config.CONSTANTS;
+import com.pengyu.magnet.service.cache.EntityCacheService;
+import jakarta.annotation.security.RolesAllowed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Second-level cache Controller
+ */
+@RestController
+@RequestMapping("/api/v1/cache")
+@RequiredArgsConstructor
+public class CacheController {
+    private final EntityCacheService entityCacheService;
+
+    /**
+     * Hits, misses and puts of every cache region
+     * @return
+     */
+    @GetMapping("/stats")
+    @RolesAllowed({CONSTANTS.ROLE_ADMIN})
+    public Map<String, Map<String, Long>> stats() {
+        return entityCacheService.stats();
+    }
+
+    /**
+     * Evict everything, e.g. after the database was changed by hand
+     */
+    @DeleteMapping
+    @RolesAllowed({CONSTANTS.ROLE_ADMIN})
+    public void evictAll() {
+        entityCacheService.evictAll();
+    }
+}
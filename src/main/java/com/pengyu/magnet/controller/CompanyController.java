@@ -4,12 +4,11 @@ import com.pengyu.magnet.config.CONSTANTS;
 import com.pengyu.magnet.dto.CompanyRequest;
 import com.pengyu.magnet.dto.CompanyResponse;
 import com.pengyu.magnet.service.compnay.CompanyService;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -61,12 +60,8 @@ public class CompanyController {
                                          @RequestParam(defaultValue = "id", required = false) String sort,
                                          @RequestParam(defaultValue = "desc", required = false) String order,
                                          HttpServletResponse response){
-        // process sort factor
-        Sort sortBy = "desc".equals(order) ? Sort.by(sort).descending() : Sort.by(sort).ascending();
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sortBy);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sort, order);
 
         // Set Header
         String count = String.valueOf(companyService.count());
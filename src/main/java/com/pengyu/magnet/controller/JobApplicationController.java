@@ -2,14 +2,14 @@ package com.pengyu.magnet.controller;
 
 import com.pengyu.magnet.config.CONSTANTS;
 import com.pengyu.magnet.domain.JobApplication;
+import com.pengyu.magnet.dto.CursorPage;
 import com.pengyu.magnet.dto.JobApplicationDTO;
 import com.pengyu.magnet.service.JobApplicationService;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -36,6 +36,8 @@ public class JobApplicationController {
      * @param _end
      * @param sort
      * @param order
+     * @param after keyset cursor from the x-next-cursor header, empty for the first page, _start is ignored if present
+     * @param total whether to count x-total-count in keyset mode
      * @return list of JobResponse
      */
     @GetMapping()
@@ -44,15 +46,22 @@ public class JobApplicationController {
                                            @RequestParam(defaultValue = "10", required = false) Integer _end,
                                            @RequestParam(defaultValue = "id", required = false) String sort,
                                            @RequestParam(defaultValue = "desc", required = false) String order,
+                                           @RequestParam(required = false) String after,
+                                           @RequestParam(defaultValue = "false") boolean total,
                                            HttpServletResponse response
                                      ){
-        // process sort factor
-        Sort sortBy = "desc".equals(order) ? Sort.by(sort).descending() : Sort.by(sort).ascending();
+        // Keyset pagination
+        if(after != null) {
+            CursorPage<JobApplicationDTO> page = jobApplicationService.findAll(PageUtil.getKeyset(after, _start, _end, sort, order), null);
+            if(total) {
+                response.addHeader("x-total-count", String.valueOf(jobApplicationService.count()));
+            }
+            PageUtil.setNextCursor(response, page.getNextCursor());
+            return page.getContent();
+        }
 
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sortBy);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sort, order);
 
         // Set Header
         String count = String.valueOf(jobApplicationService.count());
@@ -1,15 +1,16 @@
 package com.pengyu.magnet.controller;
 
 import com.pengyu.magnet.config.CONSTANTS;
+import com.pengyu.magnet.dto.CursorPage;
 import com.pengyu.magnet.dto.JobRequest;
 import com.pengyu.magnet.dto.JobResponse;
+import com.pengyu.magnet.dto.JobSummary;
 import com.pengyu.magnet.service.compnay.JobService;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -42,22 +43,32 @@ public class JobController {
      * @param _end
      * @param sortBy
      * @param order
-     * @return list of JobResponse
+     * @param after keyset cursor from the x-next-cursor header, empty for the first page, _start is ignored if present
+     * @param total whether to count x-total-count in keyset mode
+     * @return list of JobSummary
      */
     @GetMapping()
-    public List<JobResponse> findAll(@RequestParam(defaultValue = "0", required = false) Integer _start,
-                                     @RequestParam(defaultValue = "10", required = false) Integer _end,
-                                     @RequestParam(defaultValue = "id", required = false) String sortBy,
-                                     @RequestParam(defaultValue = "desc", required = false) String order,
-                                     HttpServletResponse response,
-                                     @RequestParam (required = false) Long companyId
+    public List<JobSummary> findAll(@RequestParam(defaultValue = "0", required = false) Integer _start,
+                                    @RequestParam(defaultValue = "10", required = false) Integer _end,
+                                    @RequestParam(defaultValue = "id", required = false) String sortBy,
+                                    @RequestParam(defaultValue = "desc", required = false) String order,
+                                    HttpServletResponse response,
+                                    @RequestParam (required = false) Long companyId,
+                                    @RequestParam(required = false) String after,
+                                    @RequestParam(defaultValue = "false") boolean total
                                      ){
-        // process sort factor
-        Sort sort = "desc".equals(order) ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        // Keyset pagination
+        if(after != null) {
+            CursorPage<JobSummary> page = jobService.findAll(PageUtil.getKeyset(after, _start, _end, sortBy, order), companyId);
+            if(total) {
+                response.addHeader("x-total-count", String.valueOf(jobService.count(companyId)));
+            }
+            PageUtil.setNextCursor(response, page.getNextCursor());
+            return page.getContent();
+        }
+
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sort);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sortBy, order);
 
         // Set Header
         String count = String.valueOf(jobService.count(companyId));
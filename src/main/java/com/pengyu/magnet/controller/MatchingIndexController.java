@@ -1,18 +1,24 @@
 package com.pengyu.magnet.controller;
 
 import com.pengyu.magnet.config.CONSTANTS;
+import com.pengyu.magnet.domain.match.BulkMatchTask;
 import com.pengyu.magnet.domain.match.JobInsights;
 import com.pengyu.magnet.domain.match.ResumeInsights;
+import com.pengyu.magnet.dto.CandidateDTO;
+import com.pengyu.magnet.dto.CursorPage;
+import com.pengyu.magnet.dto.MatchSummary;
 import com.pengyu.magnet.dto.MatchingIndexDTO;
+import com.pengyu.magnet.service.ai.AsyncTaskService;
+import com.pengyu.magnet.service.match.BulkMatchService;
 import com.pengyu.magnet.service.match.JobInsightsService;
 import com.pengyu.magnet.service.match.MatchingIndexService;
 import com.pengyu.magnet.service.match.ResumeInsightsService;
+import com.pengyu.magnet.service.match.ResumeVectorIndex;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -27,25 +33,48 @@ public class MatchingIndexController {
     private final JobInsightsService jobRequirementsService;
     private final ResumeInsightsService resumeInsightsService;
 
+    private final ResumeVectorIndex resumeVectorIndex;
+
+    private final BulkMatchService bulkMatchService;
+
+    private final AsyncTaskService asyncTaskService;
+
     @GetMapping("/{id}")
     public MatchingIndexDTO findById(@PathVariable Long id) {
         return matchingIndexService.find(id);
     }
 
+    /**
+     * Find list rows of matching indexes, with job title and resume name instead of the full job and resume
+     * @param _start
+     * @param _end
+     * @param sort
+     * @param order
+     * @param after
+     * @param total
+     * @return list of MatchSummary
+     */
     @GetMapping
     @RolesAllowed({CONSTANTS.ROLE_ADMIN})
-    public List<MatchingIndexDTO> findAll(@RequestParam(defaultValue = "0", required = false) Integer _start,
-                                          @RequestParam(defaultValue = "10", required = false) Integer _end,
-                                          @RequestParam(defaultValue = "id", required = false) String sort,
-                                          @RequestParam(defaultValue = "desc", required = false) String order,
-                                          HttpServletResponse response){
-        // process sort factor
-        Sort sortBy = "desc".equals(order) ? Sort.by(sort).descending() : Sort.by(sort).ascending();
+    public List<MatchSummary> findAll(@RequestParam(defaultValue = "0", required = false) Integer _start,
+                                      @RequestParam(defaultValue = "10", required = false) Integer _end,
+                                      @RequestParam(defaultValue = "id", required = false) String sort,
+                                      @RequestParam(defaultValue = "desc", required = false) String order,
+                                      @RequestParam(required = false) String after,
+                                      @RequestParam(defaultValue = "false") boolean total,
+                                      HttpServletResponse response){
+        // Keyset pagination, after is the x-next-cursor of the previous page, empty for the first page
+        if(after != null) {
+            CursorPage<MatchSummary> page = matchingIndexService.findAll(PageUtil.getKeyset(after, _start, _end, sort, order));
+            if(total) {
+                response.addHeader("x-total-count", String.valueOf(matchingIndexService.count()));
+            }
+            PageUtil.setNextCursor(response, page.getNextCursor());
+            return page.getContent();
+        }
 
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sortBy);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sort, order);
 
         // Set Header
         String count = String.valueOf(matchingIndexService.count());
@@ -55,6 +84,44 @@ public class MatchingIndexController {
         return matchingIndexService.findAll(pageable);
     }
 
+    /**
+     * Top K resumes for a job, approximate retrieval by profile similarity
+     * @param jobId
+     * @param k
+     * @return
+     */
+    @GetMapping("/jobs/{jobId}/top")
+    @RolesAllowed({CONSTANTS.ROLE_ADMIN, CONSTANTS.ROLE_COMPANY})
+    public List<CandidateDTO> topCandidates(@PathVariable Long jobId,
+                                            @RequestParam(defaultValue = "50", required = false) Integer k) {
+        bulkMatchService.checkPermission(jobId);
+        return resumeVectorIndex.topCandidates(jobId, k);
+    }
+
+    /**
+     * Score a job against all active resumes in background
+     * @param jobId
+     * @return task, poll its progress with /tasks/{taskId}
+     */
+    @PostMapping("/jobs/{jobId}/score_all")
+    @RolesAllowed({CONSTANTS.ROLE_ADMIN, CONSTANTS.ROLE_COMPANY})
+    public BulkMatchTask scoreAll(@PathVariable Long jobId) {
+        bulkMatchService.checkPermission(jobId);
+        BulkMatchTask task = bulkMatchService.createTask(jobId);
+        asyncTaskService.asyncBulkMatch(jobId, task.getId());
+        return task;
+    }
+
+    /**
+     * Progress of a bulk match task
+     * @param taskId
+     * @return
+     */
+    @GetMapping("/tasks/{taskId}")
+    @RolesAllowed({CONSTANTS.ROLE_ADMIN, CONSTANTS.ROLE_COMPANY})
+    public BulkMatchTask findTask(@PathVariable String taskId) {
+        return bulkMatchService.findTask(taskId);
+    }
 
     @GetMapping("/resume_insights/{resumeId}")
     public ResumeInsights getResumeInsights(@PathVariable Long resumeId) {
@@ -2,13 +2,13 @@ package com.pengyu.magnet.controller;
 
 import com.pengyu.magnet.config.CONSTANTS;
 import com.pengyu.magnet.dto.ResumeDTO;
+import com.pengyu.magnet.dto.ResumeSummary;
 import com.pengyu.magnet.service.resume.ResumeService;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -36,22 +36,17 @@ public class ResumeController {
      * @param _end
      * @param sort
      * @param order
-     * @return list of resumes
+     * @return list of ResumeSummary, without contact information and lists
      */
     @GetMapping()
     @RolesAllowed({CONSTANTS.ROLE_ADMIN, CONSTANTS.ROLE_COMPANY})
-    public List<ResumeDTO> findAll(@RequestParam(defaultValue = "0", required = false) Integer _start,
-                                   @RequestParam(defaultValue = "10", required = false) Integer _end,
-                                   @RequestParam(defaultValue = "id", required = false) String sort,
-                                   @RequestParam(defaultValue = "desc", required = false) String order,
-                                   HttpServletResponse response){
-        // process sort factor
-        Sort sortBy = "desc".equals(order) ? Sort.by(sort).descending() : Sort.by(sort).ascending();
-
+    public List<ResumeSummary> findAll(@RequestParam(defaultValue = "0", required = false) Integer _start,
+                                       @RequestParam(defaultValue = "10", required = false) Integer _end,
+                                       @RequestParam(defaultValue = "id", required = false) String sort,
+                                       @RequestParam(defaultValue = "desc", required = false) String order,
+                                       HttpServletResponse response){
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sortBy);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sort, order);
 
         // Set Header
         String count = String.valueOf(resumeService.count());
@@ -1,81 +1,120 @@
 package com.pengyu.magnet.controller;
 
+import com.pengyu.magnet.domain.stats.StatsDailyRollup;
 import com.pengyu.magnet.dto.LinearStatisticsDataResponse;
 import com.pengyu.magnet.dto.LinearStatisticsResponse;
-import com.pengyu.magnet.repository.UserRepository;
-import com.pengyu.magnet.service.JobApplicationService;
-import com.pengyu.magnet.service.compnay.CompanyService;
-import com.pengyu.magnet.service.compnay.JobService;
-import com.pengyu.magnet.service.resume.ResumeService;
-import com.pengyu.magnet.service.user.UserService;
+import com.pengyu.magnet.exception.ApiException;
+import com.pengyu.magnet.service.stats.StatsRollupService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
+/**
+ * Statistics, read from the daily rollup maintained by StatsRollupService
+ */
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/stats")
 public class StatsController {
 
-    private final CompanyService companyService;
-    private final ResumeService resumeService;
-    private final JobService jobService;
-    private final JobApplicationService jobApplicationService;
-    private final UserService userService;
+    // Longest window of the linear chart
+    private static final int MAX_MONTHS = 120;
 
-    @GetMapping
-    public List<Map<String,String>> getStats(){
-        List<Map<String,String>> list = new ArrayList<>();
-
-        Map<String, String> user = new HashMap<>();
-        user.put("title", "user");
-        user.put("value", String.valueOf(userService.count()));
-        list.add(user);
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM yyyy", Locale.ENGLISH);
 
-        Map<String, String> company = new HashMap<>();
-        company.put("title", "company");
-        company.put("value", String.valueOf(companyService.count()));
-        list.add(company);
+    private final StatsRollupService statsRollupService;
 
-        Map<String, String> job = new HashMap<>();
-        job.put("title", "Job");
-        job.put("value", String.valueOf(jobService.count()));
-        list.add(job);
-
-        Map<String, String> resume = new HashMap<>();
-        resume.put("title", "Resume");
-        resume.put("value", String.valueOf(resumeService.count()));
-        list.add(resume);
-
-        Map<String, String> application = new HashMap<>();
-        application.put("title", "Application");
-        application.put("value", String.valueOf(jobApplicationService.count()));
-        list.add(application);
+    /**
+     * Rows created in a window, all time by default
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return
+     */
+    @GetMapping
+    public List<Map<String,String>> getStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        Map<StatsDailyRollup.Metric, Long> totals = statsRollupService.totals(
+                from == null ? StatsRollupService.FIRST_DAY : from,
+                to == null ? LocalDate.now() : to);
 
+        List<Map<String,String>> list = new ArrayList<>();
+        list.add(stat("user", totals.get(StatsDailyRollup.Metric.USER)));
+        list.add(stat("company", totals.get(StatsDailyRollup.Metric.COMPANY)));
+        list.add(stat("Job", totals.get(StatsDailyRollup.Metric.JOB)));
+        list.add(stat("Resume", totals.get(StatsDailyRollup.Metric.RESUME)));
+        list.add(stat("Application", totals.get(StatsDailyRollup.Metric.JOB_APPLICATION)));
         return list;
     }
 
+    private static Map<String, String> stat(String title, Long value) {
+        Map<String, String> stat = new HashMap<>();
+        stat.put("title", title);
+        stat.put("value", String.valueOf(value));
+        return stat;
+    }
+
+    /**
+     * Rows created per month, of a year (the current year by default) or of a date range
+     * @param year
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return
+     */
     @GetMapping("/linear")
-    public LinearStatisticsResponse mock() {
+    public LinearStatisticsResponse linear(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if(from == null && to == null) {
+            int y = year == null ? LocalDate.now().getYear() : year;
+            from = LocalDate.of(y, 1, 1);
+            to = LocalDate.of(y, 12, 31);
+        } else if(from == null || to == null) {
+            throw new ApiException("Both from and to are required");
+        }
+        YearMonth first = YearMonth.from(from);
+        long months = ChronoUnit.MONTHS.between(first, YearMonth.from(to)) + 1;
+        if(to.isBefore(from) || months > MAX_MONTHS) {
+            throw new ApiException("The window must end after it starts and cover at most " + MAX_MONTHS + " months");
+        }
+
+        Map<StatsDailyRollup.Metric, List<Long>> monthly = statsRollupService.monthly(from, to);
+
         LinearStatisticsDataResponse userCounts =
-                new LinearStatisticsDataResponse("User", userService.getRegistrationCounts(), 0.4, "#F03E3E", "#F03E3E");
+                new LinearStatisticsDataResponse("User", monthly.get(StatsDailyRollup.Metric.USER), 0.4, "#F03E3E", "#F03E3E");
         LinearStatisticsDataResponse companyCounts =
-                new LinearStatisticsDataResponse("Company", companyService.getCompanyCounts(), 0.4, "#AE3EC9", "#AE3EC9");
+                new LinearStatisticsDataResponse("Company", monthly.get(StatsDailyRollup.Metric.COMPANY), 0.4, "#AE3EC9", "#AE3EC9");
         LinearStatisticsDataResponse resumeCounts =
-                new LinearStatisticsDataResponse("Resume", resumeService.getResumeCounts(), 0.4, "#1C7ED6", "#1C7ED6");
+                new LinearStatisticsDataResponse("Resume", monthly.get(StatsDailyRollup.Metric.RESUME), 0.4, "#1C7ED6", "#1C7ED6");
         LinearStatisticsDataResponse jobCounts =
-                new LinearStatisticsDataResponse("Job", jobService.getJobCounts(), 0.4, "#F08C00", "#F08C00");
+                new LinearStatisticsDataResponse("Job", monthly.get(StatsDailyRollup.Metric.JOB), 0.4, "#F08C00", "#F08C00");
         LinearStatisticsDataResponse applicationCounts =
-                new LinearStatisticsDataResponse("Job Application", jobApplicationService.getJobApplicationCounts(), 0.4, "#099268", "#099268");
+                new LinearStatisticsDataResponse("Job Application", monthly.get(StatsDailyRollup.Metric.JOB_APPLICATION), 0.4, "#099268", "#099268");
 
 
         LinearStatisticsResponse list = new LinearStatisticsResponse();
+        // Month names for a calendar year, month and year otherwise
+        if(!(months == 12 && first.getMonthValue() == 1)) {
+            String[] labels = new String[(int) months];
+            for(int i = 0; i < months; i++) {
+                labels[i] = first.plusMonths(i).format(MONTH_LABEL);
+            }
+            list.setLabels(labels);
+        }
         list.getDatasets().add(userCounts);
         list.getDatasets().add(companyCounts);
         list.getDatasets().add(resumeCounts);
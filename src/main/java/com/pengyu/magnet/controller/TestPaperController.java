@@ -3,15 +3,17 @@ package com.pengyu.magnet.controller;
 import com.pengyu.magnet.config.CONSTANTS;
 import com.pengyu.magnet.dto.TestPaperDTO;
 import com.pengyu.magnet.dto.TestPaperGenerationRequest;
+import com.pengyu.magnet.service.ai.AiWorkScheduler;
 import com.pengyu.magnet.service.assessment.AIPaperGeneratorService;
 import com.pengyu.magnet.service.assessment.TestPaperService;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -25,6 +27,8 @@ public class TestPaperController {
     private final TestPaperService testPaperService;
     private final AIPaperGeneratorService paperGeneratorService;
 
+    private final AiWorkScheduler aiWorkScheduler;
+
     /**
      * Save Test Paper
      * @param testPaperDTO
@@ -49,13 +53,8 @@ public class TestPaperController {
                                       @RequestParam(defaultValue = "desc", required = false) String order,
                                       @RequestParam(required = false) Long userId,
                                       HttpServletResponse response){
-        // process sort factor
-        Sort sortBy = "desc".equals(order) ? Sort.by(sort).descending() : Sort.by(sort).ascending();
-
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sortBy);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sort, order);
 
         // Set Header
         String count = String.valueOf(testPaperService.count(userId));
@@ -73,6 +72,18 @@ public class TestPaperController {
     @PostMapping("/generate")
     @RolesAllowed({CONSTANTS.ROLE_COMPANY, CONSTANTS.ROLE_ADMIN})
     public TestPaperDTO generate(@RequestBody TestPaperGenerationRequest testPaperGenerationRequest) {
-        return paperGeneratorService.generatePaper(testPaperGenerationRequest);
+        return aiWorkScheduler.call(AiWorkScheduler.Lane.INTERACTIVE,
+                () -> paperGeneratorService.generatePaper(testPaperGenerationRequest));
+    }
+
+    /**
+     * Generate Test Paper using AI, questions are streamed as Server-Sent Events
+     * @param testPaperGenerationRequest
+     * @return
+     */
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RolesAllowed({CONSTANTS.ROLE_COMPANY, CONSTANTS.ROLE_ADMIN})
+    public SseEmitter generateStream(@RequestBody TestPaperGenerationRequest testPaperGenerationRequest) {
+        return paperGeneratorService.streamPaper(testPaperGenerationRequest);
     }
 }
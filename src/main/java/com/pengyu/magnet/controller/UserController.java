@@ -4,13 +4,12 @@ package com.pengyu.magnet.controller;
 import com.pengyu.magnet.config.CONSTANTS;
 import com.pengyu.magnet.dto.*;
 import com.pengyu.magnet.service.user.UserService;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -38,18 +37,13 @@ public class UserController {
     }
     @GetMapping
     @RolesAllowed({CONSTANTS.ROLE_ADMIN})
-    public List<UserResponse> findAll(@RequestParam(defaultValue = "0", required = false) Integer _start,
+    public List<UserSummary> findAll(@RequestParam(defaultValue = "0", required = false) Integer _start,
                                           @RequestParam(defaultValue = "10", required = false) Integer _end,
                                           @RequestParam(defaultValue = "id", required = false) String sort,
                                           @RequestParam(defaultValue = "desc", required = false) String order,
                                           HttpServletResponse response){
-        // process sort factor
-        Sort sortBy = "desc".equals(order) ? Sort.by(sort).descending() : Sort.by(sort).ascending();
-
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sortBy);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sort, order);
 
         // Set Header
         String count = String.valueOf(userService.count());
@@ -59,7 +53,6 @@ public class UserController {
         return userService.findAll(pageable);
     }
 
-
     /**
      * Add User
      * @param userRequest
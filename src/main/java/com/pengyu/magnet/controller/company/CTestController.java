@@ -3,13 +3,12 @@ package com.pengyu.magnet.controller.company;
 import com.pengyu.magnet.config.CONSTANTS;
 import com.pengyu.magnet.dto.TestPaperDTO;
 import com.pengyu.magnet.service.assessment.TestPaperService;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -53,12 +52,8 @@ public class CTestController {
                                       @RequestParam(defaultValue = "id", required = false) String sortBy,
                                       @RequestParam(defaultValue = "desc", required = false) String order,
                                       HttpServletResponse response) {
-        // process sort factor
-        Sort sort = "desc".equals(order) ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sort);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sortBy, order);
 
         Page<TestPaperDTO> testPaperDTOPage = testPaperService.findAllByCurrentCompany(pageable);
 
@@ -3,12 +3,11 @@ package com.pengyu.magnet.controller.jobseeker;
 import com.pengyu.magnet.config.CONSTANTS;
 import com.pengyu.magnet.dto.JobApplicationDTO;
 import com.pengyu.magnet.service.JobApplicationService;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -57,13 +56,8 @@ public class SApplicationController {
                                            @RequestParam(defaultValue = "desc", required = false) String order,
                                            HttpServletResponse response
                                      ){
-        // process sort factor
-        Sort sortBy = "desc".equals(order) ? Sort.by(sort).descending() : Sort.by(sort).ascending();
-
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sortBy);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sort, order);
 
         // Set Header
         String count = String.valueOf(jobApplicationService.countByCurrentUser());
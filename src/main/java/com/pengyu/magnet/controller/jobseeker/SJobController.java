@@ -1,22 +1,32 @@
 package com.pengyu.magnet.controller.jobseeker;
 
 
+import com.pengyu.magnet.dto.JobFacetResult;
 import com.pengyu.magnet.dto.JobResponse;
+import com.pengyu.magnet.dto.JobSearchResult;
+import com.pengyu.magnet.dto.JobSummary;
 import com.pengyu.magnet.service.compnay.JobService;
+import com.pengyu.magnet.service.search.JobFacetIndex;
+import com.pengyu.magnet.service.search.JobFacetService;
+import com.pengyu.magnet.service.search.JobSearchService;
+import com.pengyu.magnet.utils.PageUtil;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/sjobs")
 public class SJobController {
     private final JobService jobService;
+    private final JobSearchService jobSearchService;
+    private final JobFacetService jobFacetService;
 
     /**
      * Find job by id
@@ -35,22 +45,18 @@ public class SJobController {
      * @param sortBy
      * @param order
      * @param title_like
-     * @return list of JobResponse
+     * @return list of JobSummary
      */
     @GetMapping()
-    public List<JobResponse> findAll(@RequestParam(defaultValue = "0", required = false) Integer _start,
-                                     @RequestParam(defaultValue = "10", required = false) Integer _end,
-                                     @RequestParam(defaultValue = "id", required = false) String sortBy,
-                                     @RequestParam(defaultValue = "desc", required = false) String order,
-                                     @RequestParam(required = false) String title_like,
-                                     HttpServletResponse response
+    public List<JobSummary> findAll(@RequestParam(defaultValue = "0", required = false) Integer _start,
+                                    @RequestParam(defaultValue = "10", required = false) Integer _end,
+                                    @RequestParam(defaultValue = "id", required = false) String sortBy,
+                                    @RequestParam(defaultValue = "desc", required = false) String order,
+                                    @RequestParam(required = false) String title_like,
+                                    HttpServletResponse response
     ){
-        // process sort factor
-        Sort sort = "desc".equals(order) ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
-        Pageable pageable = PageRequest.of(page, pageSize, sort);
+        Pageable pageable = PageUtil.getPageable(_start, _end, sortBy, order);
 
         // Set Header
         String count = String.valueOf(jobService.count(title_like));
@@ -60,4 +66,57 @@ public class SJobController {
         return jobService.findAll(pageable, title_like);
     }
 
+    /**
+     * Full text search over title, description, location and skills of active jobs
+     * @param q
+     * @param _start
+     * @param _end
+     * @return matches ordered by relevance, with highlighted title and description snippet
+     */
+    @GetMapping("/search")
+    public List<JobSearchResult> search(@RequestParam String q,
+                                        @RequestParam(defaultValue = "0", required = false) Integer _start,
+                                        @RequestParam(defaultValue = "10", required = false) Integer _end,
+                                        HttpServletResponse response) {
+        Page<JobSearchResult> page = jobSearchService.search(q, _start, _end - _start);
+
+        // Set Header
+        response.addHeader("x-total-count", String.valueOf(page.getTotalElements()));
+        response.addHeader("Access-Control-Expose-Headers", "x-total-count");
+
+        return page.getContent();
+    }
+
+    /**
+     * Filter jobs by facets, values of one facet are combined with OR, facets with AND
+     * @param location
+     * @param salary salary bucket, like "50k-80k"
+     * @param status
+     * @param skill
+     * @param _start
+     * @param _end
+     * @return jobs newest first and the counts of every facet value
+     */
+    @GetMapping("/facets")
+    public JobFacetResult facets(@RequestParam(required = false) List<String> location,
+                                 @RequestParam(required = false) List<String> salary,
+                                 @RequestParam(required = false) List<String> status,
+                                 @RequestParam(required = false) List<String> skill,
+                                 @RequestParam(defaultValue = "0", required = false) Integer _start,
+                                 @RequestParam(defaultValue = "10", required = false) Integer _end,
+                                 HttpServletResponse response) {
+        Map<JobFacetIndex.Facet, List<String>> filters = new EnumMap<>(JobFacetIndex.Facet.class);
+        if(location != null) filters.put(JobFacetIndex.Facet.LOCATION, location);
+        if(salary != null) filters.put(JobFacetIndex.Facet.SALARY, salary);
+        if(status != null) filters.put(JobFacetIndex.Facet.STATUS, status);
+        if(skill != null) filters.put(JobFacetIndex.Facet.SKILL, skill);
+
+        JobFacetResult result = jobFacetService.search(filters, _start, _end - _start);
+
+        // Set Header
+        response.addHeader("x-total-count", String.valueOf(result.getTotal()));
+        response.addHeader("Access-Control-Expose-Headers", "x-total-count");
+
+        return result;
+    }
 }
@@ -0,0 +1,111 @@
+package com.pengyu.magnet.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primary and read replica DataSources, enabled by magnet.datasource.replicas.enabled.
+ * spring.datasource configures the primary, replicas share its driver, credentials and
+ * pool settings unless replica credentials are given.
+ */
+@Configuration
+@ConditionalOnProperty(name = "magnet.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig implements DisposableBean {
+
+    @Value("#{'${magnet.datasource.replicas.urls:}'.split(',')}")
+    private List<String> replicaUrls;
+
+    @Value("${magnet.datasource.replicas.username:}")
+    private String replicaUsername;
+
+    @Value("${magnet.datasource.replicas.password:}")
+    private String replicaPassword;
+
+    @Value("${magnet.datasource.replicas.max-lag:PT5S}")
+    private Duration maxLag;
+
+    @Value("${magnet.datasource.replicas.sticky-for:PT5S}")
+    private Duration stickyFor;
+
+    @Value("${magnet.datasource.replicas.lag-query:SHOW REPLICA STATUS}")
+    private String lagQuery;
+
+    @Value("${magnet.datasource.replicas.lag-column:Seconds_Behind_Source}")
+    private String lagColumn;
+
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties) {
+        for(String url : replicaUrls) {
+            if(StringUtils.isBlank(url)) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .build();
+            if(StringUtils.isNotBlank(replicaUsername)) {
+                replica.setUsername(replicaUsername);
+                replica.setPassword(replicaPassword);
+            }
+            replica.setPoolName(name);
+            replica.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, stickyFor);
+    }
+
+    /**
+     * The DataSource of JPA and JdbcTemplate, the connection is chosen at the first statement
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, replicas, lagQuery, lagColumn);
+    }
+
+    @Bean
+    public ReplicaReadFilter replicaReadFilter() {
+        return new ReplicaReadFilter();
+    }
+
+    /**
+     * Replica pools are not beans, close them with the context
+     */
+    @Override
+    public void destroy() {
+        replicas.values().forEach(replica -> ((HikariDataSource) replica).close());
+    }
+}
@@ -0,0 +1,26 @@
+package com.pengyu.magnet.datasource;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Switches off open-in-view when magnet.datasource.replicas.enabled is true.
+ * The entity manager of a request holds the connection of its first query, a GET request
+ * reading outside of a transaction would run its later @Transactional writes on a read-only replica.
+ * Without it repositories open a transaction, and a connection, per call, so services that map
+ * lazy associations to DTOs do it in a @Transactional(readOnly = true) method, e.g. TestPaperServiceImpl.find.
+ */
+public class ReplicaEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if(environment.getProperty("magnet.datasource.replicas.enabled", Boolean.class, false)) {
+            environment.getPropertySources().addFirst(
+                    new MapPropertySource("replicas", Map.of("spring.jpa.open-in-view", false)));
+        }
+    }
+}
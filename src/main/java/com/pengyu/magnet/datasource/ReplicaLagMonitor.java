@@ -0,0 +1,76 @@
+package com.pengyu.magnet.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks the replication lag of every replica and reports it to the routing DataSource.
+ * A replica that can't be reached or isn't replicating gets no reads until it is back.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final String lagQuery;
+    private final String lagColumn;
+    // Replicas that got no reads at the last check
+    private final Set<String> down = new HashSet<>();
+
+    /**
+     * @param routingDataSource
+     * @param replicas replica DataSources by name
+     * @param lagQuery query returning the lag in seconds, like "SHOW REPLICA STATUS", blank to assume no lag
+     * @param lagColumn column of the lag in the result
+     */
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, Map<String, DataSource> replicas,
+                             String lagQuery, String lagColumn) {
+        this.routingDataSource = routingDataSource;
+        replicas.forEach((name, dataSource) -> this.replicas.put(name, new JdbcTemplate(dataSource)));
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+    }
+
+    @Scheduled(fixedDelayString = "${magnet.datasource.replicas.lag-check-interval:5000}")
+    public void check() {
+        replicas.forEach((name, jdbcTemplate) -> {
+            Duration lag = lag(name, jdbcTemplate);
+            if(lag == null && down.add(name)) {
+                log.warn("Replica {} is not replicating, its reads go to the primary", name);
+            } else if(lag != null && down.remove(name)) {
+                log.info("Replica {} is back, lag {}", name, lag);
+            }
+            routingDataSource.setLag(name, lag);
+        });
+        routingDataSource.expireWrites();
+    }
+
+    private Duration lag(String name, JdbcTemplate jdbcTemplate) {
+        try {
+            if(StringUtils.isBlank(lagQuery)) {
+                // Still check the replica is reachable
+                jdbcTemplate.execute("SELECT 1");
+                return Duration.ZERO;
+            }
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(lagQuery);
+            if(rows.isEmpty()) {
+                return null;
+            }
+            Object seconds = rows.get(0).get(lagColumn);
+            return seconds instanceof Number number ? Duration.ofSeconds(number.longValue()) : null;
+        } catch (RuntimeException e) {
+            log.warn("Lag check of replica {} failed: {}", name, e.getMessage());
+            return null;
+        }
+    }
+}
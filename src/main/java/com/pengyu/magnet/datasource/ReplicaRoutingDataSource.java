@@ -0,0 +1,145 @@
+package com.pengyu.magnet.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes reads to replicas and everything else to the primary.
+ * A connection is a read if it is taken in a read-only transaction, or outside of any
+ * transaction while serving a GET request. Reads go to the primary instead when no replica
+ * is within the allowed lag, or when the current user wrote within the sticky window,
+ * so users always read their own writes.
+ * Must be wrapped in a LazyConnectionDataSourceProxy, the transaction has to be set up
+ * before a connection is chosen. An entity manager keeps its connection until it is closed,
+ * so open-in-view has to be off, see ReplicaEnvironmentPostProcessor.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> READ_REQUEST = new ThreadLocal<>();
+
+    private final List<String> replicaNames;
+    private final long maxLagNanos;
+    private final long stickyNanos;
+
+    // Lag of every replica, missing while unknown or not replicating
+    private final Map<String, Duration> lags = new ConcurrentHashMap<>();
+    // Last write of every user, System.nanoTime()
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, Duration stickyFor) {
+        this.replicaNames = List.copyOf(replicas.keySet());
+        this.maxLagNanos = maxLag.toNanos();
+        this.stickyNanos = stickyFor.toNanos();
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Mark the current thread as serving a read request, until cleared with false
+     * @param read
+     */
+    public static void setReadRequest(boolean read) {
+        if(read) {
+            READ_REQUEST.set(Boolean.TRUE);
+        } else {
+            READ_REQUEST.remove();
+        }
+    }
+
+    /**
+     * Names of the replicas
+     */
+    public List<String> getReplicaNames() {
+        return replicaNames;
+    }
+
+    /**
+     * Report the lag of a replica
+     * @param replica
+     * @param lag null if unknown or the replica is not replicating, it gets no reads then
+     */
+    public void setLag(String replica, Duration lag) {
+        if(lag == null) {
+            lags.remove(replica);
+        } else {
+            lags.put(replica, lag);
+        }
+    }
+
+    /**
+     * Drop writes older than the sticky window
+     */
+    public void expireWrites() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(writtenAt -> now - writtenAt >= stickyNanos);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean read = inTransaction
+                ? TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                : Boolean.TRUE.equals(READ_REQUEST.get());
+        if(!read) {
+            if(inTransaction && user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                // Sticky from the commit on, a rolled back transaction wrote nothing
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        lastWrites.put(user, System.nanoTime());
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+
+        // Read your writes
+        if(user != null) {
+            Long writtenAt = lastWrites.get(user);
+            if(writtenAt != null && System.nanoTime() - writtenAt < stickyNanos) {
+                return PRIMARY;
+            }
+        }
+
+        List<String> healthy = new ArrayList<>(replicaNames.size());
+        for(String replica : replicaNames) {
+            Duration lag = lags.get(replica);
+            if(lag != null && lag.toNanos() <= maxLagNanos) {
+                healthy.add(replica);
+            }
+        }
+        if(healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if(authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -1,7 +1,11 @@
 package com.pengyu.magnet.domain;
 
+import com.pengyu.magnet.service.count.CountInvalidationListener;
+import com.pengyu.magnet.service.stats.StatsRollupListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
@@ -11,8 +15,10 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name="company")
+@Table(name="company", indexes = @Index(name = "company_created_at_idx", columnList = "created_at"))
 @DynamicUpdate
+@EntityListeners({CountInvalidationListener.class, StatsRollupListener.class})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company")
 public class Company {
 
     @Id
@@ -1,8 +1,12 @@
 package com.pengyu.magnet.domain;
 
 
+import com.pengyu.magnet.service.count.CountInvalidationListener;
+import com.pengyu.magnet.service.stats.StatsRollupListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
@@ -13,9 +17,14 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Data
-// Add Index for title
-@Table(name = "job", indexes = @Index(columnList="title"))
+// Add Index for title, created_at for the stats rollup
+@Table(name = "job", indexes = {
+        @Index(columnList="title"),
+        @Index(name = "job_created_at_idx", columnList = "created_at")
+})
 @DynamicUpdate
+@EntityListeners({CountInvalidationListener.class, StatsRollupListener.class})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "job")
 public class Job {
 
     @Id
@@ -1,5 +1,7 @@
 package com.pengyu.magnet.domain;
 
+import com.pengyu.magnet.service.count.CountInvalidationListener;
+import com.pengyu.magnet.service.stats.StatsRollupListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,11 +16,12 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "job_application")
+@Table(name = "job_application", indexes = @Index(name = "application_applied_date_idx", columnList = "applied_date"))
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @DynamicUpdate
+@EntityListeners({CountInvalidationListener.class, StatsRollupListener.class})
 public class JobApplication {
 
     @Id
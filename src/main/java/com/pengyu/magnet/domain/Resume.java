@@ -2,6 +2,8 @@ package com.pengyu.magnet.domain;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.pengyu.magnet.service.count.CountInvalidationListener;
+import com.pengyu.magnet.service.stats.StatsRollupListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.DynamicUpdate;
@@ -16,8 +18,25 @@ import java.util.List;
  */
 @Entity
 @Data
-@Table(name = "resume")
+@Table(name = "resume", indexes = @Index(name = "resume_created_at_idx", columnList = "created_at"))
 @DynamicUpdate
+@EntityListeners({CountInvalidationListener.class, StatsRollupListener.class})
+// Contact information is the inverse side of a one-to-one and is always loaded, so every graph joins it.
+// At most one list is joined per graph, joining several lists multiplies their rows,
+// the other lists are loaded by ResumeRepository.fetchLists with one query each.
+@NamedEntityGraph(name = "Resume.summary", attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("contactInformation")
+})
+@NamedEntityGraph(name = "Resume.full", attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("contactInformation"),
+        @NamedAttributeNode("skillList")
+})
+@NamedEntityGraph(name = "Resume.insightsInput", attributeNodes = {
+        @NamedAttributeNode("contactInformation"),
+        @NamedAttributeNode("skillList")
+})
 public class Resume {
 
     @Id
@@ -42,18 +61,18 @@ public class Resume {
     private ContactInformation contactInformation;
 
     // One resume has multiple education experiences
-    @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL)
     private List<Education> educationList;
 
     // One resume has multiple work experiences
-    @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL)
     private List<Experience> workExperienceList;
 
     // One resume has multiple skills
-    @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL)
     private List<Skill> skillList;
 
-    @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL)
     private List<Project> projectList;
 
     private LocalDateTime createdAt;
@@ -119,9 +138,13 @@ public class Resume {
     public static class Skill {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        // Pooled ids, inserts of a whole list go out in JDBC batches
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "resume_skill_seq")
+        @SequenceGenerator(name = "resume_skill_seq", sequenceName = "resume_skill_seq", allocationSize = 50)
         private Long id;
         private String skill;
+        // Canonical skill, see SkillDictionary
+        private Integer skillId;
 
         // One resume can have multiple Skills
         @ManyToOne
@@ -151,7 +174,8 @@ public class Resume {
     public static class Education {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "resume_education_seq")
+        @SequenceGenerator(name = "resume_education_seq", sequenceName = "resume_education_seq", allocationSize = 50)
         private Long id;
 
         // One resume can have multiple educations
@@ -191,7 +215,8 @@ public class Resume {
     public static class Experience {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "resume_work_experience_seq")
+        @SequenceGenerator(name = "resume_work_experience_seq", sequenceName = "resume_work_experience_seq", allocationSize = 50)
         private Long id;
 
         // One resume has multiple work experiences
@@ -232,7 +257,8 @@ public class Resume {
     public static class Project {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "resume_project_seq")
+        @SequenceGenerator(name = "resume_project_seq", sequenceName = "resume_project_seq", allocationSize = 50)
         private Long id;
 
         // One resume has multiple work experiences
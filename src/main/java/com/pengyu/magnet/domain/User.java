@@ -1,6 +1,8 @@
 package com.pengyu.magnet.domain;
 
 
+import com.pengyu.magnet.service.count.CountInvalidationListener;
+import com.pengyu.magnet.service.stats.StatsRollupListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,11 +21,13 @@ import java.util.List;
  * User Entity (User Account)
  */
 @Entity
+@Table(indexes = @Index(name = "user_created_at_idx", columnList = "created_at"))
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @DynamicUpdate
+@EntityListeners({CountInvalidationListener.class, StatsRollupListener.class})
 public class User implements UserDetails {
 
 
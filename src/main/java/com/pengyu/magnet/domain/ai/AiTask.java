@@ -0,0 +1,71 @@
+package com.pengyu.magnet.domain.ai;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox entry of a background AI task, polled and executed by AiTaskWorker
+ */
+@Data
+@Entity
+@Table(name = "ai_task", indexes = {
+        @Index(name = "ai_task_status_next_run_at_idx", columnList = "status, next_run_at"),
+        @Index(name = "ai_task_type_target_id_idx", columnList = "type, target_id")
+})
+@DynamicUpdate
+public class AiTask {
+
+    public enum Type {
+        EXTRACT_JOB_INSIGHTS,
+        EXTRACT_RESUME_INSIGHTS,
+        MATCH_JOB_RESUME,
+        SCORE_TEST,
+        BULK_MATCH
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE,
+        // Gave up after max attempts
+        DEAD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32, nullable = false)
+    private Type type;
+
+    // Job, resume or answer sheet id
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    // Resume id of MATCH_JOB_RESUME
+    private Long secondaryId;
+
+    // Bulk match task id of BULK_MATCH
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private Status status;
+
+    private int attempts;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    private LocalDateTime lockedAt;
+
+    @Column(columnDefinition = "text")
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
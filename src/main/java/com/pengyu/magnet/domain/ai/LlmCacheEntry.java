@@ -0,0 +1,33 @@
+package com.pengyu.magnet.domain.ai;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
+
+/**
+ * LLM response of a rendered prompt, keyed by hash of prompt and model
+ */
+@Data
+@Entity
+@Table(name = "ai_llm_cache",
+        uniqueConstraints = @UniqueConstraint(name = "ai_llm_cache_cache_key_uk", columnNames = "cache_key"))
+@DynamicUpdate
+public class LlmCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 hex of model id and normalized prompt
+    @Column(name = "cache_key", length = 64, nullable = false)
+    private String cacheKey;
+
+    private String model;
+
+    @Column(columnDefinition = "longtext")
+    private String response;
+
+    private LocalDateTime createdAt;
+}
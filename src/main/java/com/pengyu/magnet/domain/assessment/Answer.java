@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 @DynamicUpdate
 public class Answer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assessment_answer_seq")
+    @SequenceGenerator(name = "assessment_answer_seq", sequenceName = "assessment_answer_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "question", columnDefinition = "text")
@@ -2,12 +2,16 @@ package com.pengyu.magnet.domain.assessment;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.pengyu.magnet.domain.Company;
 import com.pengyu.magnet.domain.User;
+import com.pengyu.magnet.service.count.CountInvalidationListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
@@ -15,11 +19,13 @@ import java.util.List;
 
 @Entity
 @Data
-@Table(name = "assessment_answer_sheet")
+@Table(name = "assessment_answer_sheet",
+        indexes = @Index(name = "answer_sheet_company_created_at_idx", columnList = "company_id, created_at"))
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @DynamicUpdate
+@EntityListeners(CountInvalidationListener.class)
 public class AnswerSheet {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,6 +51,18 @@ public class AnswerSheet {
     )
     private User user;
 
+    // Company of the paper, kept here so company dashboards read only this table
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(
+            name = "company_id",
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(name = "answer_sheet_company_id_fk")
+    )
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Company company;
+
     @OneToMany(mappedBy = "answerSheet", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     private List<Answer> answerList;
 
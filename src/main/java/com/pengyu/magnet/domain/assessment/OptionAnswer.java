@@ -4,15 +4,19 @@ package com.pengyu.magnet.domain.assessment;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Data
 @Table(name = "assessment_option_answer")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assessment_option_answer")
 public class OptionAnswer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assessment_option_answer_seq")
+    @SequenceGenerator(name = "assessment_option_answer_seq", sequenceName = "assessment_option_answer_seq", allocationSize = 50)
     private Long id;
 
     private String optionAnswer;
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
@@ -14,9 +16,11 @@ import java.util.UUID;
 @Entity
 @Table(name = "assessment_question")
 @DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assessment_question")
 public class Question {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assessment_question_seq")
+    @SequenceGenerator(name = "assessment_question_seq", sequenceName = "assessment_question_seq", allocationSize = 50)
     private Long id;
 
     @Column(columnDefinition = "text")
@@ -31,6 +35,7 @@ public class Question {
     @JsonIgnore
     private TestPaper testPaper;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assessment_question.options")
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL)
     private List<OptionAnswer> optionList;
     @Enumerated(EnumType.STRING)
@@ -1,11 +1,15 @@
 package com.pengyu.magnet.domain.assessment;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.pengyu.magnet.domain.Company;
 import com.pengyu.magnet.domain.User;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -14,7 +18,8 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "assessment_test_invitation")
+@Table(name = "assessment_test_invitation",
+        indexes = @Index(name = "invitation_company_created_at_idx", columnList = "company_id, created_at"))
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
@@ -39,6 +44,19 @@ public class TestInvitation {
             foreignKey = @ForeignKey(name = "invitation_paper_id_fk")
     )
     private TestPaper testPaper;
+
+    // Company of the paper, kept here so company dashboards read only this table
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(
+            name = "company_id",
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(name = "invitation_company_id_fk")
+    )
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Company company;
+
     private LocalDateTime createdAt;
 
     @Enumerated(EnumType.STRING)
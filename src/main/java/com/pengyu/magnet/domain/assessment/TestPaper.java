@@ -3,8 +3,11 @@ package com.pengyu.magnet.domain.assessment;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.pengyu.magnet.domain.Job;
 import com.pengyu.magnet.domain.User;
+import com.pengyu.magnet.service.count.CountInvalidationListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
@@ -12,8 +15,12 @@ import java.util.List;
 
 @Entity
 @Data
-@Table(name = "assessment_paper")
+@Table(name = "assessment_paper",
+        // One test per job, also guards concurrent generation across nodes
+        uniqueConstraints = @UniqueConstraint(name = "paper_job_id_uk", columnNames = "job_id"))
 @DynamicUpdate
+@EntityListeners(CountInvalidationListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assessment_paper")
 public class TestPaper {
 
     @Id
@@ -42,6 +49,7 @@ public class TestPaper {
     )
     private User user;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assessment_paper.questions")
     @OneToMany(mappedBy = "testPaper", cascade = CascadeType.ALL)
     private List<Question> questionList;
 
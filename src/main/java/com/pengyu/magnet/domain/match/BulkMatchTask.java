@@ -0,0 +1,97 @@
+package com.pengyu.magnet.domain.match;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of scoring one job against all resumes, stored so every instance can report it
+ * and it survives a restart, run by BulkMatchService
+ */
+@Getter
+@Entity
+@Table(name = "match_bulk_task", indexes = @Index(name = "bulk_task_finished_at_idx", columnList = "finished_at"))
+@DynamicUpdate
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class BulkMatchTask {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    private Long jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private Status status = Status.PENDING;
+
+    private long total;
+    // Resumes below the hard constraints of the job, not scored
+    private long pruned;
+    private long scored;
+    private long written;
+
+    @Column(columnDefinition = "text")
+    private String error;
+
+    @JsonFormat(pattern="yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+    @JsonFormat(pattern="yyyy-MM-dd HH:mm:ss")
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public BulkMatchTask(String id, Long jobId) {
+        this.id = id;
+        this.jobId = jobId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Percentage of written scores
+     */
+    public int getProgress() {
+        return total == 0 ? (status == Status.DONE ? 100 : 0) : (int) (written * 100 / total);
+    }
+
+    public void start(long total, long pruned) {
+        // A retried task starts over
+        this.scored = 0;
+        this.written = 0;
+        this.error = null;
+        this.finishedAt = null;
+        this.total = total;
+        this.pruned = pruned;
+        this.status = Status.RUNNING;
+    }
+
+    public void addScored(long count) {
+        scored += count;
+    }
+
+    public void addWritten(long count) {
+        written += count;
+    }
+
+    public void finish() {
+        this.status = Status.DONE;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        this.status = Status.FAILED;
+        this.finishedAt = LocalDateTime.now();
+    }
+}
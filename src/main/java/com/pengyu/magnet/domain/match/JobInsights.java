@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.pengyu.magnet.domain.Job;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
@@ -15,6 +17,7 @@ import java.util.List;
 @Entity
 @Table(name = "match_job_insights")
 @DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "match_job_insights")
 public class JobInsights {
 
     @Id
@@ -27,6 +30,16 @@ public class JobInsights {
     private String experience;
     private String language;
 
+    // Normalized by InsightsNormalizer when saved, null if not stated, the minimums of CandidatePreFilter
+    private Integer degreeLevel;
+    private Integer languageLevel;
+    private Integer experienceMonths;
+
+    // Cache key of the prompt this was extracted from, see LlmResponseCache
+    @JsonIgnore
+    @Column(length = 64)
+    private String sourceHash;
+
     @OneToOne
     @JoinColumn(name = "job_id",
             referencedColumnName = "id",
@@ -34,6 +47,7 @@ public class JobInsights {
     )
     @JsonIgnore
     private Job job;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "match_job_insights.skills")
     @OneToMany(mappedBy = "jobInsights", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     private List<Skill> skills;
 }
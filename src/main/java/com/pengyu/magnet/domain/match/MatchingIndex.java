@@ -4,6 +4,7 @@ package com.pengyu.magnet.domain.match;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.pengyu.magnet.domain.Job;
 import com.pengyu.magnet.domain.Resume;
+import com.pengyu.magnet.service.count.CountInvalidationListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.DynamicUpdate;
@@ -13,8 +14,11 @@ import org.hibernate.annotations.DynamicUpdate;
  */
 @Data
 @Entity
-@Table(name = "match_matching_index")
+// One MatchingIndex per job and resume, bulk scoring upserts on it
+@Table(name = "match_matching_index",
+        uniqueConstraints = @UniqueConstraint(name = "match_index_job_resume_uk", columnNames = {"job_id", "resume_id"}))
 @DynamicUpdate
+@EntityListeners(CountInvalidationListener.class)
 public class MatchingIndex {
 
     @Id
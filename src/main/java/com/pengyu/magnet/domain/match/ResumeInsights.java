@@ -13,7 +13,8 @@ import java.util.List;
  */
 @Data
 @Entity
-@Table(name = "match_resume_insights")
+@Table(name = "match_resume_insights", indexes = @Index(name = "resume_insights_levels_idx",
+        columnList = "degree_level, language_level, experience_months"))
 @DynamicUpdate
 public class ResumeInsights {
 
@@ -27,6 +28,16 @@ public class ResumeInsights {
     private String experience;
     private String language;
 
+    // Normalized by InsightsNormalizer when saved, null if not stated, CandidatePreFilter prunes resumes by them
+    private Integer degreeLevel;
+    private Integer languageLevel;
+    private Integer experienceMonths;
+
+    // Cache key of the prompt this was extracted from, see LlmResponseCache
+    @JsonIgnore
+    @Column(length = 64)
+    private String sourceHash;
+
     @OneToOne
     @JoinColumn(name = "resume_id",
             referencedColumnName = "id",
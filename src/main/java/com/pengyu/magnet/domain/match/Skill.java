@@ -3,18 +3,23 @@ package com.pengyu.magnet.domain.match;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
 
 @Data
 @Entity
-@Table(name = "match_skill")
+@Table(name = "match_skill", indexes = @Index(name = "match_skill_skill_id_idx", columnList = "skill_id"))
 @DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "match_skill")
 public class Skill {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String skill;
+    // Canonical skill, see SkillDictionary
+    private Integer skillId;
     private int weight;
 
     @ManyToOne
@@ -0,0 +1,28 @@
+package com.pengyu.magnet.domain.match;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Another name of a canonical skill, for example "k8s" for "Kubernetes"
+ */
+@Data
+@Entity
+@Table(name = "skill_alias",
+        uniqueConstraints = @UniqueConstraint(name = "skill_alias_alias_key_uk", columnNames = "alias_key"))
+public class SkillAlias {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // Alias normalized by InsightsNormalizer.skillKey
+    private String aliasKey;
+
+    @ManyToOne
+    @JoinColumn(name = "skill_id",
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(name = "skill_alias_skill_id_fk")
+    )
+    private SkillCatalog skill;
+}
@@ -0,0 +1,24 @@
+package com.pengyu.magnet.domain.match;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Canonical skill, extracted and resume skills refer to it by id
+ */
+@Data
+@Entity
+@Table(name = "skill_catalog",
+        uniqueConstraints = @UniqueConstraint(name = "skill_catalog_name_key_uk", columnNames = "name_key"))
+public class SkillCatalog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // Name as first seen, for example "Spring Boot"
+    private String name;
+
+    // Name normalized by InsightsNormalizer.skillKey, for example "springboot"
+    private String nameKey;
+}
@@ -0,0 +1,57 @@
+package com.pengyu.magnet.domain.stats;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Number of rows created per day in a counted table, maintained by StatsRollupService
+ */
+@Data
+@Entity
+@Table(name = "stats_daily_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "stats_rollup_metric_day_uk", columnNames = {"metric", "day"}))
+public class StatsDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32, nullable = false)
+    private Metric metric;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long total;
+
+    /**
+     * Counted tables and the column that dates their rows
+     */
+    public enum Metric {
+        USER("user", "created_at"),
+        COMPANY("company", "created_at"),
+        JOB("job", "created_at"),
+        RESUME("resume", "created_at"),
+        JOB_APPLICATION("job_application", "applied_date");
+
+        private final String table;
+        private final String dateColumn;
+
+        Metric(String table, String dateColumn) {
+            this.table = table;
+            this.dateColumn = dateColumn;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public String getDateColumn() {
+            return dateColumn;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.pengyu.magnet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resume retrieved as candidate for a job
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandidateDTO {
+    private Long resumeId;
+    private String fullName;
+    private float similarity;
+}
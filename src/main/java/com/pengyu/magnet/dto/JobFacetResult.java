@@ -0,0 +1,29 @@
+package com.pengyu.magnet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a faceted job search with the facet counts of the whole result
+ */
+@Data
+public class JobFacetResult {
+    private List<JobResponse> jobs;
+    private long total;
+    // location, salary, status and skill
+    private Map<String, List<FacetValue>> facets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetValue {
+        // Value to filter by
+        private String value;
+        private String label;
+        private int count;
+    }
+}
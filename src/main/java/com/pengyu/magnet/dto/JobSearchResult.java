@@ -0,0 +1,15 @@
+package com.pengyu.magnet.dto;
+
+import lombok.Data;
+
+/**
+ * Job found by full text search
+ */
+@Data
+public class JobSearchResult {
+    private JobResponse job;
+    private float score;
+    // Html escaped, matched terms in <em>
+    private String titleHighlight;
+    private String snippet;
+}
@@ -0,0 +1,20 @@
+package com.pengyu.magnet.dto;
+
+import com.pengyu.magnet.domain.Job;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Job row of list views, selected by JobRepository without loading the entity
+ */
+public record JobSummary(Long id,
+                         String title,
+                         Long companyId,
+                         String companyName,
+                         String location,
+                         String salaryRange,
+                         Job.Status status,
+                         LocalDateTime createdAt,
+                         LocalDate expireAt) {
+}
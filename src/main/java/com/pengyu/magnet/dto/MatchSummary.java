@@ -0,0 +1,17 @@
+package com.pengyu.magnet.dto;
+
+/**
+ * Matching index row of list views, with job title and resume name instead of the full job and resume
+ */
+public record MatchSummary(Long id,
+                           Long jobId,
+                           String jobTitle,
+                           Long resumeId,
+                           String fullName,
+                           float degree,
+                           float major,
+                           float experience,
+                           float skill,
+                           float language,
+                           float overall) {
+}
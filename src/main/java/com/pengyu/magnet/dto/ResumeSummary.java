@@ -0,0 +1,16 @@
+package com.pengyu.magnet.dto;
+
+import com.pengyu.magnet.domain.Resume;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resume row of list views, without contact information and lists
+ */
+public record ResumeSummary(Long id,
+                            String fullName,
+                            Long userId,
+                            String email,
+                            Resume.Status status,
+                            LocalDateTime createdAt) {
+}
@@ -0,0 +1,17 @@
+package com.pengyu.magnet.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.pengyu.magnet.domain.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * User row of list views
+ */
+public record UserSummary(Long id,
+                          String email,
+                          User.Role role,
+                          User.Status status,
+                          String headShotName,
+                          @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime createdAt) {
+}
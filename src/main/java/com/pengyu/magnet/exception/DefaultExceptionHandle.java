@@ -106,6 +106,23 @@ public class DefaultExceptionHandle extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(apiExceptionResponse, HttpStatus.BAD_REQUEST);
     }
 
+    // 429
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiExceptionResponse> handleException(TooManyRequestsException e,
+                                                                HttpServletRequest request) {
+        ApiExceptionResponse apiExceptionResponse = new ApiExceptionResponse(
+                request.getRequestURI(),
+                e.getMessage(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(apiExceptionResponse);
+    }
+
     // Other errors
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiExceptionResponse> handleException(Exception e,
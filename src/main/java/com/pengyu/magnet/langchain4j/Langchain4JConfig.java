@@ -2,26 +2,89 @@ package com.pengyu.magnet.langchain4j;
 
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.embedding.AllMiniLmL6V2EmbeddingModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import dev.langchain4j.service.AiServices;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class Langchain4JConfig {
+
+    @Value("${magnet.ai.rate-limit.estimated-output-tokens:500}")
+    private int estimatedOutputTokens;
+
+    @Value("${magnet.ai.rate-limit.max-retries:3}")
+    private int maxRetries;
+
+    /**
+     * Budget shared by all agents, see magnet.ai.rate-limit
+     * @return
+     */
     @Bean
-    AssessmentAgent assessmentAgent(ChatLanguageModel chatLanguageModel) {
+    LlmRateLimiter llmRateLimiter(@Value("${magnet.ai.rate-limit.requests-per-minute:3500}") long requestsPerMinute,
+                                  @Value("${magnet.ai.rate-limit.tokens-per-minute:90000}") long tokensPerMinute,
+                                  @Value("${magnet.ai.rate-limit.max-concurrency:8}") int maxConcurrency,
+                                  @Value("${magnet.ai.rate-limit.max-wait:PT2M}") Duration maxWait) {
+        return new LlmRateLimiter(requestsPerMinute, tokensPerMinute, Duration.ofMinutes(1), maxConcurrency, maxWait);
+    }
+
+    @Bean
+    AssessmentAgent assessmentAgent(ChatLanguageModel chatLanguageModel, LlmRateLimiter llmRateLimiter) {
         return AiServices.builder(AssessmentAgent.class)
-                .chatLanguageModel(chatLanguageModel)
+                .chatLanguageModel(rateLimited(chatLanguageModel, llmRateLimiter))
 //                .chatMemory(MessageWindowChatMemory.withMaxMessages(20))
                 .build();
     }
 
     @Bean
-    MatchAgent matchAgent(ChatLanguageModel chatLanguageModel) {
+    MatchAgent matchAgent(ChatLanguageModel chatLanguageModel, LlmRateLimiter llmRateLimiter) {
         return AiServices.builder(MatchAgent.class)
-                .chatLanguageModel(chatLanguageModel)
+                .chatLanguageModel(rateLimited(chatLanguageModel, llmRateLimiter))
 //                .chatMemory(MessageWindowChatMemory.withMaxMessages(20))
                 .build();
     }
 
+    /**
+     * Streaming chat model, same OpenAI settings as the auto-configured chat model.
+     * Other providers have no streaming model, streamed test generation is refused with them.
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(name = "langchain4j.chat-model.provider", havingValue = "openai")
+    StreamingChatLanguageModel streamingChatLanguageModel(@Value("${langchain4j.chat-model.openai.url}") String url,
+                                                          @Value("${langchain4j.chat-model.openai.api-key}") String apiKey,
+                                                          @Value("${langchain4j.chat-model.openai.model-name}") String modelName,
+                                                          @Value("${langchain4j.chat-model.openai.temperature:0.0}") Double temperature,
+                                                          @Value("${langchain4j.chat-model.openai.timeout:PT300S}") Duration timeout) {
+        return OpenAiStreamingChatModel.builder()
+                .baseUrl(url)
+                .apiKey(apiKey)
+                .modelName(modelName)
+                .temperature(temperature)
+                .timeout(timeout)
+                .build();
+    }
+
+    /**
+     * Local all-MiniLM-L6-v2 embedding model, runs in-process on CPU
+     * @return
+     */
+    @Bean
+    EmbeddingModel allMiniLmEmbeddingModel() {
+        return new AllMiniLmL6V2EmbeddingModel();
+    }
+
+    /**
+     * Not a bean, a second ChatLanguageModel bean would replace the auto-configured one
+     */
+    private ChatLanguageModel rateLimited(ChatLanguageModel chatLanguageModel, LlmRateLimiter llmRateLimiter) {
+        return new RateLimitedChatLanguageModel(chatLanguageModel, llmRateLimiter, estimatedOutputTokens, maxRetries);
+    }
 }
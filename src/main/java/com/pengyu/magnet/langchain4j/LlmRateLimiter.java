@@ -0,0 +1,127 @@
+package com.pengyu.magnet.langchain4j;
+
+import com.pengyu.magnet.exception.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Shared budget of all LLM calls: requests and tokens per period, concurrent calls,
+ * and a pause of everyone after the provider answered 429.
+ * Callers queue in FIFO order on a fair semaphore, the caller at the head waits for the buckets.
+ */
+public class LlmRateLimiter {
+
+    private static final long MAX_PAUSE_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final long FIRST_PAUSE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final Semaphore concurrency;
+    private final long maxWaitNanos;
+
+    private final AtomicLong pausedUntil;
+    private final AtomicInteger consecutiveRateLimits = new AtomicInteger();
+
+    /**
+     * @param requestsPerPeriod
+     * @param tokensPerPeriod
+     * @param period one minute for RPM and TPM limits
+     * @param maxConcurrency
+     * @param maxWait longest time a call waits for its turn before it is rejected
+     */
+    public LlmRateLimiter(long requestsPerPeriod, long tokensPerPeriod, Duration period, int maxConcurrency, Duration maxWait) {
+        this.requestBucket = new TokenBucket(requestsPerPeriod, period.toNanos(), System::nanoTime);
+        this.tokenBucket = new TokenBucket(tokensPerPeriod, period.toNanos(), System::nanoTime);
+        this.concurrency = new Semaphore(maxConcurrency, true);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.pausedUntil = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Wait for a slot, one request and the estimated tokens
+     * @param estimatedTokens
+     * @throws TooManyRequestsException if the wait would be longer than max wait
+     */
+    public void acquire(long estimatedTokens) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        try {
+            if (!concurrency.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw rejected();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw rejected();
+        }
+
+        try {
+            while (true) {
+                long wait = pausedUntil.get() - System.nanoTime();
+                if (wait <= 0) {
+                    wait = requestBucket.tryAcquire(1);
+                    if (wait == 0) {
+                        wait = tokenBucket.tryAcquire(estimatedTokens);
+                        if (wait == 0) {
+                            return;
+                        }
+                        // Give the request back while waiting for tokens
+                        requestBucket.adjust(1);
+                    }
+                }
+                if (System.nanoTime() + wait > deadline) {
+                    throw rejected();
+                }
+                LockSupport.parkNanos(wait);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw rejected();
+                }
+            }
+        } catch (RuntimeException e) {
+            concurrency.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Release the slot taken by acquire, and correct the token budget with the actual usage
+     * @param estimatedTokens
+     * @param actualTokens
+     */
+    public void release(long estimatedTokens, long actualTokens) {
+        if (actualTokens != estimatedTokens) {
+            tokenBucket.adjust(estimatedTokens - actualTokens);
+        }
+        concurrency.release();
+    }
+
+    /**
+     * The provider accepted a call
+     */
+    public void onSuccess() {
+        consecutiveRateLimits.set(0);
+    }
+
+    /**
+     * The provider answered 429, every caller pauses for retryAfter,
+     * or for an exponentially growing time if the provider did not say
+     * @param retryAfter null if unknown
+     */
+    public void onRateLimited(Duration retryAfter) {
+        int count = consecutiveRateLimits.incrementAndGet();
+        long pause = retryAfter != null
+                ? retryAfter.toNanos()
+                : Math.min(FIRST_PAUSE_NANOS << Math.min(count - 1, 10), MAX_PAUSE_NANOS);
+        long until = System.nanoTime() + pause;
+        pausedUntil.accumulateAndGet(until, (current, next) -> next - current > 0 ? next : current);
+    }
+
+    private TooManyRequestsException rejected() {
+        return new TooManyRequestsException("AI service rate limit reached, please try again later",
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(maxWaitNanos)));
+    }
+}
@@ -0,0 +1,125 @@
+package com.pengyu.magnet.langchain4j;
+
+import com.pengyu.magnet.exception.TooManyRequestsException;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ChatLanguageModel decorator, every call goes through a shared LlmRateLimiter.
+ * Calls answered with 429 are retried after the pause the provider asked for.
+ */
+public class RateLimitedChatLanguageModel implements ChatLanguageModel {
+
+    // "Please try again in 20s", "try again in 120ms", "Retry-After: 3"
+    private static final Pattern RETRY_AFTER = Pattern.compile(
+            "(?:try again in|retry-after:?)\\s*([0-9]+(?:\\.[0-9]+)?)\\s*(ms|s)?", Pattern.CASE_INSENSITIVE);
+
+    // Rough token count of English text, used until the provider reports the usage
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final ChatLanguageModel delegate;
+    private final LlmRateLimiter limiter;
+    private final int estimatedOutputTokens;
+    private final int maxRetries;
+
+    public RateLimitedChatLanguageModel(ChatLanguageModel delegate, LlmRateLimiter limiter,
+                                        int estimatedOutputTokens, int maxRetries) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.estimatedOutputTokens = estimatedOutputTokens;
+        this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return call(messages, () -> delegate.generate(messages));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return call(messages, () -> delegate.generate(messages, toolSpecifications));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, ToolSpecification toolSpecification) {
+        return call(messages, () -> delegate.generate(messages, toolSpecification));
+    }
+
+    private Response<AiMessage> call(List<ChatMessage> messages, Supplier<Response<AiMessage>> generation) {
+        long estimated = estimateTokens(messages);
+        for (int attempt = 0; ; attempt++) {
+            limiter.acquire(estimated);
+            long actual = estimated;
+            try {
+                Response<AiMessage> response = generation.get();
+                if (response.tokenUsage() != null && response.tokenUsage().totalTokenCount() != null) {
+                    actual = response.tokenUsage().totalTokenCount();
+                }
+                limiter.onSuccess();
+                return response;
+            } catch (RuntimeException e) {
+                if (!isRateLimited(e)) {
+                    throw e;
+                }
+                limiter.onRateLimited(retryAfter(e));
+                if (attempt >= maxRetries) {
+                    throw new TooManyRequestsException("AI service rate limit reached, please try again later", 60);
+                }
+            } finally {
+                limiter.release(estimated, actual);
+            }
+        }
+    }
+
+    private long estimateTokens(List<ChatMessage> messages) {
+        long chars = 0;
+        for (ChatMessage message : messages) {
+            if (message.text() != null) {
+                chars += message.text().length();
+            }
+        }
+        // A few tokens of overhead per message
+        return chars / CHARS_PER_TOKEN + messages.size() * 4L + estimatedOutputTokens;
+    }
+
+    /**
+     * Whether the provider rejected the call with 429, anywhere in the cause chain
+     */
+    static boolean isRateLimited(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            String message = t.getMessage() == null ? "" : t.getMessage().toLowerCase(Locale.ROOT);
+            if (message.contains("429") || message.contains("rate limit") || message.contains("too many requests")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pause asked for by the provider, null if it did not say
+     */
+    static Duration retryAfter(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t.getMessage() == null) {
+                continue;
+            }
+            Matcher matcher = RETRY_AFTER.matcher(t.getMessage());
+            if (matcher.find()) {
+                double value = Double.parseDouble(matcher.group(1));
+                boolean millis = "ms".equalsIgnoreCase(matcher.group(2));
+                return Duration.ofMillis((long) Math.ceil(millis ? value : value * 1000));
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.pengyu.magnet.langchain4j;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket, refilled continuously at capacity per period.
+ * The balance may go negative when a cost turns out higher than reserved,
+ * later callers then wait until the debt is refilled.
+ */
+public class TokenBucket {
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, long periodNanos, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / periodNanos;
+        this.nanoClock = nanoClock;
+        this.state = new AtomicReference<>(new State(capacity, nanoClock.getAsLong()));
+    }
+
+    /**
+     * Take tokens if there are enough
+     * @param tokens
+     * @return 0 if taken, otherwise nanos to wait before there are enough tokens
+     */
+    public long tryAcquire(long tokens) {
+        // A cost higher than capacity can never be covered, let it through once the bucket is full
+        double cost = Math.min(tokens, capacity);
+        while (true) {
+            State current = state.get();
+            long now = nanoClock.getAsLong();
+            double available = refill(current, now);
+            if (available < cost) {
+                return (long) Math.ceil((cost - available) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(available - tokens, now))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Add or take back tokens without waiting, e.g. the difference between estimated and actual cost
+     * @param tokens negative to take
+     */
+    public void adjust(long tokens) {
+        while (true) {
+            State current = state.get();
+            long now = nanoClock.getAsLong();
+            double balance = Math.min(refill(current, now) + tokens, capacity);
+            if (state.compareAndSet(current, new State(balance, now))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tokens available now
+     */
+    public double available() {
+        return refill(state.get(), nanoClock.getAsLong());
+    }
+
+    private double refill(State state, long now) {
+        return Math.min(capacity, state.tokens() + (now - state.updatedAt()) * tokensPerNano);
+    }
+}
@@ -2,6 +2,7 @@ package com.pengyu.magnet.repository;
 
 import com.pengyu.magnet.domain.Company;
 import com.pengyu.magnet.domain.Job;
+import com.pengyu.magnet.dto.JobSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,16 +22,45 @@ public interface JobRepository extends JpaRepository<Job, Long> {
 
     long countByCompanyId(Long companyId);
 
-    Page<Job> findAllByTitleLike(Pageable pageable, String titleLike);
+    // Whether the job belongs to the company of this user account
+    boolean existsByIdAndCompanyUserEmail(Long id, String email);
 
-    long countByTitleLike(String title);
+    /**
+     * List rows of jobs, one query without loading Job and Company entities, deleted jobs are left out
+     */
+    @Query("select new com.pengyu.magnet.dto.JobSummary(j.id, j.title, c.id, c.name, j.location, j.salaryRange, " +
+            "j.status, j.createdAt, j.expireAt) from Job j left join j.company c where j.status <> 'DELETED'")
+    List<JobSummary> findSummaries(Pageable pageable);
 
-    @Query(value = "SELECT COALESCE(COUNT(u.id), 0) AS registrationCount " +
-            "FROM (SELECT 1 AS month UNION SELECT 2 UNION SELECT 3 UNION SELECT 4 UNION SELECT 5 " +
-            "      UNION SELECT 6 UNION SELECT 7 UNION SELECT 8 UNION SELECT 9 UNION SELECT 10 " +
-            "      UNION SELECT 11 UNION SELECT 12) AS m " +
-            "LEFT JOIN job u ON MONTH(u.created_at) = m.month " +
-            "GROUP BY m.month " +
-            "ORDER BY m.month", nativeQuery = true)
-    List<Long> getJobCounts();
+    long countByStatusNot(Job.Status status);
+
+    @Query("select new com.pengyu.magnet.dto.JobSummary(j.id, j.title, c.id, c.name, j.location, j.salaryRange, " +
+            "j.status, j.createdAt, j.expireAt) from Job j left join j.company c " +
+            "where j.title like :titleLike and j.status <> 'DELETED'")
+    List<JobSummary> findSummariesByTitleLike(Pageable pageable, @Param("titleLike") String titleLike);
+
+    long countByTitleLikeAndStatusNot(String title, Job.Status status);
+
+    // Same statuses as findAllByCompany
+    @Query("select new com.pengyu.magnet.dto.JobSummary(j.id, j.title, c.id, c.name, j.location, j.salaryRange, " +
+            "j.status, j.createdAt, j.expireAt) from Job j join j.company c " +
+            "where c.id = :companyId and (j.status='ACTIVE' or j.status='PAUSED')")
+    List<JobSummary> findSummariesByCompanyId(Pageable pageable, @Param("companyId") Long companyId);
+
+    /**
+     * Searchable text and facet values of a job
+     */
+    interface IndexRow {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        String getLocation();
+        String getSalaryRange();
+        Job.Status getStatus();
+    }
+
+    @Query("select j.id as id, j.title as title, j.description as description, j.location as location, " +
+            "j.salaryRange as salaryRange, j.status as status " +
+            "from Job j where j.status in :statuses and j.id > :afterId order by j.id")
+    List<IndexRow> findIndexRows(@Param("statuses") Collection<Job.Status> statuses, @Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,126 @@
+package com.pengyu.magnet.repository;
+
+import com.pengyu.magnet.dto.CursorPage;
+import com.pengyu.magnet.exception.ApiException;
+import com.pengyu.magnet.utils.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination for any entity with a Long "id".
+ * Rows are ordered by (sortBy, id) and a page starts right after the cursor row,
+ * so the database seeks through the index instead of skipping OFFSET rows.
+ * Null sort keys follow the MySQL order: first when ascending, last when descending.
+ */
+@Repository
+public class KeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Find one page
+     * @param type entity class
+     * @param filter optional filter, null for all rows
+     * @param request
+     * @param fetches associations fetched with the rows, nested with '.', e.g. "job.company"
+     * @return
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> CursorPage<T> find(Class<T> type, Specification<T> filter, KeysetCursor.Request request, String... fetches) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        for(String fetch : fetches) {
+            FetchParent<?, ?> parent = root;
+            for(String attribute : fetch.split("\\.")) {
+                parent = parent.fetch(attribute, JoinType.LEFT);
+            }
+        }
+
+        Path<Long> id = root.get("id");
+        boolean byId = "id".equals(request.sortBy());
+        Path<Comparable> sort;
+        try {
+            sort = root.get(request.sortBy());
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Can not sort by " + request.sortBy());
+        }
+
+        List<Predicate> predicates = new ArrayList<>();
+        if(filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, cb);
+            if(predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        KeysetCursor after = request.after();
+        if(after != null) {
+            Predicate idAfter = request.desc() ? cb.lessThan(id, after.id()) : cb.greaterThan(id, after.id());
+            if(byId) {
+                predicates.add(idAfter);
+            } else if(after.sortKey() == null) {
+                Predicate sameNull = cb.and(cb.isNull(sort), idAfter);
+                predicates.add(request.desc() ? sameNull : cb.or(cb.isNotNull(sort), sameNull));
+            } else {
+                Comparable value = parse(after.sortKey(), sort.getJavaType());
+                Predicate beyond = request.desc() ? cb.lessThan(sort, value) : cb.greaterThan(sort, value);
+                Predicate seek = cb.or(beyond, cb.and(cb.equal(sort, value), idAfter));
+                predicates.add(request.desc() ? cb.or(seek, cb.isNull(sort)) : seek);
+            }
+        }
+        query.select(root).where(predicates.toArray(new Predicate[0]));
+
+        List<Order> orders = new ArrayList<>(2);
+        if(!byId) {
+            orders.add(request.desc() ? cb.desc(sort) : cb.asc(sort));
+        }
+        orders.add(request.desc() ? cb.desc(id) : cb.asc(id));
+        query.orderBy(orders);
+
+        // One extra row tells if there is a next page
+        List<T> rows = entityManager.createQuery(query)
+                .setMaxResults(request.size() + 1)
+                .getResultList();
+        if(rows.size() <= request.size()) {
+            return new CursorPage<>(rows, null);
+        }
+
+        rows = new ArrayList<>(rows.subList(0, request.size()));
+        BeanWrapperImpl last = new BeanWrapperImpl(rows.get(rows.size() - 1));
+        Object sortValue = byId ? null : last.getPropertyValue(request.sortBy());
+        String sortKey = sortValue == null ? null
+                : sortValue instanceof Enum<?> e ? e.name() : sortValue.toString();
+        KeysetCursor next = new KeysetCursor((Long) last.getPropertyValue("id"), sortKey);
+        return new CursorPage<>(rows, next.encode());
+    }
+
+    /**
+     * Parse the sort key of a cursor back to the attribute type
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable parse(String sortKey, Class<?> javaType) {
+        try {
+            if(javaType == String.class) return sortKey;
+            if(javaType == Long.class || javaType == long.class) return Long.valueOf(sortKey);
+            if(javaType == Integer.class || javaType == int.class) return Integer.valueOf(sortKey);
+            if(javaType == Float.class || javaType == float.class) return Float.valueOf(sortKey);
+            if(javaType == Double.class || javaType == double.class) return Double.valueOf(sortKey);
+            if(javaType == LocalDateTime.class) return LocalDateTime.parse(sortKey);
+            if(javaType == LocalDate.class) return LocalDate.parse(sortKey);
+            if(javaType.isEnum()) return Enum.valueOf((Class<Enum>) javaType, sortKey);
+        } catch (RuntimeException e) {
+            throw new ApiException("Invalid cursor");
+        }
+        throw new ApiException("Can not sort by an attribute of type " + javaType.getSimpleName());
+    }
+}
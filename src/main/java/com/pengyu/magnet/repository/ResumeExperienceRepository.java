@@ -1,9 +1,40 @@
 package com.pengyu.magnet.repository;
 
 import com.pengyu.magnet.domain.Resume;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ResumeExperienceRepository extends JpaRepository<Resume.Experience, Long> {
+    List<Resume.Experience> findByResumeId(Long resumeId);
+
+    /**
+     * Keyset page of ids of resumes with a work experience that had not ended on a day,
+     * their months of experience grow every day
+     */
+    @Query("select distinct r.id from Resume r join r.workExperienceList e " +
+            "where r.id > :afterId and e.startDate is not null and (e.endDate is null or e.endDate >= :since) " +
+            "order by r.id")
+    List<Long> findOngoingResumeIdsAfter(@Param("afterId") Long afterId, @Param("since") LocalDate since,
+                                         Pageable pageable);
+
+    /**
+     * Dates of a work experience, without loading the resumes
+     */
+    interface ExperienceDates {
+        Long getResumeId();
+        LocalDate getStartDate();
+        LocalDate getEndDate();
+    }
+
+    @Query("select r.id as resumeId, e.startDate as startDate, e.endDate as endDate " +
+            "from Resume r join r.workExperienceList e where r.id in :resumeIds")
+    List<ExperienceDates> findDatesByResumeIdIn(@Param("resumeIds") Collection<Long> resumeIds);
 }
@@ -1,24 +1,136 @@
 package com.pengyu.magnet.repository;
 
-import com.pengyu.magnet.domain.Company;
 import com.pengyu.magnet.domain.Resume;
+import com.pengyu.magnet.dto.ResumeSummary;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Repository
 public interface ResumeRepository extends JpaRepository<Resume, Long> {
+
+    /**
+     * Resume of a user without its lists
+     */
+    @EntityGraph("Resume.summary")
     Optional<Resume> findByUserId(Long id);
 
-    @Query(value = "SELECT COALESCE(COUNT(u.id), 0) AS registrationCount " +
-            "FROM (SELECT 1 AS month UNION SELECT 2 UNION SELECT 3 UNION SELECT 4 UNION SELECT 5 " +
-            "      UNION SELECT 6 UNION SELECT 7 UNION SELECT 8 UNION SELECT 9 UNION SELECT 10 " +
-            "      UNION SELECT 11 UNION SELECT 12) AS m " +
-            "LEFT JOIN resume u ON MONTH(u.created_at) = m.month " +
-            "GROUP BY m.month " +
-            "ORDER BY m.month", nativeQuery = true)
-    List<Long> getResumeCounts();
+    @EntityGraph("Resume.full")
+    Optional<Resume> findFullByUserId(Long userId);
+
+    @EntityGraph("Resume.full")
+    Optional<Resume> findFullById(Long id);
+
+    @EntityGraph("Resume.insightsInput")
+    Optional<Resume> findInsightsInputById(Long id);
+
+    /**
+     * Resume id and name only
+     */
+    interface ResumeName {
+        Long getId();
+        String getFullName();
+    }
+
+    @Query("select r.fullName from Resume r where r.user.id = :userId")
+    Optional<String> findFullNameByUserId(@Param("userId") Long userId);
+
+    @Query("select r.id as id, r.fullName as fullName from Resume r where r.id in :ids")
+    List<ResumeName> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Resumes of many users with user, contact information and skills
+     */
+    @EntityGraph("Resume.full")
+    @Query("select r from Resume r where r.user.id in :userIds")
+    List<Resume> findAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * List rows of resumes, one query without loading Resume entities
+     */
+    @Query("select new com.pengyu.magnet.dto.ResumeSummary(r.id, r.fullName, u.id, u.email, r.status, r.createdAt) " +
+            "from Resume r left join r.user u")
+    List<ResumeSummary> findSummaries(Pageable pageable);
+
+    @Query("select r from Resume r left join fetch r.skillList where r.id in :ids")
+    List<Resume> fetchSkills(@Param("ids") Collection<Long> ids);
+
+    @Query("select r from Resume r left join fetch r.educationList where r.id in :ids")
+    List<Resume> fetchEducation(@Param("ids") Collection<Long> ids);
+
+    @Query("select r from Resume r left join fetch r.workExperienceList where r.id in :ids")
+    List<Resume> fetchExperience(@Param("ids") Collection<Long> ids);
+
+    @Query("select r from Resume r left join fetch r.projectList where r.id in :ids")
+    List<Resume> fetchProjects(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Initialize the lists not loaded yet, one query per list.
+     * The resumes must be managed, so call it inside the transaction that loaded them.
+     * @param resumes
+     * @return the same resumes
+     */
+    default <C extends Collection<Resume>> C fetchLists(C resumes) {
+        if(resumes.isEmpty()) {
+            return resumes;
+        }
+        List<Long> ids = resumes.stream().map(Resume::getId).toList();
+        if(!allInitialized(resumes, Resume::getSkillList)) {
+            fetchSkills(ids);
+        }
+        if(!allInitialized(resumes, Resume::getEducationList)) {
+            fetchEducation(ids);
+        }
+        if(!allInitialized(resumes, Resume::getWorkExperienceList)) {
+            fetchExperience(ids);
+        }
+        if(!allInitialized(resumes, Resume::getProjectList)) {
+            fetchProjects(ids);
+        }
+        return resumes;
+    }
+
+    private static boolean allInitialized(Collection<Resume> resumes, Function<Resume, List<?>> list) {
+        return resumes.stream().allMatch(resume -> Hibernate.isInitialized(list.apply(resume)));
+    }
+
+    /**
+     * Resume with all lists, usable after the transaction, e.g. by async tasks
+     * @param id
+     * @return
+     */
+    @Transactional(readOnly = true)
+    default Optional<Resume> findDetailsById(Long id) {
+        return findFullById(id).map(resume -> fetchLists(List.of(resume)).get(0));
+    }
+
+    /**
+     * Resume with the lists sent to the insights extraction, usable after the transaction
+     * @param id
+     * @return
+     */
+    @Transactional(readOnly = true)
+    default Optional<Resume> findInsightsInputDetailsById(Long id) {
+        return findInsightsInputById(id).map(resume -> fetchLists(List.of(resume)).get(0));
+    }
+
+    @Transactional(readOnly = true)
+    default Optional<Resume> findDetailsByUserId(Long userId) {
+        return findFullByUserId(userId).map(resume -> fetchLists(List.of(resume)).get(0));
+    }
+
+    @Transactional(readOnly = true)
+    default List<Resume> findAllDetailsByUserIdIn(Collection<Long> userIds) {
+        return fetchLists(findAllByUserIdIn(userIds));
+    }
 }
@@ -0,0 +1,64 @@
+package com.pengyu.magnet.repository.ai;
+
+import com.pengyu.magnet.domain.ai.AiTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AiTaskRepository extends JpaRepository<AiTask, Long> {
+
+    boolean existsByTypeAndTargetIdAndSecondaryIdAndStatus(AiTask.Type type, Long targetId, Long secondaryId, AiTask.Status status);
+
+    boolean existsByTypeAndTargetIdAndSecondaryIdIsNullAndStatus(AiTask.Type type, Long targetId, AiTask.Status status);
+
+    long countByStatus(AiTask.Status status);
+
+    @Query("select t.id from AiTask t where t.status = :status and t.type in :types and t.nextRunAt <= :now order by t.nextRunAt")
+    List<Long> findDueIds(@Param("status") AiTask.Status status,
+                          @Param("types") Collection<AiTask.Type> types,
+                          @Param("now") LocalDateTime now,
+                          Pageable pageable);
+
+    /**
+     * Claim a pending task, 0 if another worker claimed it first
+     */
+    @Transactional
+    @Modifying
+    @Query("update AiTask t set t.status = :running, t.lockedAt = :now, t.attempts = t.attempts + 1 " +
+            "where t.id = :id and t.status = :pending")
+    int claim(@Param("id") Long id,
+              @Param("now") LocalDateTime now,
+              @Param("pending") AiTask.Status pending,
+              @Param("running") AiTask.Status running);
+
+    /**
+     * Undo a claim of a task that could not be started
+     */
+    @Transactional
+    @Modifying
+    @Query("update AiTask t set t.status = :pending, t.lockedAt = null, t.attempts = t.attempts - 1 " +
+            "where t.id = :id and t.status = :running")
+    int unclaim(@Param("id") Long id,
+                @Param("pending") AiTask.Status pending,
+                @Param("running") AiTask.Status running);
+
+    /**
+     * Put tasks of crashed workers back to pending
+     */
+    @Transactional
+    @Modifying
+    @Query("update AiTask t set t.status = :pending, t.lockedAt = null " +
+            "where t.status = :running and t.lockedAt < :lockedBefore")
+    int releaseStale(@Param("lockedBefore") LocalDateTime lockedBefore,
+                     @Param("pending") AiTask.Status pending,
+                     @Param("running") AiTask.Status running);
+}
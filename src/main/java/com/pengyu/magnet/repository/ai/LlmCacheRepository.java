@@ -0,0 +1,12 @@
+package com.pengyu.magnet.repository.ai;
+
+import com.pengyu.magnet.domain.ai.LlmCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LlmCacheRepository extends JpaRepository<LlmCacheEntry, Long> {
+    Optional<LlmCacheEntry> findByCacheKey(String cacheKey);
+}
@@ -1,6 +1,5 @@
 package com.pengyu.magnet.repository.assessment;
 
-import com.pengyu.magnet.domain.Company;
 import com.pengyu.magnet.domain.User;
 import com.pengyu.magnet.domain.assessment.AnswerSheet;
 import com.pengyu.magnet.domain.assessment.Question;
@@ -10,8 +9,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +24,21 @@ public interface AnswerSheetRepository extends JpaRepository<AnswerSheet, Long>
 
     Optional<AnswerSheet> findByUserAndTestPaper(User user, TestPaper testPaper);
 
-    @Query("SELECT a FROM AnswerSheet a JOIN FETCH a.testPaper tp JOIN FETCH tp.job j JOIN FETCH j.company where j.company = :company")
-    Page<AnswerSheet> findAllByCompany(Company company, Pageable pageable);
+    /**
+     * Score of a user on a paper
+     */
+    interface SheetScore {
+        Long getUserId();
+        Long getPaperId();
+        Float getScore();
+    }
+
+    @Query("select a.user.id as userId, a.testPaper.id as paperId, a.score as score from AnswerSheet a " +
+            "where a.testPaper.id in :paperIds and a.user.id in :userIds and a.score is not null")
+    List<SheetScore> findScores(@Param("paperIds") Collection<Long> paperIds, @Param("userIds") Collection<Long> userIds);
+
+    // Range scan of answer_sheet_company_created_at_idx
+    @Query(value = "SELECT a FROM AnswerSheet a where a.company.id = :companyId",
+            countQuery = "SELECT count(a) FROM AnswerSheet a where a.company.id = :companyId")
+    Page<AnswerSheet> findAllByCompanyId(@Param("companyId") Long companyId, Pageable pageable);
 }
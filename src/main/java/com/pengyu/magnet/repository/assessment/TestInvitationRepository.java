@@ -1,7 +1,6 @@
 
 package com.pengyu.magnet.repository.assessment;
 
-import com.pengyu.magnet.domain.Company;
 import com.pengyu.magnet.domain.User;
 import com.pengyu.magnet.domain.assessment.TestInvitation;
 import com.pengyu.magnet.domain.assessment.TestPaper;
@@ -9,16 +8,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TestInvitationRepository extends JpaRepository<TestInvitation, Long> {
 
-
-
-    // TODO: improve performance, maintain a relationship between TestInvitation and company(user)
-    @Query("SELECT ti FROM TestInvitation ti JOIN FETCH ti.testPaper tp JOIN FETCH tp.job j JOIN FETCH j.company where j.company = :company")
-    Page<TestInvitation> findAllByCompany(Pageable pageable, Company company);
+    // Range scan of invitation_company_created_at_idx, papers and jobs come from the second-level cache
+    @Query(value = "SELECT ti FROM TestInvitation ti where ti.company.id = :companyId",
+            countQuery = "SELECT count(ti) FROM TestInvitation ti where ti.company.id = :companyId")
+    Page<TestInvitation> findAllByCompanyId(Pageable pageable, @Param("companyId") Long companyId);
 
     Page<TestInvitation> findAllByUser(User user, Pageable pageable);
 
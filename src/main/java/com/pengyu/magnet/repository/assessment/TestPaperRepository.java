@@ -2,11 +2,18 @@ package com.pengyu.magnet.repository.assessment;
 
 import com.pengyu.magnet.domain.User;
 import com.pengyu.magnet.domain.assessment.TestPaper;
+import jakarta.persistence.QueryHint;
+import org.hibernate.Hibernate;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,5 +22,31 @@ public interface TestPaperRepository extends JpaRepository<TestPaper, Long> {
 
     long countByUserId(Long userId);
 
+    // Read on every request that maps applications or company data, cached until the table changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     TestPaper findByJobId(Long jobId);
+
+    /**
+     * Paper id by job id
+     */
+    interface PaperJob {
+        Long getId();
+        Long getJobId();
+    }
+
+    @Query("select p.id as id, p.job.id as jobId from TestPaper p where p.job.id in :jobIds")
+    List<PaperJob> findPaperJobsByJobIdIn(@Param("jobIds") Collection<Long> jobIds);
+
+    /**
+     * Initialize the questions and their options, which are serialized with the paper.
+     * The paper must be managed, so call it inside the transaction that loaded it.
+     * @param testPaper
+     * @return the same paper
+     */
+    default TestPaper fetchQuestions(TestPaper testPaper) {
+        if(testPaper != null && testPaper.getQuestionList() != null) {
+            testPaper.getQuestionList().forEach(question -> Hibernate.initialize(question.getOptionList()));
+        }
+        return testPaper;
+    }
 }
@@ -0,0 +1,23 @@
+package com.pengyu.magnet.repository.match;
+
+import com.pengyu.magnet.domain.match.BulkMatchTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface BulkMatchTaskRepository extends JpaRepository<BulkMatchTask, String> {
+
+    /**
+     * Delete tasks finished before a time
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from BulkMatchTask t where t.finishedAt < :finishedBefore")
+    int deleteFinishedBefore(@Param("finishedBefore") LocalDateTime finishedBefore);
+}
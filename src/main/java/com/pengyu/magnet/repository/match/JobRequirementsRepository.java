@@ -1,12 +1,31 @@
 package com.pengyu.magnet.repository.match;
 
 import com.pengyu.magnet.domain.match.JobInsights;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface JobRequirementsRepository extends JpaRepository<JobInsights, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<JobInsights> findByJobId(Long jobId);
+
+    /**
+     * Skill of a job
+     */
+    interface JobSkillRow {
+        Long getJobId();
+        String getSkill();
+    }
+
+    @Query("select i.job.id as jobId, s.skill as skill from Skill s join s.jobInsights i where i.job.id in :jobIds")
+    List<JobSkillRow> findSkillRowsByJobIdIn(@Param("jobIds") Collection<Long> jobIds);
 }
@@ -1,12 +1,30 @@
 package com.pengyu.magnet.repository.match;
 
 import com.pengyu.magnet.domain.match.MatchingIndex;
+import com.pengyu.magnet.dto.MatchSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MatchingIndexRepository extends JpaRepository<MatchingIndex, Long> {
     Optional<MatchingIndex> findByJobIdAndResumeId(Long jobId, Long resumeId);
+
+    /**
+     * Matching indexes of a page of job applications, may return pairs that are not on the page
+     */
+    List<MatchingIndex> findByJobIdInAndResumeIdIn(Collection<Long> jobIds, Collection<Long> resumeIds);
+
+    /**
+     * List rows of matching indexes, with job title and resume name joined in one query
+     */
+    @Query("select new com.pengyu.magnet.dto.MatchSummary(m.id, j.id, j.title, r.id, r.fullName, " +
+            "m.degree, m.major, m.experience, m.skill, m.language, m.overall) " +
+            "from MatchingIndex m left join m.job j left join m.resume r")
+    List<MatchSummary> findSummaries(Pageable pageable);
 }
@@ -1,12 +1,106 @@
 package com.pengyu.magnet.repository.match;
 
+import com.pengyu.magnet.domain.Resume;
 import com.pengyu.magnet.domain.match.ResumeInsights;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ResumeInsightsRepository extends JpaRepository<ResumeInsights, Long> {
     Optional<ResumeInsights> findByResumeId(Long resumeId);
+
+    /**
+     * One row per resume skill, without loading the resumes,
+     * pass Resume.Status.DELETED to leave deleted resumes out
+     */
+    interface ProfileRow {
+        Long getResumeId();
+        String getMajor();
+        String getSkill();
+        Integer getWeight();
+    }
+
+    @Query("select r.id as resumeId, ri.major as major, s.skill as skill, s.weight as weight " +
+            "from ResumeInsights ri join ri.resume r left join ri.skills s " +
+            "where ri.id > :fromId and ri.id <= :toId and (r.status is null or r.status <> :deleted)")
+    List<ProfileRow> findProfileRows(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                     @Param("deleted") Resume.Status deleted);
+
+    @Query("select coalesce(max(ri.id), 0) from ResumeInsights ri")
+    Long findMaxId();
+
+    /**
+     * Scalar fields of ResumeInsights, without skills and resume
+     */
+    interface InsightsRow {
+        Long getId();
+        Long getResumeId();
+        String getDegree();
+        String getMajor();
+        String getLanguage();
+        String getExperience();
+        Integer getExperienceMonths();
+    }
+
+    /**
+     * Skill of a ResumeInsights
+     */
+    interface SkillRow {
+        Long getInsightsId();
+        String getSkill();
+        Integer getSkillId();
+        Integer getWeight();
+    }
+
+    /**
+     * Keyset page of insights of resumes which are not deleted and reach the minimum levels,
+     * unknown levels are null and always kept, pass Resume.Status.DELETED and the minimums of CandidatePreFilter
+     */
+    @Query("select ri.id as id, r.id as resumeId, ri.degree as degree, ri.major as major, " +
+            "ri.language as language, ri.experience as experience, ri.experienceMonths as experienceMonths " +
+            "from ResumeInsights ri join ri.resume r " +
+            "where ri.id > :afterId and (r.status is null or r.status <> :deleted) " +
+            "and (ri.degreeLevel is null or ri.degreeLevel >= :minDegree) " +
+            "and (ri.languageLevel is null or ri.languageLevel >= :minLanguage) " +
+            "and (ri.experienceMonths is null or ri.experienceMonths >= :minExperience) " +
+            "order by ri.id")
+    List<InsightsRow> findRowsAfter(@Param("afterId") Long afterId, @Param("deleted") Resume.Status deleted,
+                                    @Param("minDegree") int minDegree, @Param("minLanguage") int minLanguage,
+                                    @Param("minExperience") int minExperience, Pageable pageable);
+
+    @Query("select count(ri) from ResumeInsights ri join ri.resume r " +
+            "where r.status is null or r.status <> :deleted")
+    long countWithStatusNot(@Param("deleted") Resume.Status deleted);
+
+    @Query("select count(ri) from ResumeInsights ri join ri.resume r " +
+            "where (r.status is null or r.status <> :deleted) " +
+            "and (ri.degreeLevel is null or ri.degreeLevel >= :minDegree) " +
+            "and (ri.languageLevel is null or ri.languageLevel >= :minLanguage) " +
+            "and (ri.experienceMonths is null or ri.experienceMonths >= :minExperience)")
+    long countViable(@Param("deleted") Resume.Status deleted, @Param("minDegree") int minDegree,
+                     @Param("minLanguage") int minLanguage, @Param("minExperience") int minExperience);
+
+    @Query("select s.resumeInsights.id as insightsId, s.skill as skill, s.skillId as skillId, s.weight as weight " +
+            "from Skill s where s.resumeInsights.id in :insightsIds")
+    List<SkillRow> findSkillRows(@Param("insightsIds") Collection<Long> insightsIds);
+
+    /**
+     * Set the months of experience of a resume, 0 if they did not change
+     */
+    @Transactional
+    @Modifying
+    @Query("update ResumeInsights ri set ri.experienceMonths = :months, ri.experience = :experience " +
+            "where ri.resume.id = :resumeId and (ri.experienceMonths is null or ri.experienceMonths <> :months)")
+    int updateExperience(@Param("resumeId") Long resumeId,
+                         @Param("months") int months,
+                         @Param("experience") String experience);
 }
@@ -0,0 +1,28 @@
+package com.pengyu.magnet.repository.match;
+
+import com.pengyu.magnet.domain.match.SkillAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SkillAliasRepository extends JpaRepository<SkillAlias, Integer> {
+
+    /**
+     * Alias key and skill id, without loading the skills
+     */
+    interface AliasRow {
+        String getAliasKey();
+        Integer getSkillId();
+    }
+
+    @Query("select a.aliasKey as aliasKey, a.skill.id as skillId from SkillAlias a")
+    List<AliasRow> findAllRows();
+
+    @Query("select a.skill.id from SkillAlias a where a.aliasKey = :aliasKey")
+    Optional<Integer> findSkillIdByAliasKey(@Param("aliasKey") String aliasKey);
+}
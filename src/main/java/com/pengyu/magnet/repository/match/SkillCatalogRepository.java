@@ -0,0 +1,12 @@
+package com.pengyu.magnet.repository.match;
+
+import com.pengyu.magnet.domain.match.SkillCatalog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SkillCatalogRepository extends JpaRepository<SkillCatalog, Integer> {
+    Optional<SkillCatalog> findByNameKey(String nameKey);
+}
@@ -0,0 +1,37 @@
+package com.pengyu.magnet.repository.stats;
+
+import com.pengyu.magnet.domain.stats.StatsDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StatsDailyRollupRepository extends JpaRepository<StatsDailyRollup, Long> {
+
+    interface MetricTotal {
+        StatsDailyRollup.Metric getMetric();
+        Long getTotal();
+    }
+
+    interface MonthTotal {
+        StatsDailyRollup.Metric getMetric();
+        Integer getYear();
+        Integer getMonth();
+        Long getTotal();
+    }
+
+    boolean existsByMetric(StatsDailyRollup.Metric metric);
+
+    @Query("select r.metric as metric, sum(r.total) as total from StatsDailyRollup r " +
+            "where r.day between :from and :to group by r.metric")
+    List<MetricTotal> sumByMetric(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select r.metric as metric, year(r.day) as year, month(r.day) as month, sum(r.total) as total " +
+            "from StatsDailyRollup r where r.day between :from and :to " +
+            "group by r.metric, year(r.day), month(r.day)")
+    List<MonthTotal> sumByMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
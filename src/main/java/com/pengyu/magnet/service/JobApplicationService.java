@@ -1,7 +1,9 @@
 package com.pengyu.magnet.service;
 
 import com.pengyu.magnet.domain.JobApplication;
+import com.pengyu.magnet.dto.CursorPage;
 import com.pengyu.magnet.dto.JobApplicationDTO;
+import com.pengyu.magnet.utils.KeysetCursor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -13,6 +15,7 @@ public interface JobApplicationService {
     JobApplicationDTO find(Long id);
 
     List<JobApplicationDTO> findAll(Pageable pageable, Long userId);
+    CursorPage<JobApplicationDTO> findAll(KeysetCursor.Request request, Long userId);
     List<JobApplicationDTO> findAllByCurrentUser(Pageable pageable);
 
     void modifyState(Long id, JobApplication.Status status);
@@ -21,6 +24,4 @@ public interface JobApplicationService {
     long count();
 
     Page<JobApplicationDTO> findAllByCurrentCompany(Pageable pageable);
-
-    List<Long> getJobApplicationCounts();
 }
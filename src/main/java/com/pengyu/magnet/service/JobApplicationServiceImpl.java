@@ -1,31 +1,41 @@
 package com.pengyu.magnet.service;
 
 import com.pengyu.magnet.domain.*;
-import com.pengyu.magnet.domain.assessment.AnswerSheet;
-import com.pengyu.magnet.domain.assessment.TestPaper;
+import com.pengyu.magnet.domain.match.MatchingIndex;
 import com.pengyu.magnet.dto.*;
 import com.pengyu.magnet.exception.ApiException;
 import com.pengyu.magnet.exception.ResourceNotFoundException;
 import com.pengyu.magnet.mapper.CompanyMapper;
 import com.pengyu.magnet.mapper.JobApplicationMapper;
 import com.pengyu.magnet.mapper.JobMapper;
+import com.pengyu.magnet.mapper.MatchingIndexMapper;
 import com.pengyu.magnet.mapper.UserMapper;
 import com.pengyu.magnet.repository.*;
 import com.pengyu.magnet.repository.assessment.AnswerSheetRepository;
 import com.pengyu.magnet.repository.assessment.TestPaperRepository;
+import com.pengyu.magnet.repository.match.MatchingIndexRepository;
 import com.pengyu.magnet.service.ai.AsyncTaskService;
 import com.pengyu.magnet.service.match.MatchingIndexService;
-import com.pengyu.magnet.service.resume.ResumeService;
+import com.pengyu.magnet.service.resume.ResumeServiceImpl;
+import com.pengyu.magnet.utils.KeysetCursor;
+import com.pengyu.magnet.service.count.TotalCountService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Job Application business layer
@@ -35,6 +45,7 @@ import java.util.List;
 public class JobApplicationServiceImpl implements JobApplicationService {
 
     private final JobApplicationRepository jobApplicationRepository;
+    private final TotalCountService totalCountService;
     private final UserRepository userRepository;
 
     private final JobRepository jobRepository;
@@ -44,10 +55,12 @@ public class JobApplicationServiceImpl implements JobApplicationService {
     private final AsyncTaskService asynTaskService;
     private final CompanyRepository companyRepository;
 
-    private final ResumeService resumeService;
-
     private final MatchingIndexService matchingIndexService;
 
+    private final MatchingIndexRepository matchingIndexRepository;
+
+    private final KeysetRepository keysetRepository;
+
     private final AnswerSheetRepository answerSheetRepository;
 
     private final TestPaperRepository testPaperRepository;
@@ -93,8 +106,11 @@ public class JobApplicationServiceImpl implements JobApplicationService {
         // Save
         jobApplication = jobApplicationRepository.save(jobApplication);
 
-        // Async Task: AI match job and resume
-        asynTaskService.asyncMatchJobAndResume(jobId, resume.getId());
+        // Match job and resume locally, fall back to Async Task: AI match while insights are not extracted yet
+        MatchingIndexDTO matchingIndexDTO = matchingIndexService.matchIfReady(jobId, resume.getId());
+        if(matchingIndexDTO == null) {
+            asynTaskService.asyncMatchJobAndResume(jobId, resume.getId());
+        }
 
         return mapJobApplicationToJobApplicationResponse(jobApplication);
     }
@@ -124,11 +140,25 @@ public class JobApplicationServiceImpl implements JobApplicationService {
 
         if(userId != null) {
             Page<JobApplication> jobApplications = jobApplicationRepository.findByUserId(pageable, userId);
-            return jobApplications.map(jobApplication -> mapJobApplicationToJobApplicationResponse(jobApplication)).toList();
+            return mapJobApplicationsToJobApplicationResponses(jobApplications.getContent());
         }
 
         Page<JobApplication> jobApplications = jobApplicationRepository.findAll(pageable);
-        return jobApplications.map(jobApplication -> mapJobApplicationToJobApplicationResponse(jobApplication)).toList();
+        return mapJobApplicationsToJobApplicationResponses(jobApplications.getContent());
+    }
+
+    /**
+     * Find a keyset page of Job Applications, of a user if userId is not null
+     * @param request
+     * @param userId
+     * @return
+     */
+    @Override
+    public CursorPage<JobApplicationDTO> findAll(KeysetCursor.Request request, Long userId) {
+        Specification<JobApplication> filter = userId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+        CursorPage<JobApplication> page = keysetRepository.find(JobApplication.class, filter, request, "user", "job.company");
+        return new CursorPage<>(mapJobApplicationsToJobApplicationResponses(page.getContent()), page.getNextCursor());
     }
 
     /**
@@ -177,26 +207,23 @@ public class JobApplicationServiceImpl implements JobApplicationService {
      */
     @Override
     public long count() {
-        return jobApplicationRepository.count();
+        return totalCountService.countAll(TotalCountService.tableOf(JobApplication.class), jobApplicationRepository::count);
     }
 
     @Override
     public Page<JobApplicationDTO> findAllByCurrentCompany(Pageable pageable) {
         Company company = getCurrentCompany();
-        return jobApplicationRepository.findAllByCompany(pageable, company)
-                .map(jobApplication -> mapJobApplicationToJobApplicationResponse(jobApplication));
-    }
-
-    @Override
-    public List<Long> getJobApplicationCounts() {
-        return jobApplicationRepository.getJobApplicationCounts();
+        Page<JobApplication> jobApplications = jobApplicationRepository.findAllByCompany(pageable, company);
+        return new PageImpl<>(mapJobApplicationsToJobApplicationResponses(jobApplications.getContent()),
+                jobApplications.getPageable(), jobApplications.getTotalElements());
     }
 
     @Override
     public long countByCurrentUser() {
         // Get Current login user
         User user = getCurrentUser();
-        return jobApplicationRepository.countByUserId(user.getId());
+        return totalCountService.count(TotalCountService.tableOf(JobApplication.class), "user=" + user.getId(),
+                () -> jobApplicationRepository.countByUserId(user.getId()));
     }
 
 
@@ -231,34 +258,90 @@ public class JobApplicationServiceImpl implements JobApplicationService {
      * @return
      */
     private JobApplicationDTO mapJobApplicationToJobApplicationResponse(JobApplication jobApplication){
+        return mapJobApplicationsToJobApplicationResponses(List.of(jobApplication)).get(0);
+    }
 
-        // Set Job
-        CompanyResponse companyResponse = CompanyMapper.INSTANCE.mapCompanyToCompanyResponse(jobApplication.getJob().getCompany());
-        JobResponse jobResponse = JobMapper.INSTANCE.mapJobToJobResponse(jobApplication.getJob());
-        jobResponse.setCompanyData(companyResponse);
-        JobApplicationDTO jobApplicationResponse = JobApplicationMapper.INSTANCE.mapJobApplicationToJobApplicationResponse(jobApplication);
-        jobApplicationResponse.setJobData(jobResponse);
+    /**
+     * Map a page of jobApplications to JobApplicationResponses,
+     * resumes, matching indexes and test scores of the whole page are loaded with a few IN queries
+     * @param jobApplications
+     * @return
+     */
+    private List<JobApplicationDTO> mapJobApplicationsToJobApplicationResponses(List<JobApplication> jobApplications){
+        if(jobApplications.isEmpty()) {
+            return List.of();
+        }
 
-        // Set User
-        UserResponse userResponse = UserMapper.INSTANCE.mapUserToUserResponse(jobApplication.getUser());
-        jobApplicationResponse.setUserData(userResponse);
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> jobIds = new HashSet<>();
+        for(JobApplication jobApplication : jobApplications) {
+            userIds.add(jobApplication.getUser().getId());
+            jobIds.add(jobApplication.getJob().getId());
+        }
 
-        // Set Resume
-        jobApplicationResponse.setResume(resumeService.findResumeByUserId(jobApplication.getUser().getId()));
+        // Resumes by user id
+        Map<Long, Resume> resumeByUser = new HashMap<>();
+        for(Resume resume : resumeRepository.findAllDetailsByUserIdIn(userIds)) {
+            resumeByUser.put(resume.getUser().getId(), resume);
+        }
 
+        // Matching indexes by job id and resume id
+        Map<String, MatchingIndex> matchingIndexByPair = new HashMap<>();
+        if(!resumeByUser.isEmpty()) {
+            Set<Long> resumeIds = new HashSet<>();
+            resumeByUser.values().forEach(resume -> resumeIds.add(resume.getId()));
+            for(MatchingIndex matchingIndex : matchingIndexRepository.findByJobIdInAndResumeIdIn(jobIds, resumeIds)) {
+                matchingIndexByPair.put(pairKey(matchingIndex.getJob().getId(), matchingIndex.getResume().getId()), matchingIndex);
+            }
+        }
 
-        // Set MatchingIndex
-        MatchingIndexDTO matchingIndexDTO = matchingIndexService.findByMatchingIndexByJobApplication(jobApplication);
-        jobApplicationResponse.setMatchingIndex(matchingIndexDTO);
+        // Test scores by job id and user id
+        Map<Long, Long> jobByPaper = new HashMap<>();
+        for(TestPaperRepository.PaperJob paperJob : testPaperRepository.findPaperJobsByJobIdIn(jobIds)) {
+            jobByPaper.put(paperJob.getId(), paperJob.getJobId());
+        }
+        Map<String, Float> scoreByPair = new HashMap<>();
+        if(!jobByPaper.isEmpty()) {
+            for(AnswerSheetRepository.SheetScore sheetScore : answerSheetRepository.findScores(jobByPaper.keySet(), userIds)) {
+                scoreByPair.put(pairKey(jobByPaper.get(sheetScore.getPaperId()), sheetScore.getUserId()), sheetScore.getScore());
+            }
+        }
 
-        // Set Test Score
-        User applicant = jobApplication.getUser();
-        Job job = jobApplication.getJob();
-        TestPaper testPaper = testPaperRepository.findByJobId(job.getId());
-        AnswerSheet answerSheet = answerSheetRepository.findByUserAndTestPaper(applicant, testPaper).orElse(null);
-        if(answerSheet != null && answerSheet.getScore() != null) {
-            jobApplicationResponse.setTestScore(answerSheet.getScore());
+        List<JobApplicationDTO> responses = new ArrayList<>(jobApplications.size());
+        for(JobApplication jobApplication : jobApplications) {
+            Job job = jobApplication.getJob();
+            User applicant = jobApplication.getUser();
+
+            // Set Job
+            CompanyResponse companyResponse = CompanyMapper.INSTANCE.mapCompanyToCompanyResponse(job.getCompany());
+            JobResponse jobResponse = JobMapper.INSTANCE.mapJobToJobResponse(job);
+            jobResponse.setCompanyData(companyResponse);
+            JobApplicationDTO jobApplicationResponse = JobApplicationMapper.INSTANCE.mapJobApplicationToJobApplicationResponse(jobApplication);
+            jobApplicationResponse.setJobData(jobResponse);
+
+            // Set User
+            UserResponse userResponse = UserMapper.INSTANCE.mapUserToUserResponse(applicant);
+            jobApplicationResponse.setUserData(userResponse);
+
+            // Set Resume and MatchingIndex
+            Resume resume = resumeByUser.get(applicant.getId());
+            if(resume != null) {
+                jobApplicationResponse.setResume(ResumeServiceImpl.mapResumeToResumeDTO(resume));
+                MatchingIndex matchingIndex = matchingIndexByPair.get(pairKey(job.getId(), resume.getId()));
+                jobApplicationResponse.setMatchingIndex(MatchingIndexMapper.INSTANCE.mapMatchingIndexToMatchingIndexDTO(matchingIndex));
+            }
+
+            // Set Test Score
+            Float score = scoreByPair.get(pairKey(job.getId(), applicant.getId()));
+            if(score != null) {
+                jobApplicationResponse.setTestScore(score);
+            }
+            responses.add(jobApplicationResponse);
         }
-        return jobApplicationResponse;
+        return responses;
+    }
+
+    private static String pairKey(Long first, Long second) {
+        return first + ":" + second;
     }
 }
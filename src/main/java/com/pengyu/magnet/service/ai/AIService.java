@@ -4,6 +4,7 @@ package com.pengyu.magnet.service.ai;
 import com.pengyu.magnet.domain.match.JobInsights;
 import com.pengyu.magnet.domain.match.ResumeInsights;
 import com.pengyu.magnet.dto.MatchingIndexDTO;
+import com.pengyu.magnet.service.match.MatchMode;
 
 /**
  * AI Test Paper Generator Service
@@ -37,8 +38,23 @@ public interface AIService {
      */
     public ResumeInsights extractResumeInsights(Long resumeId);
 
+    /**
+     * Match job and resume with the configured match mode
+     * @param jobId
+     * @param resumeId
+     * @return
+     */
     public MatchingIndexDTO match(Long jobId, Long resumeId);
 
+    /**
+     * Match job and resume
+     * @param jobId
+     * @param resumeId
+     * @param mode LLM, EMBEDDING or RULE
+     * @return
+     */
+    public MatchingIndexDTO match(Long jobId, Long resumeId, MatchMode mode);
+
     public MatchingIndexDTO find(Long jobId, Long resumeId);
     public void scoreTest(Long answerSheetId);
 
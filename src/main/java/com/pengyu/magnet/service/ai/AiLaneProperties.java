@@ -0,0 +1,44 @@
+package com.pengyu.magnet.service.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Threads and queue capacity of the lanes of AiWorkScheduler
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "magnet.ai.lanes")
+public class AiLaneProperties {
+
+    // Admin and recruiter calls waiting for the answer
+    private LaneSize interactive = new LaneSize(4, 16);
+    // Work triggered by applications and saves
+    private LaneSize application = new LaneSize(4, 64);
+    // Bulk scoring and re-extractions
+    private LaneSize backfill = new LaneSize(2, 16);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LaneSize {
+        private int concurrency;
+        private int queueCapacity;
+    }
+
+    /**
+     * Size of a lane
+     * @param lane
+     * @return
+     */
+    public LaneSize of(AiWorkScheduler.Lane lane) {
+        return switch (lane) {
+            case INTERACTIVE -> interactive;
+            case APPLICATION -> application;
+            case BACKFILL -> backfill;
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.pengyu.magnet.service.ai;
+
+import com.pengyu.magnet.domain.ai.AiTask;
+import com.pengyu.magnet.repository.ai.AiTaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * AI task outbox, tasks are stored in ai_task and executed by AiTaskWorker
+ */
+@Service
+@RequiredArgsConstructor
+public class AiTaskService {
+
+    private final AiTaskRepository aiTaskRepository;
+
+    /**
+     * Store a task to run as soon as a worker is free,
+     * nothing is stored if the same task is already pending
+     * @param type
+     * @param targetId
+     * @param secondaryId
+     * @param payload
+     */
+    public void enqueue(AiTask.Type type, Long targetId, Long secondaryId, String payload) {
+        boolean pending = secondaryId == null
+                ? aiTaskRepository.existsByTypeAndTargetIdAndSecondaryIdIsNullAndStatus(type, targetId, AiTask.Status.PENDING)
+                : aiTaskRepository.existsByTypeAndTargetIdAndSecondaryIdAndStatus(type, targetId, secondaryId, AiTask.Status.PENDING);
+        // Saving the same entity many times in a row needs one run only
+        if(pending && payload == null) {
+            return;
+        }
+
+        AiTask task = new AiTask();
+        task.setType(type);
+        task.setTargetId(targetId);
+        task.setSecondaryId(secondaryId);
+        task.setPayload(payload);
+        task.setStatus(AiTask.Status.PENDING);
+        task.setAttempts(0);
+        task.setCreatedAt(LocalDateTime.now());
+        task.setNextRunAt(task.getCreatedAt());
+        aiTaskRepository.save(task);
+    }
+
+    public void enqueue(AiTask.Type type, Long targetId) {
+        enqueue(type, targetId, null, null);
+    }
+}
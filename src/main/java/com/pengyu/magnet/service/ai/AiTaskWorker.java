@@ -0,0 +1,169 @@
+package com.pengyu.magnet.service.ai;
+
+import com.pengyu.magnet.domain.ai.AiTask;
+import com.pengyu.magnet.domain.match.JobInsights;
+import com.pengyu.magnet.repository.ai.AiTaskRepository;
+import com.pengyu.magnet.service.match.BulkMatchService;
+import com.pengyu.magnet.service.match.JobInsightsService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Polls the ai_task outbox and executes due tasks in the lanes of AiWorkScheduler,
+ * application triggered tasks in APPLICATION and bulk tasks in BACKFILL.
+ * Failed tasks are retried with exponential backoff and end up DEAD after max attempts.
+ */
+@Slf4j
+@Component
+public class AiTaskWorker {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    // Lane of every task type
+    private static final Map<AiWorkScheduler.Lane, List<AiTask.Type>> TYPES_BY_LANE = Map.of(
+            AiWorkScheduler.Lane.APPLICATION, List.of(
+                    AiTask.Type.EXTRACT_JOB_INSIGHTS,
+                    AiTask.Type.EXTRACT_RESUME_INSIGHTS,
+                    AiTask.Type.MATCH_JOB_RESUME,
+                    AiTask.Type.SCORE_TEST),
+            AiWorkScheduler.Lane.BACKFILL, List.of(
+                    AiTask.Type.BULK_MATCH));
+
+    private final AiTaskRepository aiTaskRepository;
+    private final AiTaskService aiTaskService;
+    private final AIService aiService;
+    private final JobInsightsService jobInsightsService;
+    private final BulkMatchService bulkMatchService;
+    private final AiWorkScheduler aiWorkScheduler;
+
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration lockTimeout;
+    private final boolean bulkMatchOnJobInsights;
+
+    public AiTaskWorker(AiTaskRepository aiTaskRepository,
+                        AiTaskService aiTaskService,
+                        AIService aiService,
+                        JobInsightsService jobInsightsService,
+                        BulkMatchService bulkMatchService,
+                        AiWorkScheduler aiWorkScheduler,
+                        @Value("${magnet.ai.task.max-attempts:6}") int maxAttempts,
+                        @Value("${magnet.ai.task.backoff:PT10S}") Duration backoff,
+                        @Value("${magnet.ai.task.max-backoff:PT1H}") Duration maxBackoff,
+                        @Value("${magnet.ai.task.lock-timeout:PT30M}") Duration lockTimeout,
+                        @Value("${magnet.match.bulk.on-job-insights:true}") boolean bulkMatchOnJobInsights) {
+        this.aiTaskRepository = aiTaskRepository;
+        this.aiTaskService = aiTaskService;
+        this.aiService = aiService;
+        this.jobInsightsService = jobInsightsService;
+        this.bulkMatchService = bulkMatchService;
+        this.aiWorkScheduler = aiWorkScheduler;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.lockTimeout = lockTimeout;
+        this.bulkMatchOnJobInsights = bulkMatchOnJobInsights;
+    }
+
+    /**
+     * Claim as many due tasks as every lane can accept
+     */
+    @Scheduled(fixedDelayString = "${magnet.ai.task.poll-interval:2000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        int released = aiTaskRepository.releaseStale(now.minus(lockTimeout), AiTask.Status.PENDING, AiTask.Status.RUNNING);
+        if(released > 0) {
+            log.warn("Released {} AI tasks of stopped workers", released);
+        }
+
+        TYPES_BY_LANE.forEach((lane, types) -> poll(lane, types, now));
+    }
+
+    private void poll(AiWorkScheduler.Lane lane, List<AiTask.Type> types, LocalDateTime now) {
+        int free = aiWorkScheduler.available(lane);
+        if(free <= 0) {
+            return;
+        }
+
+        List<Long> dueIds = aiTaskRepository.findDueIds(AiTask.Status.PENDING, types, now, PageRequest.of(0, free));
+        for(Long id : dueIds) {
+            // Another instance may claim the same task, only one update wins
+            if(aiTaskRepository.claim(id, LocalDateTime.now(), AiTask.Status.PENDING, AiTask.Status.RUNNING) == 1
+                    && !aiWorkScheduler.trySubmit(lane, () -> execute(id))) {
+                // Lane filled up in the meantime, try again next poll
+                aiTaskRepository.unclaim(id, AiTask.Status.PENDING, AiTask.Status.RUNNING);
+                return;
+            }
+        }
+    }
+
+    private void execute(Long id) {
+        AiTask task = aiTaskRepository.findById(id).orElse(null);
+        if(task == null) {
+            return;
+        }
+        try {
+            run(task);
+            task.setStatus(AiTask.Status.DONE);
+            task.setFinishedAt(LocalDateTime.now());
+            task.setLastError(null);
+        } catch (RuntimeException e) {
+            fail(task, e);
+        }
+        task.setLockedAt(null);
+        aiTaskRepository.save(task);
+    }
+
+    private void run(AiTask task) {
+        switch (task.getType()) {
+            case EXTRACT_JOB_INSIGHTS -> extractJobInsights(task.getTargetId());
+            case EXTRACT_RESUME_INSIGHTS -> aiService.extractResumeInsights(task.getTargetId());
+            case MATCH_JOB_RESUME -> aiService.match(task.getTargetId(), task.getSecondaryId());
+            case SCORE_TEST -> aiService.scoreTest(task.getTargetId());
+            case BULK_MATCH -> bulkMatchService.run(task.getPayload(), task.getTargetId());
+        }
+    }
+
+    private void extractJobInsights(Long jobId) {
+        JobInsights before = jobInsightsService.findByJobId(jobId);
+        JobInsights after = aiService.extractJobInsights(jobId);
+
+        // Score the new job against all resumes, unless its insights did not change
+        if(bulkMatchOnJobInsights
+                && (before == null || !Objects.equals(before.getSourceHash(), after.getSourceHash()))) {
+            aiTaskService.enqueue(AiTask.Type.BULK_MATCH, jobId, null,
+                    bulkMatchService.createTask(jobId).getId());
+        }
+    }
+
+    private void fail(AiTask task, RuntimeException e) {
+        task.setLastError(StringUtils.abbreviate(String.valueOf(e.getMessage()), MAX_ERROR_LENGTH));
+        if(task.getAttempts() >= maxAttempts) {
+            log.error("AI task {} {} of {} is dead after {} attempts",
+                    task.getId(), task.getType(), task.getTargetId(), task.getAttempts(), e);
+            task.setStatus(AiTask.Status.DEAD);
+            task.setFinishedAt(LocalDateTime.now());
+            return;
+        }
+
+        // Exponential backoff with jitter, so retries of a burst do not hit the AI API together
+        long delay = Math.min(backoff.toMillis() << Math.min(task.getAttempts() - 1, 20), maxBackoff.toMillis());
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        log.warn("AI task {} {} of {} failed, attempt {}, retry in {} ms",
+                task.getId(), task.getType(), task.getTargetId(), task.getAttempts(), delay, e);
+        task.setStatus(AiTask.Status.PENDING);
+        task.setNextRunAt(LocalDateTime.now().plus(Duration.ofMillis(delay)));
+    }
+}
@@ -0,0 +1,119 @@
+package com.pengyu.magnet.service.ai;
+
+import com.pengyu.magnet.exception.ApiException;
+import com.pengyu.magnet.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs AI work in separate priority lanes, every lane has its own threads and bounded queue,
+ * so a backfill can never delay an interactive call. Work is rejected when a lane is full.
+ */
+@Component
+public class AiWorkScheduler {
+
+    // Sizes are configured by AiLaneProperties
+    public enum Lane {
+        // Admin and recruiter calls waiting for the answer
+        INTERACTIVE,
+        // Work triggered by applications and saves
+        APPLICATION,
+        // Bulk scoring and re-extractions
+        BACKFILL
+    }
+
+    private final Map<Lane, ThreadPoolExecutor> executors = new EnumMap<>(Lane.class);
+
+    public AiWorkScheduler(AiLaneProperties aiLaneProperties) {
+        for(Lane lane : Lane.values()) {
+            int concurrency = aiLaneProperties.of(lane).getConcurrency();
+            int queueCapacity = aiLaneProperties.of(lane).getQueueCapacity();
+
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    concurrency, concurrency,
+                    0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "ai-" + lane.name().toLowerCase() + "-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            executors.put(lane, executor);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    /**
+     * Run work in a lane and wait for its result, the security context of the caller is kept
+     * @param lane
+     * @param work
+     * @return
+     * @throws TooManyRequestsException if the lane is full
+     */
+    public <T> T call(Lane lane, Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executors.get(lane).submit(new DelegatingSecurityContextCallable<>(work));
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("AI service is busy, please try again later", 5);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while waiting for AI service");
+        } catch (ExecutionException e) {
+            // Rethrow exceptions of the work as they are
+            if(e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ApiException(e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Queue work in a lane without waiting
+     * @param lane
+     * @param work
+     * @return false if the lane is full
+     */
+    public boolean trySubmit(Lane lane, Runnable work) {
+        try {
+            executors.get(lane).execute(work);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Number of works a lane can still accept
+     * @param lane
+     * @return
+     */
+    public int available(Lane lane) {
+        ThreadPoolExecutor executor = executors.get(lane);
+        int idleThreads = executor.getMaximumPoolSize() - executor.getActiveCount();
+        return Math.max(idleThreads, 0) + executor.getQueue().remainingCapacity();
+    }
+}
@@ -1,50 +1,56 @@
 package com.pengyu.magnet.service.ai;
 
 
-import com.pengyu.magnet.service.ai.AIService;
+import com.pengyu.magnet.domain.ai.AiTask;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 /**
- * AsyncTaskService: execute background tasks
+ * AsyncTaskService: execute background tasks.
+ * Tasks are stored in the ai_task outbox and executed by AiTaskWorker,
+ * so they survive restarts and failed tasks are retried.
  */
 @Service
 @RequiredArgsConstructor
 public class AsyncTaskService {
 
-    private final AIService aiMatchService;
+    private final AiTaskService aiTaskService;
 
 
     /**
      * Async method: extract Job Insights using AI
      * @param jobId
      */
-    @Async
     public void asyncExtractJobInsights(Long jobId) {
-         aiMatchService.extractJobInsights(jobId);
+        aiTaskService.enqueue(AiTask.Type.EXTRACT_JOB_INSIGHTS, jobId);
     }
 
     /**
      * Async method: extract Resume Insights using AI
      * @param resumeId
      */
-    @Async
     public void asyncExtractResumeInsights(Long resumeId) {
-        aiMatchService.extractResumeInsights(resumeId);
+        aiTaskService.enqueue(AiTask.Type.EXTRACT_RESUME_INSIGHTS, resumeId);
     }
 
     /**
      * Async method: Match ResumeInsights and JobInsights using AI
      * @param resumeId
      */
-    @Async
     public void asyncMatchJobAndResume(Long jobId, Long resumeId) {
-        aiMatchService.match(jobId, resumeId);
+        aiTaskService.enqueue(AiTask.Type.MATCH_JOB_RESUME, jobId, resumeId, null);
+    }
+
+    /**
+     * Async method: score a job against all resumes
+     * @param jobId
+     * @param taskId created by BulkMatchService
+     */
+    public void asyncBulkMatch(Long jobId, String taskId) {
+        aiTaskService.enqueue(AiTask.Type.BULK_MATCH, jobId, null, taskId);
     }
 
-    @Async
     public void asyncScoreTest(Long answerSheetId) {
-        aiMatchService.scoreTest(answerSheetId);
+        aiTaskService.enqueue(AiTask.Type.SCORE_TEST, answerSheetId);
     }
 }
@@ -0,0 +1,131 @@
+package com.pengyu.magnet.service.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pengyu.magnet.domain.ai.LlmCacheEntry;
+import com.pengyu.magnet.repository.ai.LlmCacheRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prompt/response cache of LLM calls, an in-memory LRU in front of the ai_llm_cache table,
+ * so identical prompts to the same model are answered without calling the AI API
+ */
+@Component
+public class LlmResponseCache {
+
+    // Fields which change on every save but say nothing about the content
+    private static final Set<String> VOLATILE_FIELDS = Set.of("id", "key", "createdAt", "updatedAt");
+
+    private final LlmCacheRepository llmCacheRepository;
+    private final ObjectMapper objectMapper;
+    private final String modelId;
+    private final Map<String, String> lru;
+
+    public LlmResponseCache(LlmCacheRepository llmCacheRepository,
+                            ObjectMapper objectMapper,
+                            @Value("${magnet.ai.cache.model-id:${langchain4j.chat-model.provider}/${langchain4j.chat-model.openai.model-name}}") String modelId,
+                            @Value("${magnet.ai.cache.max-entries:1000}") int maxEntries) {
+        this.llmCacheRepository = llmCacheRepository;
+        this.objectMapper = objectMapper;
+        this.modelId = modelId;
+        this.lru = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Serialize a prompt input without volatile fields, so unchanged content renders the same prompt
+     * @param value
+     * @return
+     * @throws JsonProcessingException
+     */
+    public String stableJson(Object value) throws JsonProcessingException {
+        JsonNode tree = objectMapper.valueToTree(value);
+        removeVolatileFields(tree);
+        return objectMapper.writeValueAsString(tree);
+    }
+
+    /**
+     * Cache key of a rendered prompt, whitespace is normalized
+     * @param prompt
+     * @return
+     */
+    public String key(String prompt) {
+        String normalized = prompt.trim().replaceAll("\\s+", " ");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelId.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Find cached response
+     * @param key
+     * @return null if not cached
+     */
+    public String find(String key) {
+        String response = lru.get(key);
+        if(response != null) {
+            return response;
+        }
+        response = llmCacheRepository
+                .findByCacheKey(key)
+                .map(LlmCacheEntry::getResponse)
+                .orElse(null);
+        if(response != null) {
+            lru.put(key, response);
+        }
+        return response;
+    }
+
+    /**
+     * Cache a response, only put responses that were parsed successfully
+     * @param key
+     * @param response
+     */
+    public void put(String key, String response) {
+        lru.put(key, response);
+        if(llmCacheRepository.findByCacheKey(key).isPresent()) {
+            return;
+        }
+        LlmCacheEntry entry = new LlmCacheEntry();
+        entry.setCacheKey(key);
+        entry.setModel(modelId);
+        entry.setResponse(response);
+        entry.setCreatedAt(LocalDateTime.now());
+        try {
+            llmCacheRepository.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            // Stored by a concurrent call with the same prompt
+        }
+    }
+
+    private static void removeVolatileFields(JsonNode node) {
+        if(node.isObject()) {
+            ((ObjectNode) node).remove(VOLATILE_FIELDS);
+        }
+        node.forEach(LlmResponseCache::removeVolatileFields);
+    }
+}
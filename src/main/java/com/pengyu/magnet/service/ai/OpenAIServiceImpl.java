@@ -23,6 +23,9 @@ import com.pengyu.magnet.repository.match.JobRequirementsRepository;
 import com.pengyu.magnet.repository.match.MatchingIndexRepository;
 import com.pengyu.magnet.repository.match.ResumeInsightsRepository;
 import com.pengyu.magnet.service.match.JobInsightsService;
+import com.pengyu.magnet.service.match.MatchMode;
+import com.pengyu.magnet.service.match.MatchProperties;
+import com.pengyu.magnet.service.match.MatchingIndexService;
 import com.pengyu.magnet.service.match.ResumeInsightsService;
 import com.pengyu.magnet.service.resume.ResumeServiceImpl;
 import dev.langchain4j.model.input.Prompt;
@@ -31,6 +34,7 @@ import dev.langchain4j.model.input.structured.StructuredPromptProcessor;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * OpenAI Job and Resume Match Service
@@ -46,12 +50,17 @@ public class OpenAIServiceImpl implements AIService {
     private final MatchingIndexRepository matchingIndexRepository;
     private final JobInsightsService jobRequirementsService;
     private final ResumeInsightsService resumeInsightsService;
+    private final MatchingIndexService matchingIndexService;
     private final UserRepository userRepository;
     private final JobRequirementsRepository jobRequirementsRepository;
     private final ResumeInsightsRepository resumeInsightsRepository;
 
     private final AnswerSheetRepository answerSheetRepository;
 
+    private final LlmResponseCache llmResponseCache;
+
+    private final MatchProperties matchProperties;
+
 
     // Prompt Template
     @StructuredPrompt({
@@ -107,11 +116,10 @@ public class OpenAIServiceImpl implements AIService {
     }
 
     @StructuredPrompt({
-            "Please extract the insights of the resume based on the Resume. The items includes: degree, major, skills, experience, language. ",
+            "Please extract the insights of the resume based on the Resume. The items includes: degree, major, skills, language. ",
             "degree: Bachelor's degree, Master's degree, Doctor's, Diploma or other",
             "major: for example, Computer Science",
             "skills: professional skills such as programming language, libraries, concepts, software, methodologies the job seeker has. Every skill should be an independent technology. If the skill is present in education, work experience and project experience of the resume, the weight of the skill will be increased. The maximum value of weight is 10",
-            "experience: how long does the job seeker have in related work experience, for example 4+ years.",
             "language: for example, Fluent in English",
             "If there is no specified information for any item just leave it empty",
             "Resume: {{resume}}",
@@ -126,7 +134,6 @@ public class OpenAIServiceImpl implements AIService {
                       {"skill","Scrum", weight:"..."},
                       {"skill","...", weight:"..."}
                       ],
-                      "experience":"...",
                       "language":"..."
                       }
             """
@@ -218,19 +225,33 @@ public class OpenAIServiceImpl implements AIService {
 
             // Build prompt template
             JobInsightsExtractionPrompt jobRequirementsExtractionPrompt =
-                    new JobInsightsExtractionPrompt(objectMapper.writeValueAsString(jobResponse));
+                    new JobInsightsExtractionPrompt(llmResponseCache.stableJson(jobResponse));
 
             // Render template
             Prompt prompt = StructuredPromptProcessor.toPrompt(jobRequirementsExtractionPrompt);
+            String cacheKey = llmResponseCache.key(prompt.text());
 
-            // Call AI API to generate questions
-            String json = matchAgent.chat(prompt.toUserMessage().text());
+            // Job description is unchanged since last extraction
+            JobInsights jobRequirements = jobRequirementsService.findByJobId(jobId);
+            if(jobRequirements != null && cacheKey.equals(jobRequirements.getSourceHash())) {
+                return jobRequirements;
+            }
+
+            // Call AI API only if the same prompt was never answered
+            String json = llmResponseCache.find(cacheKey);
+            boolean cached = json != null;
+            if(!cached) {
+                json = matchAgent.chat(prompt.toUserMessage().text());
+            }
 
             // Parse return json
             JobInsights jobRequirementsNew = objectMapper.readValue(json, JobInsights.class);
+            jobRequirementsNew.setSourceHash(cacheKey);
+            if(!cached) {
+                llmResponseCache.put(cacheKey, json);
+            }
 
             // Check if jobRequirements already exist
-            JobInsights jobRequirements = jobRequirementsService.findByJobId(jobId);
             if(jobRequirements != null) {
                 jobRequirementsRepository.delete(jobRequirements);
             }
@@ -259,23 +280,37 @@ public class OpenAIServiceImpl implements AIService {
 
             // Get Resume info
             ResumeDTO resume = ResumeServiceImpl
-                    .mapResumeToResumeDTO(resumeRepository.findById(resumeId).orElseThrow(() -> new ResourceNotFoundException("No such ResumeInsights found with resumeId " + resumeId)));
+                    .mapResumeToResumeDTO(resumeRepository.findInsightsInputDetailsById(resumeId).orElseThrow(() -> new ResourceNotFoundException("No such ResumeInsights found with resumeId " + resumeId)));
 
             // Build prompt template
             ResumeInsightsExtractionPrompt resumeExtractionPrompt =
-                    new ResumeInsightsExtractionPrompt(objectMapper.writeValueAsString(resume));
+                    new ResumeInsightsExtractionPrompt(llmResponseCache.stableJson(resume));
 
             // Render template
             Prompt prompt = StructuredPromptProcessor.toPrompt(resumeExtractionPrompt);
+            String cacheKey = llmResponseCache.key(prompt.text());
 
-            // Call AI API to extract Resume Characteristics
-            String json = matchAgent.chat(prompt.toUserMessage().text());
+            // Resume is unchanged since last extraction
+            ResumeInsights resumeInsights = resumeInsightsService.findByResumeId(resumeId);
+            if(resumeInsights != null && cacheKey.equals(resumeInsights.getSourceHash())) {
+                return resumeInsights;
+            }
+
+            // Call AI API only if the same prompt was never answered
+            String json = llmResponseCache.find(cacheKey);
+            boolean cached = json != null;
+            if(!cached) {
+                json = matchAgent.chat(prompt.toUserMessage().text());
+            }
 
             // Parse return json
             ResumeInsights resumeInsightsNew = objectMapper.readValue(json, ResumeInsights.class);
+            resumeInsightsNew.setSourceHash(cacheKey);
+            if(!cached) {
+                llmResponseCache.put(cacheKey, json);
+            }
 
             // Check if ResumeInsights already exist
-            ResumeInsights resumeInsights = resumeInsightsService.findByResumeId(resumeId);
             if(resumeInsights != null) {
                 resumeInsightsRepository.delete(resumeInsights);
             }
@@ -291,14 +326,23 @@ public class OpenAIServiceImpl implements AIService {
 
     }
 
+    @Override
+    public MatchingIndexDTO match(Long jobId, Long resumeId) {
+        return match(jobId, resumeId, matchProperties.getMode());
+    }
+
     /**
-     * Call AI to math job and resume
+     * Match job and resume, only LLM mode calls AI
      * @param jobId
      * @param resumeId
+     * @param mode
      * @return
      */
     @Override
-    public MatchingIndexDTO match(Long jobId, Long resumeId) {
+    public MatchingIndexDTO match(Long jobId, Long resumeId, MatchMode mode) {
+        if(mode != MatchMode.LLM) {
+            return matchingIndexService.match(jobId, resumeId, mode);
+        }
         try {
             // Get Job info
             JobInsights jobInsights = jobRequirementsService.findByJobId(jobId);
@@ -326,25 +370,8 @@ public class OpenAIServiceImpl implements AIService {
             // Parse return json
             MatchingIndex matchingIndex = objectMapper.readValue(json, MatchingIndex.class);
 
-            // Bind MatchingIndex and Job, Resume
-            Job job = jobRepository
-                    .findById(jobId)
-                    .orElseThrow(() -> new ResourceNotFoundException("No such job found with jobId " + jobId));
-            matchingIndex.setJob(job);
-
-            Resume resume = resumeRepository
-                    .findById(resumeId)
-                    .orElseThrow(() -> new ResourceNotFoundException("No such Resume found with resumeId " + resumeId));
-            matchingIndex.setResume(resume);
-
-            // Sava to Database
-            MatchingIndex saved = matchingIndexRepository.save(matchingIndex);
-
-            // return
-            MatchingIndexDTO matchingIndexDTO = MatchingIndexMapper.INSTANCE.mapMatchingIndexToMatchingIndexDTO(saved);
-            matchingIndexDTO.setResumeDTO(ResumeServiceImpl.mapResumeToResumeDTO(resume));
-            matchingIndexDTO.setJobResponse(JobMapper.INSTANCE.mapJobToJobResponse(job));
-            return matchingIndexDTO;
+            // Bind MatchingIndex and Job, Resume, then save to database
+            return matchingIndexService.save(matchingIndex, jobId, resumeId);
         } catch (JsonProcessingException e) {
             throw new ApiException(e.getMessage());
         }
@@ -389,6 +416,7 @@ public class OpenAIServiceImpl implements AIService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public MatchingIndexDTO find(Long jobId, Long resumeId) {
         MatchingIndex matchingIndex =
                 matchingIndexRepository
@@ -3,7 +3,10 @@ package com.pengyu.magnet.service.assessment;
 
 import com.pengyu.magnet.dto.TestPaperDTO;
 import com.pengyu.magnet.dto.TestPaperGenerationRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface AIPaperGeneratorService {
     public TestPaperDTO generatePaper(TestPaperGenerationRequest testPaperGenerationRequest);
+
+    public SseEmitter streamPaper(TestPaperGenerationRequest testPaperGenerationRequest);
 }
@@ -4,24 +4,51 @@ package com.pengyu.magnet.service.assessment;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pengyu.magnet.domain.Job;
 import com.pengyu.magnet.domain.User;
+import com.pengyu.magnet.domain.assessment.Question;
 import com.pengyu.magnet.domain.assessment.TestPaper;
 import com.pengyu.magnet.dto.TestPaperDTO;
 import com.pengyu.magnet.dto.TestPaperGenerationRequest;
 import com.pengyu.magnet.exception.ApiException;
 import com.pengyu.magnet.exception.ResourceNotFoundException;
+import com.pengyu.magnet.exception.TooManyRequestsException;
 import com.pengyu.magnet.langchain4j.AssessmentAgent;
+import com.pengyu.magnet.langchain4j.LlmRateLimiter;
+import com.pengyu.magnet.mapper.TestPaperMapper;
 import com.pengyu.magnet.repository.JobRepository;
 import com.pengyu.magnet.repository.UserRepository;
+import com.pengyu.magnet.repository.assessment.QuestionRepository;
 import com.pengyu.magnet.repository.assessment.TestPaperRepository;
+import com.pengyu.magnet.service.ai.AiWorkScheduler;
+import com.pengyu.magnet.service.cache.EntityCacheService;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.input.Prompt;
 import dev.langchain4j.model.input.structured.StructuredPrompt;
 import dev.langchain4j.model.input.structured.StructuredPromptProcessor;
+import dev.langchain4j.model.output.Response;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * AI Test Paper Generator Service
@@ -35,6 +62,23 @@ public class AIPaperGeneratorServiceImpl implements AIPaperGeneratorService {
     private final JobRepository jobRepository;
     private final UserRepository userRepository;
     private final TestPaperRepository testPaperRepository;
+    private final QuestionRepository questionRepository;
+    // Only providers with a streaming model, see Langchain4JConfig
+    private final ObjectProvider<StreamingChatLanguageModel> streamingChatLanguageModel;
+    private final LlmRateLimiter llmRateLimiter;
+    private final AiWorkScheduler aiWorkScheduler;
+    private final EntityCacheService entityCacheService;
+
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(5);
+
+    private static final String ALREADY_GENERATED = "You've already generated questions for this job.";
+
+    // Running generations by job id
+    private final Map<Long, CompletableFuture<TestPaperDTO>> inFlight = new ConcurrentHashMap<>();
+
+    // Same as AssessmentAgent
+    private static final String SYSTEM_MESSAGE =
+            "You are a recruitment assistant helping the recruiter generate online assessment questions";
 
     // Prompt Template
     @StructuredPrompt({
@@ -78,11 +122,271 @@ public class AIPaperGeneratorServiceImpl implements AIPaperGeneratorService {
      * @return
      */
 
-    public synchronized TestPaperDTO generatePaper(TestPaperGenerationRequest testPaperGenerationRequest){
+    public TestPaperDTO generatePaper(TestPaperGenerationRequest testPaperGenerationRequest){
+        Job job = checkJob(testPaperGenerationRequest);
+
+        // Single flight per job, a duplicate request joins the running generation
+        CompletableFuture<TestPaperDTO> generation = new CompletableFuture<>();
+        CompletableFuture<TestPaperDTO> running = inFlight.putIfAbsent(job.getId(), generation);
+        if(running != null) {
+            return join(running);
+        }
+
+        try {
+            TestPaperDTO testPaperDTO = doGenerate(testPaperGenerationRequest, job);
+            generation.complete(testPaperDTO);
+            return testPaperDTO;
+        } catch (RuntimeException e) {
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(job.getId(), generation);
+        }
+    }
+
+    private TestPaperDTO doGenerate(TestPaperGenerationRequest testPaperGenerationRequest, Job job) {
+        // Render template
+        Prompt prompt = toPrompt(testPaperGenerationRequest, job);
+
+        // Call AI API to generate questions
+        String json = assessmentAgent.chat(prompt.toUserMessage().text());
+
+
+        try {
+            // Parse return json
+            var testPaperDTO =  objectMapper.readValue(json, TestPaperDTO.class);
+            testPaperDTO.setJobId(job.getId());
+
+            // Save it to database
+            return testPaperService.save(testPaperDTO);
+        } catch (DataIntegrityViolationException e) {
+            // Another node generated the test first, assessment_paper.job_id is unique
+            throw new ApiException(ALREADY_GENERATED);
+        } catch (Exception e){
+            throw new ApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * Wait for the generation started by another request
+     */
+    private static TestPaperDTO join(CompletableFuture<TestPaperDTO> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ApiException(String.valueOf(e.getCause()));
+        }
+    }
+
+    /**
+     * Generate questions with a streaming AI call, every question is saved and sent
+     * to the client as soon as it is complete.
+     * Events: "paper" with the created TestPaperDTO, "question" for every Question,
+     * "done" with the whole TestPaperDTO, "error" with a message
+     * @param testPaperGenerationRequest
+     * @return
+     */
+    @Override
+    public SseEmitter streamPaper(TestPaperGenerationRequest testPaperGenerationRequest) {
+        StreamingChatLanguageModel model = streamingChatLanguageModel.getIfAvailable();
+        if(model == null) {
+            throw new ApiException("The configured AI provider can not stream, please use /generate");
+        }
+
+        // Checks run on the request thread, where the login user is known
+        Job job = checkJob(testPaperGenerationRequest);
+        Prompt prompt = toPrompt(testPaperGenerationRequest, job);
+
+        // A stream can not be joined, so a duplicate stream is refused
+        CompletableFuture<TestPaperDTO> generation = new CompletableFuture<>();
+        if(inFlight.putIfAbsent(job.getId(), generation) != null) {
+            throw new ApiException("Questions are being generated for this job, please wait.");
+        }
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        boolean accepted = aiWorkScheduler.trySubmit(AiWorkScheduler.Lane.INTERACTIVE,
+                () -> stream(model, prompt, job, emitter, generation));
+        if(!accepted) {
+            inFlight.remove(job.getId(), generation);
+            throw new TooManyRequestsException("AI service is busy, please try again later", 5);
+        }
+        return emitter;
+    }
+
+    /**
+     * Runs in the interactive lane only until the AI call is sent, tokens arrive and the stream is
+     * finished on the HTTP client threads, so slow clients do not hold lane threads
+     */
+    private void stream(StreamingChatLanguageModel model, Prompt prompt, Job job, SseEmitter emitter,
+                        CompletableFuture<TestPaperDTO> generation) {
+        long estimatedTokens = prompt.text().length() / 4 + 2000;
+        try {
+            llmRateLimiter.acquire(estimatedTokens);
+        } catch (RuntimeException e) {
+            inFlight.remove(job.getId(), generation);
+            generation.completeExceptionally(e);
+            sendError(emitter, e);
+            return;
+        }
+
+        PaperStream paperStream = new PaperStream(prompt, job, emitter, generation, estimatedTokens);
+        paperStream.completion
+                .orTimeout(STREAM_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, error) -> paperStream.finish(error));
+        try {
+            paperStream.start(model);
+        } catch (Exception e) {
+            paperStream.completion.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * One streamed generation, saves every question as soon as the parser completes it
+     */
+    private final class PaperStream implements StreamingResponseHandler<AiMessage> {
+        private final Prompt prompt;
+        private final Job job;
+        private final SseEmitter emitter;
+        private final CompletableFuture<TestPaperDTO> generation;
+        private final long estimatedTokens;
+        private final QuestionStreamParser parser = new QuestionStreamParser();
+        private final AtomicLong streamedChars = new AtomicLong();
+        // Completed by the end of the stream, an error or the timeout
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private volatile TestPaper paper;
+
+        PaperStream(Prompt prompt, Job job, SseEmitter emitter, CompletableFuture<TestPaperDTO> generation,
+                    long estimatedTokens) {
+            this.prompt = prompt;
+            this.job = job;
+            this.emitter = emitter;
+            this.generation = generation;
+            this.estimatedTokens = estimatedTokens;
+        }
+
+        void start(StreamingChatLanguageModel model) throws IOException {
+            // Paper first, so questions can be bound to it as they arrive
+            TestPaper testPaper = new TestPaper();
+            testPaper.setType(TestPaper.Type.TECHNOLOGY);
+            testPaper.setJob(job);
+            testPaper.setUser(job.getCompany().getUser());
+            testPaper.setCreatedAt(LocalDateTime.now());
+            testPaper.setQuestionList(new ArrayList<>());
+            paper = testPaperRepository.save(testPaper);
+            emitter.send(SseEmitter.event().name("paper").data(toDTO(paper)));
+
+            model.generate(List.of(SystemMessage.from(SYSTEM_MESSAGE), prompt.toUserMessage()), this);
+        }
+
+        @Override
+        public void onNext(String token) {
+            if(completion.isDone()) {
+                return;
+            }
+            streamedChars.addAndGet(token.length());
+            try {
+                for(String json : parser.feed(token)) {
+                    Question question = objectMapper.readValue(json, Question.class);
+                    question.setTestPaper(paper);
+                    if(question.getOptionList() != null) {
+                        question.getOptionList().forEach(optionAnswer -> optionAnswer.setQuestion(question));
+                    }
+                    Question saved = questionRepository.save(question);
+                    // Saved without the paper, its cached question list is stale now
+                    entityCacheService.evictQuestions(paper.getId());
+                    paper.getQuestionList().add(saved);
+                    emitter.send(SseEmitter.event().name("question").data(saved));
+                }
+            } catch (Exception e) {
+                completion.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onComplete(Response<AiMessage> response) {
+            completion.complete(null);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            completion.completeExceptionally(error);
+        }
+
+        private void finish(Throwable error) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            try {
+                if(cause == null) {
+                    if(paper.getQuestionList().isEmpty()) {
+                        throw new ApiException("No question was generated");
+                    }
+                    llmRateLimiter.onSuccess();
+                    TestPaperDTO testPaperDTO = toDTO(paper);
+                    generation.complete(testPaperDTO);
+                    emitter.send(SseEmitter.event().name("done").data(testPaperDTO));
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                cause = e;
+            }
+
+            try {
+                if(cause != null) {
+                    fail(cause);
+                }
+            } finally {
+                inFlight.remove(job.getId(), generation);
+                llmRateLimiter.release(estimatedTokens, prompt.text().length() / 4 + streamedChars.get() / 4);
+            }
+        }
+
+        private void fail(Throwable cause) {
+            if(cause.getMessage() != null && cause.getMessage().contains("429")) {
+                llmRateLimiter.onRateLimited(null);
+            }
+            if(cause instanceof DataIntegrityViolationException) {
+                cause = new ApiException(ALREADY_GENERATED);
+            }
+            try {
+                // A broken paper would block generating a new one for this job
+                if(!generation.isDone() && paper != null && paper.getId() != null) {
+                    testPaperService.deleteTestPaper(paper.getId());
+                }
+            } finally {
+                generation.completeExceptionally(cause);
+                sendError(emitter, cause);
+            }
+        }
+    }
+
+    private static void sendError(SseEmitter emitter, Throwable e) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(String.valueOf(e.getMessage())));
+            emitter.complete();
+        } catch (Exception sendFailed) {
+            // Client is gone
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static TestPaperDTO toDTO(TestPaper testPaper) {
+        TestPaperDTO testPaperDTO = TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaper);
+        testPaperDTO.setJobId(testPaper.getJob().getId());
+        return testPaperDTO;
+    }
+
+    /**
+     * Check the job has no test yet and the current user owns it
+     * @param testPaperGenerationRequest
+     * @return
+     */
+    private Job checkJob(TestPaperGenerationRequest testPaperGenerationRequest) {
         // Check if test is already exist
         TestPaper testPaper = testPaperRepository.findByJobId(testPaperGenerationRequest.getJobId());
         if(testPaper != null) {
-            throw new ApiException("You've already generated questions for this job.");
+            throw new ApiException(ALREADY_GENERATED);
         }
 
         // Get Job info
@@ -99,33 +403,19 @@ public class AIPaperGeneratorServiceImpl implements AIPaperGeneratorService {
         if(!job.getCompany().getUser().getEmail().equals(user.getEmail())){
             throw new InsufficientAuthenticationException("Sorry, you can not generate question for other user's job!");
         }
+        return job;
+    }
 
-        // Build prompt template
+    /**
+     * Build and render prompt template
+     */
+    private static Prompt toPrompt(TestPaperGenerationRequest testPaperGenerationRequest, Job job) {
         CreateTestPrompt createTestPrompt =
                 new CreateTestPrompt(testPaperGenerationRequest.getGeneralNumber(),
                         testPaperGenerationRequest.getLanguageNumber(),
                         testPaperGenerationRequest.getLanguage(),
                         job.getId(),
                         job.getDescription());
-
-        // Render template
-        Prompt prompt = StructuredPromptProcessor.toPrompt(createTestPrompt);
-
-        // Call AI API to generate questions
-        String json = assessmentAgent.chat(prompt.toUserMessage().text());
-
-
-        try {
-            // Parse return json
-            var testPaperDTO =  objectMapper.readValue(json, TestPaperDTO.class);
-
-            // Save it to database
-            return testPaperService.save(testPaperDTO);
-        } catch (Exception e){
-            throw new ApiException(e.getMessage());
-        }
-
+        return StructuredPromptProcessor.toPrompt(createTestPrompt);
     }
-
-
 }
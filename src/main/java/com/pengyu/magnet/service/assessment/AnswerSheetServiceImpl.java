@@ -1,7 +1,6 @@
 package com.pengyu.magnet.service.assessment;
 
 import com.pengyu.magnet.domain.Company;
-import com.pengyu.magnet.domain.Resume;
 import com.pengyu.magnet.domain.User;
 import com.pengyu.magnet.domain.assessment.*;
 import com.pengyu.magnet.dto.AnswerDTO;
@@ -16,16 +15,21 @@ import com.pengyu.magnet.repository.ResumeRepository;
 import com.pengyu.magnet.repository.UserRepository;
 import com.pengyu.magnet.repository.assessment.*;
 import com.pengyu.magnet.service.ai.AsyncTaskService;
+import com.pengyu.magnet.service.count.TotalCountService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -36,6 +40,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AnswerSheetServiceImpl implements AnswerSheetService {
     private final AnswerSheetRepository answerSheetRepository;
+    private final TotalCountService totalCountService;
     private final UserRepository userRepository;
     private final TestPaperRepository testPaperRepository;
     private final AnswerRepository answerRepository;
@@ -75,6 +80,7 @@ public class AnswerSheetServiceImpl implements AnswerSheetService {
         AnswerSheet answerSheet = AnswerSheet.builder()
                 .user(user)
                 .testPaper(testPaper)
+                .company(testPaper.getJob().getCompany())
                 .answerList(answerSheetDTO.getAnswers().stream().map(
                         answerDTO -> AnswerMapper.INSTANCE.mapAnswerDTOToAnswer(answerDTO)).collect(Collectors.toList()))
                 .createdAt(LocalDateTime.now())
@@ -167,10 +173,10 @@ public class AnswerSheetServiceImpl implements AnswerSheetService {
         List<AnswerDTO> answerDTOS = answerSheet.getAnswerList().stream().map(answer -> AnswerMapper.INSTANCE.mapAnswerToAnswerDTO(answer)).collect(Collectors.toList());
         answerSheetDTO.setAnswers(answerDTOS);
         answerSheetDTO.setPaperId(answerSheet.getTestPaper().getId());
-        Resume resume = resumeRepository
-                .findByUserId(answerSheet.getUser().getId())
+        String fullName = resumeRepository
+                .findFullNameByUserId(answerSheet.getUser().getId())
                 .orElseThrow(()->new ResourceNotFoundException("No such user found with id "+ answerSheet.getUser().getId()));
-        answerSheetDTO.setApplicant(resume.getFullName());
+        answerSheetDTO.setApplicant(fullName);
         answerSheetDTO.setUserResponse(UserMapper.INSTANCE.mapUserToUserResponse(answerSheet.getUser()));
         return answerSheetDTO;
     }
@@ -182,30 +188,45 @@ public class AnswerSheetServiceImpl implements AnswerSheetService {
      * @param answerSheetId
      * @return
      */
+    @Transactional
     public void saveAnswers(List<AnswerDTO> answerDTOs,Long answerSheetId){
         AnswerSheet answerSheet = answerSheetRepository
                 .findById(answerSheetId)
                 .orElseThrow(() -> new ResourceNotFoundException("No such Answer Sheet found with id " + answerSheetId));
+
+        // Check all questions with one query
+        Set<Long> questionIds = answerDTOs.stream().map(AnswerDTO::getQuestionId).collect(Collectors.toSet());
+        Set<Long> foundIds = questionRepository.findAllById(questionIds).stream().map(Question::getId).collect(Collectors.toSet());
+        for (Long questionId : questionIds) {
+            if(!foundIds.contains(questionId)) {
+                throw new ResourceNotFoundException("No such question found with id "+ questionId);
+            }
+        }
+
+        // Load existing answers at once, so merging them doesn't select them one by one
+        answerRepository.findAllById(answerDTOs.stream().map(AnswerDTO::getId).filter(Objects::nonNull).toList());
+
+        List<Answer> answers = new ArrayList<>(answerDTOs.size());
         for (AnswerDTO answerDTO : answerDTOs){
-            Question question = questionRepository
-                    .findById(answerDTO.getQuestionId())
-                            .orElseThrow(()-> new ResourceNotFoundException("No such question found with id "+ answerDTO.getQuestionId()));
             Answer answer = Answer.builder()
                     .answerSheet(answerSheet)
                     .questionText(answerDTO.getQuestionText())
                     .answer(answerDTO.getAnswer())
                     .id(answerDTO.getId())
                     .score(answerDTO.getScore()).build();
-            answerRepository.save(answer);
+            answers.add(answer);
         }
+        // Inserts and updates go out in JDBC batches on commit
+        answerRepository.saveAll(answers);
     }
 
     @Override
     public long count(Long userId) {
+        String table = TotalCountService.tableOf(AnswerSheet.class);
         if(userId != null){
-            return answerSheetRepository.countByUserId(userId);
+            return totalCountService.count(table, "user=" + userId, () -> answerSheetRepository.countByUserId(userId));
         }
-        return answerSheetRepository.count();
+        return totalCountService.countAll(table, answerSheetRepository::count);
     }
 
     /**
@@ -217,7 +238,7 @@ public class AnswerSheetServiceImpl implements AnswerSheetService {
     public Page<AnswerSheetDTO> findAllByCurrentCompany(Pageable pageable) {
         Company company = findCurrentCompany();
         return answerSheetRepository
-                .findAllByCompany(company, pageable)
+                .findAllByCompanyId(company.getId(), pageable)
                 .map(answerSheet -> mapToAnswerSheetDTO(answerSheet));
     }
 
@@ -0,0 +1,71 @@
+package com.pengyu.magnet.service.assessment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental parser of a streamed test paper JSON, returns the JSON text of every question object
+ * of "questionList" as soon as its closing brace arrives. Braces inside strings are ignored.
+ */
+public class QuestionStreamParser {
+
+    private final StringBuilder buffer = new StringBuilder();
+    // Open containers, '{' or '['
+    private final StringBuilder stack = new StringBuilder();
+    private boolean inString;
+    private boolean escaped;
+    // Start of the question object being read in buffer, -1 if none
+    private int questionStart = -1;
+    private int questionDepth;
+
+    /**
+     * Feed the next chunk of the stream
+     * @param chunk
+     * @return JSON of the questions completed by this chunk
+     */
+    public List<String> feed(String chunk) {
+        List<String> questions = new ArrayList<>();
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            buffer.append(c);
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> inString = true;
+                case '[' -> stack.append('[');
+                case '{' -> {
+                    // An object directly in an array of the root object is a question
+                    if (questionStart < 0 && stack.length() == 2 && stack.charAt(1) == '[') {
+                        questionStart = buffer.length() - 1;
+                        questionDepth = stack.length() + 1;
+                    }
+                    stack.append('{');
+                }
+                case '}', ']' -> {
+                    if (stack.length() > 0) {
+                        stack.setLength(stack.length() - 1);
+                    }
+                    if (c == '}' && questionStart >= 0 && stack.length() == questionDepth - 1) {
+                        questions.add(buffer.substring(questionStart));
+                        // Nothing before a completed question is needed anymore
+                        buffer.setLength(0);
+                        questionStart = -1;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return questions;
+    }
+}
@@ -19,6 +19,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -47,6 +48,7 @@ public class TestInvitationServiceImpl implements TestInvitationService {
      * @return
      */
     @Override
+    @Transactional
     public TestInvitationDTO invite(Long applicationId) {
 
         JobApplication jobApplication = jobApplicationRepository
@@ -69,6 +71,7 @@ public class TestInvitationServiceImpl implements TestInvitationService {
                 .status(TestInvitation.Status.PENDING)
                 .createdAt(LocalDateTime.now())
                 .testPaper(testPaper)
+                .company(jobApplication.getJob().getCompany())
                 .user(user)
                 .build();
         testInvitation = testInvitationRepository.save(testInvitation);
@@ -81,9 +84,10 @@ public class TestInvitationServiceImpl implements TestInvitationService {
      * @return
      */
     @Override
+    @Transactional(readOnly = true)
     public Page<TestInvitationDTO> findAllByCurrentCompany(Pageable pageable) {
         Company company = findCurrentCompany();
-        Page<TestInvitation> page = testInvitationRepository.findAllByCompany(pageable, company);
+        Page<TestInvitation> page = testInvitationRepository.findAllByCompanyId(pageable, company.getId());
         return page.map(testInvitation -> mapTestInvitationToTestInvitationResponse(testInvitation));
     }
 
@@ -102,6 +106,7 @@ public class TestInvitationServiceImpl implements TestInvitationService {
      * @return
      */
     @Override
+    @Transactional(readOnly = true)
     public Page<TestInvitationDTO> findAllByCurrentUser(Pageable pageable) {
         User user = findCurrentUser();
         Page<TestInvitation> page = testInvitationRepository.findAllByUser(user, pageable);
@@ -115,6 +120,7 @@ public class TestInvitationServiceImpl implements TestInvitationService {
      * @return
      */
     @Override
+    @Transactional(readOnly = true)
     public TestInvitationDTO findById(Long id) {
         TestInvitation invitation = testInvitationRepository
                 .findById(id)
@@ -150,17 +156,18 @@ public class TestInvitationServiceImpl implements TestInvitationService {
     }
 
     /**
-     * Map TestInvitation to TestInvitationDTO
+     * Map TestInvitation to TestInvitationDTO, inside the transaction that loaded it, the DTO serializes the paper's questions
      * @param testInvitation
      * @return
      */
     public TestInvitationDTO mapTestInvitationToTestInvitationResponse(TestInvitation testInvitation) {
+        testPaperRepository.fetchQuestions(testInvitation.getTestPaper());
         TestInvitationDTO testInvitationResponse = TestInvitationMapper.INSTANCE.mapTestInvitationToTestInvitationResponse(testInvitation);
         // Set Resume name
-        Resume resume = resumeRepository
-                .findByUserId(testInvitation.getUser().getId())
+        String fullName = resumeRepository
+                .findFullNameByUserId(testInvitation.getUser().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("No such resume found with user id "+ testInvitation.getUser().getId()));
-        testInvitationResponse.setApplicant(resume.getFullName());
+        testInvitationResponse.setApplicant(fullName);
         // Set Job Title
         Job job = jobRepository
                 .findById(testInvitation.getTestPaper().getJob().getId())
@@ -15,7 +15,9 @@ import com.pengyu.magnet.repository.UserRepository;
 import com.pengyu.magnet.repository.assessment.QuestionRepository;
 import com.pengyu.magnet.repository.assessment.TestPaperRepository;
 import com.pengyu.magnet.service.assessment.TestPaperService;
+import com.pengyu.magnet.service.cache.EntityCacheService;
 import com.pengyu.magnet.service.compnay.JobService;
+import com.pengyu.magnet.service.count.TotalCountService;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -36,11 +38,13 @@ import java.util.List;
 public class TestPaperServiceImpl implements TestPaperService {
 
     private final TestPaperRepository testPaperRepository;
+    private final TotalCountService totalCountService;
     private final UserRepository userRepository;
     private final JobRepository jobRepository;
     private final CompanyRepository companyRepository;
 
     private final QuestionRepository questionRepository;
+    private final EntityCacheService entityCacheService;
 
     private final JobService jobService;
 
@@ -50,6 +54,7 @@ public class TestPaperServiceImpl implements TestPaperService {
      * @return
      */
     @Override
+    @Transactional
     public TestPaperDTO save(TestPaperDTO testPaperDTO) {
         // If edit
         if(testPaperDTO.getJob() != null) {
@@ -79,7 +84,7 @@ public class TestPaperServiceImpl implements TestPaperService {
                 question.getOptionList().forEach(optionAnswer -> optionAnswer.setQuestion(question));
         }
 
-        TestPaperDTO testPaperDTONew = TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaperRepository.save(testPaper));
+        TestPaperDTO testPaperDTONew = TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaperRepository.fetchQuestions(testPaperRepository.save(testPaper)));
         testPaperDTONew.setJobId(job.getId());
 
         return testPaperDTONew;
@@ -91,10 +96,12 @@ public class TestPaperServiceImpl implements TestPaperService {
      * @return
      */
     @Override
+    @Transactional(readOnly = true)
     public TestPaperDTO find(Long id) {
-        return TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaperRepository
+        TestPaper testPaper = testPaperRepository
                 .findById(id)
-                .orElseThrow(()->new ResourceNotFoundException("No such test paper with id "+id)));
+                .orElseThrow(()->new ResourceNotFoundException("No such test paper with id "+id));
+        return TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaperRepository.fetchQuestions(testPaper));
     }
 
     /**
@@ -103,6 +110,7 @@ public class TestPaperServiceImpl implements TestPaperService {
      * @return
      */
     @Override
+    @Transactional(readOnly = true)
     public List<TestPaperDTO> findAll(Pageable pageable, Long userId) {
 
         // If userId is not null, fetch by currentUser
@@ -112,13 +120,13 @@ public class TestPaperServiceImpl implements TestPaperService {
 
             return testPaperRepository
                     .findAllByUser(pageable, user)
-                    .map(testPaper -> TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaper))
+                    .map(testPaper -> TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaperRepository.fetchQuestions(testPaper)))
                     .toList();
         }
 
         return testPaperRepository
                 .findAll(pageable)
-                .map(testPaper -> TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaper))
+                .map(testPaper -> TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaperRepository.fetchQuestions(testPaper)))
                 .toList();
     }
 
@@ -152,10 +160,11 @@ public class TestPaperServiceImpl implements TestPaperService {
      */
     @Override
     public long count(Long userId) {
+        String table = TotalCountService.tableOf(TestPaper.class);
         if(userId != null){
-            return testPaperRepository.countByUserId(userId);
+            return totalCountService.count(table, "user=" + userId, () -> testPaperRepository.countByUserId(userId));
         }
-        return testPaperRepository.count();
+        return totalCountService.countAll(table, testPaperRepository::count);
     }
 
     /**
@@ -164,6 +173,7 @@ public class TestPaperServiceImpl implements TestPaperService {
      * @return
      */
     @Override
+    @Transactional(readOnly = true)
     public Page<TestPaperDTO> findAllByCurrentCompany(Pageable pageable) {
         return testPaperRepository
                 .findAllByUser(pageable, getCurrentUser())
@@ -203,6 +213,7 @@ public class TestPaperServiceImpl implements TestPaperService {
             }
         }
         testPaperRepository.save(testPaper);
+        entityCacheService.evictQuestions(testPaperId);
 
     }
 
@@ -221,9 +232,10 @@ public class TestPaperServiceImpl implements TestPaperService {
      * @return
      */
     private TestPaperDTO matTestPaperToTestPaperDTO(TestPaper testPaper) {
-        TestPaperDTO testPaperDTO = TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaper);
+        TestPaperDTO testPaperDTO = TestPaperMapper.INSTANCE.mapTestPaperToTestPaperDTO(testPaperRepository.fetchQuestions(testPaper));
         JobResponse jobResponse = jobService.find(testPaper.getJob().getId());
         testPaperDTO.setJob(jobResponse);
         return testPaperDTO;
     }
+
 }
@@ -0,0 +1,86 @@
+package com.pengyu.magnet.service.cache;
+
+import com.pengyu.magnet.domain.assessment.TestPaper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Second-level cache of read-mostly entities: jobs, companies, test papers with questions
+ * and options, and job insights with skills.
+ * Hibernate keeps the cache current for writes through the entity manager; this service
+ * evicts what it can't see, like questions saved without their paper, and reports hits and misses.
+ */
+@Service
+public class EntityCacheService {
+
+    private static final String PAPER_QUESTIONS = TestPaper.class.getName() + ".questionList";
+
+    private final SessionFactory sessionFactory;
+
+    public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Evict the cached question list of a paper, after the running transaction completes if there is one.
+     * Needed when questions are saved or deleted on their own, the inverse list is not updated then.
+     * @param paperId
+     */
+    public void evictQuestions(Long paperId) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictCollectionData(PAPER_QUESTIONS, paperId);
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictCollectionData(PAPER_QUESTIONS, paperId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evict all cached entities, collections and queries
+     */
+    public void evictAll() {
+        sessionFactory.getCache().evictAll();
+    }
+
+    /**
+     * Hits, misses and puts of every cache region and of the query cache
+     * @return
+     */
+    public Map<String, Map<String, Long>> stats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Map<String, Long>> stats = new TreeMap<>();
+        for(String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            stats.put(region, counts(regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(), regionStatistics.getElementCountInMemory()));
+        }
+        stats.put("queries", counts(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(), -1));
+        return stats;
+    }
+
+    private static Map<String, Long> counts(long hits, long misses, long puts, long size) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        if(size >= 0) {
+            counts.put("size", size);
+        }
+        return counts;
+    }
+}
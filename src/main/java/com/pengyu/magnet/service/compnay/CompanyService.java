@@ -14,6 +14,4 @@ public interface CompanyService {
     long count();
 
     CompanyResponse findCurrentCompany();
-
-    List<Long> getCompanyCounts();
 }
@@ -10,6 +10,7 @@ import com.pengyu.magnet.mapper.UserMapper;
 import com.pengyu.magnet.repository.CompanyRepository;
 import com.pengyu.magnet.repository.UserRepository;
 import com.pengyu.magnet.service.compnay.CompanyService;
+import com.pengyu.magnet.service.count.TotalCountService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -30,6 +31,7 @@ import java.util.Optional;
 public class CompanyServiceImpl implements CompanyService {
     private final CompanyRepository companyRepository;
     private final UserRepository userRepository;
+    private final TotalCountService totalCountService;
 
     /**
      * Add or Edit company information
@@ -102,7 +104,7 @@ public class CompanyServiceImpl implements CompanyService {
 
     @Override
     public long count() {
-        return companyRepository.count();
+        return totalCountService.countAll(TotalCountService.tableOf(Company.class), companyRepository::count);
     }
 
     /**
@@ -125,9 +127,4 @@ public class CompanyServiceImpl implements CompanyService {
 
     }
 
-    @Override
-    public List<Long> getCompanyCounts() {
-        return companyRepository.getCompanyCounts();
-    }
-
 }
@@ -1,8 +1,11 @@
 package com.pengyu.magnet.service.compnay;
 
 import com.pengyu.magnet.domain.Job;
+import com.pengyu.magnet.dto.CursorPage;
 import com.pengyu.magnet.dto.JobRequest;
 import com.pengyu.magnet.dto.JobResponse;
+import com.pengyu.magnet.dto.JobSummary;
+import com.pengyu.magnet.utils.KeysetCursor;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
@@ -10,10 +13,11 @@ import java.util.List;
 public interface JobService {
     JobResponse save(JobRequest jobRequest);
     JobResponse find(Long id);
-    List<JobResponse> findAll(Pageable pageable);
+    List<JobSummary> findAll(Pageable pageable);
 
-    List<JobResponse> findAll(Pageable pageable, Long companyId);
-    List<JobResponse> findAll(Pageable pageable, String title_like);
+    List<JobSummary> findAll(Pageable pageable, Long companyId);
+    CursorPage<JobSummary> findAll(KeysetCursor.Request request, Long companyId);
+    List<JobSummary> findAll(Pageable pageable, String title_like);
 
     long count(Long companyId);
     long count();
@@ -24,6 +28,4 @@ public interface JobService {
     List<JobResponse> findAllByCurrentCompany(Pageable pageable);
 
     void delete(Long id);
-
-    List<Long> getJobCounts();
 }
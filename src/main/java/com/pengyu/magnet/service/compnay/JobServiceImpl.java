@@ -3,20 +3,26 @@ package com.pengyu.magnet.service.compnay;
 import com.pengyu.magnet.domain.Company;
 import com.pengyu.magnet.domain.Job;
 import com.pengyu.magnet.domain.User;
+import com.pengyu.magnet.dto.CursorPage;
 import com.pengyu.magnet.dto.JobRequest;
 import com.pengyu.magnet.dto.JobResponse;
+import com.pengyu.magnet.dto.JobSummary;
 import com.pengyu.magnet.exception.ResourceNotFoundException;
 import com.pengyu.magnet.mapper.CompanyMapper;
 import com.pengyu.magnet.mapper.JobMapper;
 import com.pengyu.magnet.repository.CompanyRepository;
 import com.pengyu.magnet.repository.JobRepository;
+import com.pengyu.magnet.repository.KeysetRepository;
 import com.pengyu.magnet.repository.UserRepository;
 import com.pengyu.magnet.service.ai.AsyncTaskService;
+import com.pengyu.magnet.utils.KeysetCursor;
+import com.pengyu.magnet.service.count.TotalCountService;
+import com.pengyu.magnet.service.search.JobIndexListener;
 import lombok.AllArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -28,8 +34,13 @@ import java.util.List;
 @AllArgsConstructor
 public class JobServiceImpl implements JobService {
     private final JobRepository jobRepository;
+    private final TotalCountService totalCountService;
     private final UserRepository userRepository;
     private final CompanyRepository companyRepository;
+    private final KeysetRepository keysetRepository;
+    private final JobIndexListener jobIndexListener;
+
+    private static final String JOB_TABLE = TotalCountService.tableOf(Job.class);
 
     private final AsyncTaskService asynTaskService;
 
@@ -65,6 +76,7 @@ public class JobServiceImpl implements JobService {
 
         // save
         job = jobRepository.save(job);
+        jobIndexListener.update(job);
 
         // Async Task: AI extract Resume Insights
         Job finalJob = job;
@@ -90,46 +102,50 @@ public class JobServiceImpl implements JobService {
     }
 
     /**
-     * Find Jobs by pageable
+     * Find list rows of jobs, deleted jobs are left out
      * @param pageable
      * @return
      */
     @Override
-    public List<JobResponse> findAll(Pageable pageable) {
-        Page<Job> jobs = jobRepository.findAll(pageable);
-        return jobs.map(job -> {
-            // map job to dto
-            JobResponse jobResponse = mapToJobResponse(job);
-            return jobResponse;
-        }).toList();
+    public List<JobSummary> findAll(Pageable pageable) {
+        return jobRepository.findSummaries(pageable);
     }
 
     /**
-     * Find companies by companyId
+     * Find list rows of jobs by companyId
      * @param pageable
      * @param companyId
      * @return
      */
     @Override
-    public List<JobResponse> findAll(Pageable pageable, Long companyId) {
-        Page<Job> jobs;
-
+    public List<JobSummary> findAll(Pageable pageable, Long companyId) {
+        // If comapnyId is not null, find jobs of this company
         if(companyId != null) {
-
-            Company company = companyRepository.findById(companyId).orElseThrow(() -> new ResourceNotFoundException("No such company found with id " + companyId));
-            jobs = jobRepository.findAllByCompany(pageable, company);
-            return jobs.map(job -> {
-                // map job to dto
-                JobResponse jobResponse = mapToJobResponse(job);
-                return jobResponse;
-            }).toList();
+            if(!companyRepository.existsById(companyId)) {
+                throw new ResourceNotFoundException("No such company found with id " + companyId);
+            }
+            return jobRepository.findSummariesByCompanyId(pageable, companyId);
         }
+        return findAll(pageable);
+    }
 
-        // If comapnyId is not null, find jobs of this company
-        else
-            return findAll(pageable);
-
-
+    /**
+     * Find a keyset page of jobs, filtered like findAll(pageable, companyId)
+     * @param request
+     * @param companyId
+     * @return
+     */
+    @Override
+    public CursorPage<JobSummary> findAll(KeysetCursor.Request request, Long companyId) {
+        Specification<Job> filter;
+        if(companyId != null) {
+            filter = (root, query, cb) -> cb.and(
+                    cb.equal(root.get("company").get("id"), companyId),
+                    root.get("status").in(Job.Status.ACTIVE, Job.Status.PAUSED));
+        } else {
+            filter = (root, query, cb) -> cb.notEqual(root.get("status"), Job.Status.DELETED);
+        }
+        return keysetRepository.find(Job.class, filter, request, "company").map(JobServiceImpl::mapToJobSummary);
     }
 
     /**
@@ -139,24 +155,24 @@ public class JobServiceImpl implements JobService {
      * @return
      */
     @Override
-    public List<JobResponse> findAll(Pageable pageable, String title_like) {
-        Page<Job> jobs;
-
+    public List<JobSummary> findAll(Pageable pageable, String title_like) {
         if(StringUtils.isBlank(title_like))
             return findAll(pageable);
-            // If comapnyId is not null, find jobs of this company
-        else
-            title_like = "%"+title_like+"%";
-            jobs = jobRepository.findAllByTitleLike(pageable, title_like);
-
-        return jobs.map(job -> {
-            JobResponse jobResponse = mapToJobResponse(job);
-            return jobResponse;
-        }).toList();
+
+        // Plain title match without the depth cap of the ranked /search
+        return jobRepository.findSummariesByTitleLike(pageable, "%"+title_like+"%");
+    }
+
+    // List row of a job loaded as entity, same columns as the JobSummary queries
+    private static JobSummary mapToJobSummary(Job job) {
+        Company company = job.getCompany();
+        return new JobSummary(job.getId(), job.getTitle(),
+                company == null ? null : company.getId(), company == null ? null : company.getName(),
+                job.getLocation(), job.getSalaryRange(), job.getStatus(), job.getCreatedAt(), job.getExpireAt());
     }
 
     @NotNull
-    private static JobResponse mapToJobResponse(Job job) {
+    public static JobResponse mapToJobResponse(Job job) {
         // map job to dto
         JobResponse jobResponse = JobMapper.INSTANCE.mapJobToJobResponse(job);
         jobResponse.setCompanyData(CompanyMapper.INSTANCE.mapCompanyToCompanyResponse(job.getCompany()));
@@ -172,22 +188,24 @@ public class JobServiceImpl implements JobService {
     @Override
     public long count(Long companyId) {
         if(companyId != null)
-            return jobRepository.countByCompanyId(companyId);
-        return jobRepository.count();
+            return totalCountService.count(JOB_TABLE, "company=" + companyId, () -> jobRepository.countByCompanyId(companyId));
+        // Rows of findAll(pageable)
+        return totalCountService.count(JOB_TABLE, "listed", () -> jobRepository.countByStatusNot(Job.Status.DELETED));
     }
 
     @Override
     public long count() {
-        return jobRepository.count();
+        return totalCountService.countAll(JOB_TABLE, jobRepository::count);
     }
 
     @Override
     public long count(String title) {
         if(StringUtils.isBlank(title)) {
-            return jobRepository.count();
+            return count((Long) null);
         }
-        title = "%"+title+"%";
-        return jobRepository.countByTitleLike(title);
+        String titleLike = "%"+title+"%";
+        return totalCountService.count(JOB_TABLE, "title=" + titleLike,
+                () -> jobRepository.countByTitleLikeAndStatusNot(titleLike, Job.Status.DELETED));
     }
 
     /**
@@ -198,7 +216,7 @@ public class JobServiceImpl implements JobService {
     public long countByCurrentCompany() {
         Company company = findCurrentCompany();
 
-        return jobRepository.countByCompanyId(company.getId());
+        return count(company.getId());
     }
 
     private Company findCurrentCompany() {
@@ -235,11 +253,7 @@ public class JobServiceImpl implements JobService {
                 .orElseThrow(() -> new ResourceNotFoundException("No such job found with id "+id));
         job.setStatus(Job.Status.DELETED);
         jobRepository.save(job);
-    }
-
-    @Override
-    public List<Long> getJobCounts() {
-        return jobRepository.getJobCounts();
+        jobIndexListener.remove(id);
     }
 
 
@@ -0,0 +1,25 @@
+package com.pengyu.magnet.service.count;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener, drops the cached total counts of the table of every written entity.
+ * Updates count too, filtered counts like title search or company jobs depend on updated columns.
+ */
+@Component
+@RequiredArgsConstructor
+public class CountInvalidationListener {
+
+    private final TotalCountService totalCountService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        totalCountService.invalidate(entity.getClass());
+    }
+}
@@ -0,0 +1,157 @@
+package com.pengyu.magnet.service.count;
+
+import jakarta.persistence.Table;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Total counts for the x-total-count header.
+ * Counts are cached per table and query signature for a short TTL and dropped
+ * as soon as a row of the table is written. Whole table counts can optionally
+ * come from the InnoDB table statistics instead of a full index scan.
+ */
+@Slf4j
+@Service
+public class TotalCountService {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private static final String APPROXIMATE_SQL =
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+    private record Entry(long count, long expiresAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlNanos;
+    private final boolean approximate;
+    private final long approximateMinRows;
+
+    // Key is "table|signature"
+    private final Map<String, Entry> counts = new ConcurrentHashMap<>();
+    // Bumped on every write, a count computed across a write is not cached
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public TotalCountService(JdbcTemplate jdbcTemplate,
+                             @Value("${magnet.count.ttl:PT30S}") Duration ttl,
+                             @Value("${magnet.count.approximate:false}") boolean approximate,
+                             @Value("${magnet.count.approximate-min-rows:100000}") long approximateMinRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlNanos = ttl.toNanos();
+        this.approximate = approximate;
+        this.approximateMinRows = approximateMinRows;
+    }
+
+    /**
+     * Cached count of a query
+     * @param table table the query counts, writes to it drop the cached count
+     * @param signature query and parameters, e.g. "company=12"
+     * @param exact the count query
+     * @return
+     */
+    public long count(String table, String signature, LongSupplier exact) {
+        String key = table + "|" + signature;
+        long now = System.nanoTime();
+        Entry entry = counts.get(key);
+        if(entry != null && now - entry.expiresAt() < 0) {
+            return entry.count();
+        }
+
+        AtomicLong generation = generation(table);
+        long before = generation.get();
+        long count = exact.getAsLong();
+        if(generation.get() == before) {
+            // Simple bound, signatures with free text can pile up
+            if(counts.size() >= MAX_ENTRIES) {
+                counts.clear();
+            }
+            counts.put(key, new Entry(count, now + ttlNanos));
+        }
+        return count;
+    }
+
+    /**
+     * Count of a whole table, estimated from table statistics if approximate counts are enabled
+     * and the table is big enough for the estimate to be cheaper than it is wrong
+     * @param table
+     * @param exact the count query
+     * @return
+     */
+    public long countAll(String table, LongSupplier exact) {
+        return count(table, "*", () -> {
+            if(approximate) {
+                Long estimate = estimate(table);
+                if(estimate != null && estimate >= approximateMinRows) {
+                    return estimate;
+                }
+            }
+            return exact.getAsLong();
+        });
+    }
+
+    /**
+     * Drop cached counts of a table, after the running transaction commits if there is one
+     * @param table
+     */
+    public void invalidate(String table) {
+        generation(table).incrementAndGet();
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop(table);
+                }
+            });
+        } else {
+            drop(table);
+        }
+    }
+
+    /**
+     * Drop cached counts of the table of an entity
+     * @param entityClass
+     */
+    public void invalidate(Class<?> entityClass) {
+        invalidate(tableOf(entityClass));
+    }
+
+    /**
+     * Table name of an entity, the name of @Table or the lower case class name
+     */
+    public static String tableOf(Class<?> entityClass) {
+        Table table = entityClass.getAnnotation(Table.class);
+        if(table != null && !table.name().isEmpty()) {
+            return table.name();
+        }
+        return entityClass.getSimpleName().toLowerCase();
+    }
+
+    private void drop(String table) {
+        generation(table).incrementAndGet();
+        String prefix = table + "|";
+        counts.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private AtomicLong generation(String table) {
+        return generations.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    private Long estimate(String table) {
+        try {
+            return jdbcTemplate.queryForObject(APPROXIMATE_SQL, Long.class, table);
+        } catch (RuntimeException e) {
+            log.warn("No table statistics for {}: {}", table, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.config.CONSTANTS;
+import com.pengyu.magnet.domain.Resume;
+import com.pengyu.magnet.domain.match.BulkMatchTask;
+import com.pengyu.magnet.domain.match.JobInsights;
+import com.pengyu.magnet.domain.match.MatchingIndex;
+import com.pengyu.magnet.domain.match.Skill;
+import com.pengyu.magnet.exception.ApiException;
+import com.pengyu.magnet.exception.ResourceNotFoundException;
+import com.pengyu.magnet.repository.JobRepository;
+import com.pengyu.magnet.repository.match.BulkMatchTaskRepository;
+import com.pengyu.magnet.repository.match.JobRequirementsRepository;
+import com.pengyu.magnet.repository.match.ResumeInsightsRepository;
+import com.pengyu.magnet.service.count.TotalCountService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scores one job against the whole active resume pool:
+ * skips resumes below the job's hard constraints with CandidatePreFilter,
+ * streams the remaining ResumeInsights in keyset pages, scores every page in parallel with fork-join
+ * and upserts MatchingIndex rows with JDBC batches.
+ * Tasks and their progress are stored in match_bulk_task after every page, any instance can report them.
+ */
+@Slf4j
+@Service
+public class BulkMatchService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO match_matching_index (job_id, resume_id, degree, major, experience, skill, language, overall) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE degree = VALUES(degree), major = VALUES(major), experience = VALUES(experience), " +
+            "skill = VALUES(skill), language = VALUES(language), overall = VALUES(overall)";
+
+    // Pairs scored by one fork-join leaf
+    private static final int LEAF_SIZE = 256;
+
+    private final JobRepository jobRepository;
+    private final JobRequirementsRepository jobRequirementsRepository;
+    private final ResumeInsightsRepository resumeInsightsRepository;
+    private final MatchScorer matchScorer;
+    private final CandidatePreFilter candidatePreFilter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TotalCountService totalCountService;
+    private final BulkMatchTaskRepository bulkMatchTaskRepository;
+    private final int pageSize;
+    private final ForkJoinPool pool;
+
+    public BulkMatchService(JobRepository jobRepository,
+                            JobRequirementsRepository jobRequirementsRepository,
+                            ResumeInsightsRepository resumeInsightsRepository,
+                            MatchScorer matchScorer,
+                            CandidatePreFilter candidatePreFilter,
+                            JdbcTemplate jdbcTemplate,
+                            TotalCountService totalCountService,
+                            BulkMatchTaskRepository bulkMatchTaskRepository,
+                            @Value("${magnet.match.bulk.page-size:2000}") int pageSize,
+                            @Value("${magnet.match.bulk.parallelism:0}") int parallelism) {
+        this.jobRepository = jobRepository;
+        this.jobRequirementsRepository = jobRequirementsRepository;
+        this.resumeInsightsRepository = resumeInsightsRepository;
+        this.matchScorer = matchScorer;
+        this.candidatePreFilter = candidatePreFilter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.totalCountService = totalCountService;
+        this.bulkMatchTaskRepository = bulkMatchTaskRepository;
+        this.pageSize = pageSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Create a task to score a job against all resumes, run it with run(taskId, jobId)
+     * @param jobId
+     * @return
+     */
+    public BulkMatchTask createTask(Long jobId) {
+        // Forget tasks finished more than a day ago
+        bulkMatchTaskRepository.deleteFinishedBefore(LocalDateTime.now().minusDays(1));
+
+        return bulkMatchTaskRepository.save(new BulkMatchTask(UUID.randomUUID().toString(), jobId));
+    }
+
+    /**
+     * Find task by id, only admins and the company of its job may read it
+     * @param taskId
+     * @return
+     */
+    public BulkMatchTask findTask(String taskId) {
+        BulkMatchTask task = bulkMatchTaskRepository
+                .findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("No such match task found with id " + taskId));
+        checkPermission(task.getJobId());
+        return task;
+    }
+
+    /**
+     * Check if the current user is ADMIN or the company of a job
+     * @param jobId
+     */
+    public void checkPermission(Long jobId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> ("ROLE_" + CONSTANTS.ROLE_ADMIN).equals(authority.getAuthority()));
+        if(!admin && !jobRepository.existsByIdAndCompanyUserEmail(jobId, authentication.getName())) {
+            throw new AccessDeniedException("You don't have the permission to match resumes of this job");
+        }
+    }
+
+    /**
+     * Run a task on the calling thread, the task is created again if it was deleted
+     * @param taskId
+     * @param jobId
+     */
+    public void run(String taskId, Long jobId) {
+        BulkMatchTask task = bulkMatchTaskRepository
+                .findById(taskId)
+                .orElseGet(() -> new BulkMatchTask(taskId, jobId));
+        try {
+            scoreAll(task);
+            task.finish();
+            bulkMatchTaskRepository.save(task);
+        } catch (RuntimeException e) {
+            log.error("Bulk match task {} of job {} failed", taskId, jobId, e);
+            task.fail(e.getMessage());
+            bulkMatchTaskRepository.save(task);
+            throw e;
+        }
+    }
+
+    private void scoreAll(BulkMatchTask task) {
+        Long jobId = task.getJobId();
+        JobInsights jobInsights = jobRequirementsRepository
+                .findByJobId(jobId)
+                .orElseThrow(() -> new ApiException("There is no JobInsights extract for this job"));
+        MatchFeatures job = MatchFeatures.of(jobInsights);
+        WeightProfile weights = matchScorer.profile(null);
+        CandidatePreFilter.Minimums minimums = candidatePreFilter.minimums(jobInsights);
+
+        long viable = resumeInsightsRepository.countViable(Resume.Status.DELETED,
+                minimums.degreeLevel(), minimums.languageLevel(), minimums.experienceMonths());
+        // Pruned resumes are only not scored, their existing scores stay
+        task.start(viable, resumeInsightsRepository.countWithStatusNot(Resume.Status.DELETED) - viable);
+        bulkMatchTaskRepository.save(task);
+
+        long afterId = 0;
+        while (true) {
+            List<ResumeInsightsRepository.InsightsRow> rows = resumeInsightsRepository
+                    .findRowsAfter(afterId, Resume.Status.DELETED, minimums.degreeLevel(), minimums.languageLevel(),
+                            minimums.experienceMonths(), PageRequest.of(0, pageSize));
+            if(rows.isEmpty()) {
+                break;
+            }
+            afterId = rows.get(rows.size() - 1).getId();
+
+            long[] resumeIds = new long[rows.size()];
+            MatchFeatures[] resumes = features(rows, resumeIds);
+
+            // Scores of pair i are at [i * SCORE_SIZE, (i + 1) * SCORE_SIZE)
+            float[] scores = new float[rows.size() * MatchScorer.SCORE_SIZE];
+            pool.invoke(new ScoreAction(job, resumes, weights, scores, 0, resumes.length));
+            task.addScored(resumes.length);
+
+            write(jobId, resumeIds, scores);
+            task.addWritten(resumes.length);
+            bulkMatchTaskRepository.save(task);
+        }
+    }
+
+    /**
+     * Build MatchFeatures of a page, skills are loaded with one query
+     */
+    private MatchFeatures[] features(List<ResumeInsightsRepository.InsightsRow> rows, long[] resumeIds) {
+        List<Long> insightsIds = new ArrayList<>(rows.size());
+        rows.forEach(row -> insightsIds.add(row.getId()));
+
+        Map<Long, List<Skill>> skillsByInsights = new HashMap<>();
+        for(ResumeInsightsRepository.SkillRow row : resumeInsightsRepository.findSkillRows(insightsIds)) {
+            Skill skill = new Skill();
+            skill.setSkill(row.getSkill());
+            skill.setSkillId(row.getSkillId());
+            skill.setWeight(row.getWeight() == null ? 0 : row.getWeight());
+            skillsByInsights.computeIfAbsent(row.getInsightsId(), id -> new ArrayList<>()).add(skill);
+        }
+
+        MatchFeatures[] features = new MatchFeatures[rows.size()];
+        for(int i = 0; i < rows.size(); i++) {
+            ResumeInsightsRepository.InsightsRow row = rows.get(i);
+            resumeIds[i] = row.getResumeId();
+            features[i] = MatchFeatures.of(row.getDegree(), row.getMajor(), row.getLanguage(),
+                    MatchFeatures.experienceMonths(row.getExperienceMonths(), row.getExperience()),
+                    skillsByInsights.get(row.getId()));
+        }
+        return features;
+    }
+
+    private void write(Long jobId, long[] resumeIds, float[] scores) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int offset = i * MatchScorer.SCORE_SIZE;
+                ps.setLong(1, jobId);
+                ps.setLong(2, resumeIds[i]);
+                ps.setFloat(3, scores[offset + MatchScorer.DEGREE]);
+                ps.setFloat(4, scores[offset + MatchScorer.MAJOR]);
+                ps.setFloat(5, scores[offset + MatchScorer.EXPERIENCE]);
+                ps.setFloat(6, scores[offset + MatchScorer.SKILL]);
+                ps.setFloat(7, scores[offset + MatchScorer.LANGUAGE]);
+                ps.setFloat(8, scores[offset + MatchScorer.OVERALL]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return resumeIds.length;
+            }
+        });
+        // Plain JDBC writes bypass the entity listeners
+        totalCountService.invalidate(MatchingIndex.class);
+    }
+
+    /**
+     * Scores a range of resumes, split in halves down to LEAF_SIZE
+     */
+    private class ScoreAction extends RecursiveAction {
+        private final MatchFeatures job;
+        private final MatchFeatures[] resumes;
+        private final WeightProfile weights;
+        private final float[] scores;
+        private final int from;
+        private final int to;
+
+        ScoreAction(MatchFeatures job, MatchFeatures[] resumes, WeightProfile weights, float[] scores, int from, int to) {
+            this.job = job;
+            this.resumes = resumes;
+            this.weights = weights;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= LEAF_SIZE) {
+                float[] out = new float[MatchScorer.SCORE_SIZE];
+                for(int i = from; i < to; i++) {
+                    matchScorer.score(job, resumes[i], weights, out);
+                    System.arraycopy(out, 0, scores, i * MatchScorer.SCORE_SIZE, MatchScorer.SCORE_SIZE);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreAction(job, resumes, weights, scores, from, middle),
+                    new ScoreAction(job, resumes, weights, scores, middle, to));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.match.JobInsights;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hard constraints of a job on degree, language and experience.
+ * Resumes clearly below them are pruned by an indexed query, they are not scored and keep the scores they have.
+ * A requirement the job does not state prunes nothing, neither does a level the resume does not state.
+ */
+@Component
+public class CandidatePreFilter {
+
+    /**
+     * Lowest normalized levels a resume needs to be scored
+     * @param degreeLevel
+     * @param languageLevel
+     * @param experienceMonths
+     */
+    public record Minimums(int degreeLevel, int languageLevel, int experienceMonths) {
+        public static final Minimums NONE = new Minimums(0, 0, 0);
+    }
+
+    private final boolean enabled;
+    // Levels a resume may be below the required level
+    private final int degreeSlack;
+    private final int languageSlack;
+    // Share of the required experience a resume needs
+    private final float experienceRatio;
+
+    public CandidatePreFilter(@Value("${magnet.match.prefilter.enabled:true}") boolean enabled,
+                              @Value("${magnet.match.prefilter.degree-slack:1}") int degreeSlack,
+                              @Value("${magnet.match.prefilter.language-slack:1}") int languageSlack,
+                              @Value("${magnet.match.prefilter.experience-ratio:0.5}") float experienceRatio) {
+        this.enabled = enabled;
+        this.degreeSlack = degreeSlack;
+        this.languageSlack = languageSlack;
+        this.experienceRatio = experienceRatio;
+    }
+
+    /**
+     * Minimums of a job
+     * @param jobInsights
+     * @return Minimums.NONE if pre-filtering is disabled
+     */
+    public Minimums minimums(JobInsights jobInsights) {
+        if(!enabled) {
+            return Minimums.NONE;
+        }
+        // Levels the job does not state are null, the text is normalized here for insights saved before the levels existed
+        int degree = jobInsights.getDegreeLevel() != null
+                ? jobInsights.getDegreeLevel() : InsightsNormalizer.requiredDegreeLevel(jobInsights.getDegree());
+        int language = jobInsights.getLanguageLevel() != null
+                ? jobInsights.getLanguageLevel() : InsightsNormalizer.languageLevel(jobInsights.getLanguage());
+        int experience = jobInsights.getExperienceMonths() != null
+                ? jobInsights.getExperienceMonths() : InsightsNormalizer.experienceMonths(jobInsights.getExperience());
+        return new Minimums(
+                Math.max(degree - degreeSlack, 0),
+                Math.max(language - languageSlack, 0),
+                (int) Math.floor(experience * experienceRatio));
+    }
+}
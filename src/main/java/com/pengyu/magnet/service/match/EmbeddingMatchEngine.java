@@ -0,0 +1,227 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.match.JobInsights;
+import com.pengyu.magnet.domain.match.MatchingIndex;
+import com.pengyu.magnet.domain.match.ResumeInsights;
+import com.pengyu.magnet.domain.match.Skill;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local match engine, embeds JobInsights and ResumeInsights with the bundled
+ * all-MiniLM-L6-v2 model and scores a job/resume pair on CPU
+ */
+@Component
+@RequiredArgsConstructor
+public class EmbeddingMatchEngine {
+
+    // Cosine similarity at or below SIMILARITY_NONE counts as no match, at or above SIMILARITY_FULL as a full match
+    private static final float SIMILARITY_NONE = 0.35f;
+    private static final float SIMILARITY_FULL = 0.85f;
+
+    private static final int MAX_CACHED_EMBEDDINGS = 50_000;
+
+    private final EmbeddingModel embeddingModel;
+
+    // Skills, degrees and majors repeat a lot, so embeddings are cached by normalized text
+    private final Map<String, float[]> embeddingCache = new ConcurrentHashMap<>();
+
+    /**
+     * Embed a text into a unit vector, null if the text is blank
+     * @param text
+     * @return
+     */
+    public float[] embed(String text) {
+        if(StringUtils.isBlank(text)) {
+            return null;
+        }
+        String key = text.trim().toLowerCase();
+        float[] vector = embeddingCache.get(key);
+        if(vector != null) {
+            return vector;
+        }
+
+        vector = normalize(embeddingModel.embed(key).content().vector());
+
+        // Simple bound, the working set of distinct skills is small
+        if(embeddingCache.size() >= MAX_CACHED_EMBEDDINGS) {
+            embeddingCache.clear();
+        }
+        embeddingCache.put(key, vector);
+        return vector;
+    }
+
+    /**
+     * Embed a whole profile, the weighted average of skills and major, used for candidate retrieval
+     * @param major
+     * @param skills
+     * @return unit vector, null if there is nothing to embed
+     */
+    public float[] embedProfile(String major, List<Skill> skills) {
+        float[] profile = null;
+        if(skills != null) {
+            for(Skill skill : skills) {
+                profile = accumulate(profile, embed(skill.getSkill()), Math.max(skill.getWeight(), 1));
+            }
+        }
+        // Major counts as much as a strong skill
+        profile = accumulate(profile, embed(major), 3);
+        return profile == null ? null : normalize(profile);
+    }
+
+    private static float[] accumulate(float[] sum, float[] vector, float weight) {
+        if(vector == null) {
+            return sum;
+        }
+        if(sum == null) {
+            sum = new float[vector.length];
+        }
+        for(int i = 0; i < vector.length; i++) {
+            sum[i] += vector[i] * weight;
+        }
+        return sum;
+    }
+
+    /**
+     * Score a job and a resume, the result is not bound to job and resume yet
+     * @param jobInsights
+     * @param resumeInsights
+     * @return
+     */
+    public MatchingIndex score(JobInsights jobInsights, ResumeInsights resumeInsights) {
+        MatchingIndex matchingIndex = new MatchingIndex();
+        matchingIndex.setDegree(scoreField(jobInsights.getDegree(), resumeInsights.getDegree()));
+        matchingIndex.setMajor(scoreField(jobInsights.getMajor(), resumeInsights.getMajor()));
+        matchingIndex.setLanguage(scoreField(jobInsights.getLanguage(), resumeInsights.getLanguage()));
+        matchingIndex.setExperience(scoreExperience(jobInsights.getExperience(), resumeInsights.getExperience()));
+        matchingIndex.setSkill(scoreSkills(jobInsights.getSkills(), resumeInsights.getSkills()));
+
+        // Same formula as the AI matching prompt
+        float overall = (matchingIndex.getDegree() + matchingIndex.getMajor() + matchingIndex.getLanguage()) / 3 * 0.2f
+                + matchingIndex.getSkill() * 0.4f
+                + matchingIndex.getExperience() * 0.4f;
+        matchingIndex.setOverall(overall);
+        return matchingIndex;
+    }
+
+    /**
+     * Field match index, 1 if the job has no requirement
+     */
+    private float scoreField(String required, String actual) {
+        float[] requiredVector = embed(required);
+        if(requiredVector == null) {
+            return 1;
+        }
+        float[] actualVector = embed(actual);
+        if(actualVector == null) {
+            return 0;
+        }
+        return ramp(dot(requiredVector, actualVector));
+    }
+
+    /**
+     * Skill match index, weighted by the weight of every job skill
+     */
+    private float scoreSkills(List<Skill> jobSkills, List<Skill> resumeSkills) {
+        if(jobSkills == null || jobSkills.isEmpty()) {
+            return 1;
+        }
+        if(resumeSkills == null || resumeSkills.isEmpty()) {
+            return 0;
+        }
+
+        float[][] resumeVectors = new float[resumeSkills.size()][];
+        for(int i = 0; i < resumeSkills.size(); i++) {
+            resumeVectors[i] = embed(resumeSkills.get(i).getSkill());
+        }
+
+        float matched = 0;
+        float total = 0;
+        for(Skill jobSkill : jobSkills) {
+            float[] jobVector = embed(jobSkill.getSkill());
+            if(jobVector == null) {
+                continue;
+            }
+            // Skills without weight count as 1
+            int weight = Math.max(jobSkill.getWeight(), 1);
+            float best = 0;
+            for(float[] resumeVector : resumeVectors) {
+                if(resumeVector != null) {
+                    best = Math.max(best, dot(jobVector, resumeVector));
+                }
+            }
+            matched += weight * ramp(best);
+            total += weight;
+        }
+        return total == 0 ? 1 : matched / total;
+    }
+
+    /**
+     * Experience match index, ratio between years of experience and required years
+     */
+    private float scoreExperience(String required, String actual) {
+        float requiredYears = parseYears(required);
+        if(requiredYears <= 0) {
+            return 1;
+        }
+        return Math.min(parseYears(actual) / requiredYears, 1);
+    }
+
+    /**
+     * Take the first number of a text like "4+ years", 0 if there is none
+     */
+    private static float parseYears(String text) {
+        if(text == null) {
+            return 0;
+        }
+        float value = 0;
+        boolean found = false;
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(Character.isDigit(c)) {
+                value = value * 10 + (c - '0');
+                found = true;
+            } else if(found) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    private static float ramp(float similarity) {
+        if(similarity <= SIMILARITY_NONE) {
+            return 0;
+        }
+        if(similarity >= SIMILARITY_FULL) {
+            return 1;
+        }
+        return (similarity - SIMILARITY_NONE) / (SIMILARITY_FULL - SIMILARITY_NONE);
+    }
+
+    /**
+     * Dot product, equals cosine similarity for unit vectors
+     */
+    public static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for(int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static float[] normalize(float[] vector) {
+        float norm = (float) Math.sqrt(dot(vector, vector));
+        if(norm > 0) {
+            for(int i = 0; i < vector.length; i++) {
+                vector[i] /= norm;
+            }
+        }
+        return vector;
+    }
+}
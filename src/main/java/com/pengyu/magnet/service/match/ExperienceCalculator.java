@@ -0,0 +1,87 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.Resume;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Months of work experience from the start and end dates of Resume.Experience.
+ * Overlapping jobs are merged first, so two jobs held at the same time count once.
+ */
+public final class ExperienceCalculator {
+
+    private static final double DAYS_PER_MONTH = 365.2425 / 12;
+
+    private ExperienceCalculator() {
+    }
+
+    /**
+     * Total months of experience
+     * @param experiences
+     * @param today end of jobs without end date, later end dates are cut here
+     * @return null if no experience has a start date, the experience is unknown then
+     */
+    public static Integer totalMonths(Collection<Resume.Experience> experiences, LocalDate today) {
+        List<LocalDate[]> intervals = new ArrayList<>();
+        if(experiences != null) {
+            for(Resume.Experience experience : experiences) {
+                addInterval(intervals, experience, today);
+            }
+        }
+        return intervals.isEmpty() ? null : months(intervals);
+    }
+
+    /**
+     * Text for ResumeInsights.experience, for example "4 years 3 months"
+     * @param months
+     * @return
+     */
+    public static String describe(int months) {
+        int years = months / 12;
+        int rest = months % 12;
+        if(years == 0) {
+            return rest + (rest == 1 ? " month" : " months");
+        }
+        String text = years + (years == 1 ? " year" : " years");
+        return rest == 0 ? text : text + " " + rest + (rest == 1 ? " month" : " months");
+    }
+
+    private static void addInterval(List<LocalDate[]> intervals, Resume.Experience experience, LocalDate today) {
+        LocalDate start = experience.getStartDate();
+        if(start == null) {
+            return;
+        }
+        LocalDate end = experience.getEndDate() == null || experience.getEndDate().isAfter(today)
+                ? today : experience.getEndDate();
+        if(end.isAfter(start)) {
+            intervals.add(new LocalDate[]{start, end});
+        }
+    }
+
+    /**
+     * Merge overlapping intervals and add up their length
+     */
+    private static int months(List<LocalDate[]> intervals) {
+        intervals.sort(Comparator.comparing(interval -> interval[0]));
+        long days = 0;
+        LocalDate start = intervals.get(0)[0];
+        LocalDate end = intervals.get(0)[1];
+        for(int i = 1; i < intervals.size(); i++) {
+            LocalDate[] interval = intervals.get(i);
+            if(interval[0].isAfter(end)) {
+                days += ChronoUnit.DAYS.between(start, end);
+                start = interval[0];
+                end = interval[1];
+            } else if(interval[1].isAfter(end)) {
+                end = interval[1];
+            }
+        }
+        days += ChronoUnit.DAYS.between(start, end);
+        return (int) Math.round(days / DAYS_PER_MONTH);
+    }
+}
@@ -0,0 +1,68 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.Resume;
+import com.pengyu.magnet.repository.ResumeExperienceRepository;
+import com.pengyu.magnet.repository.match.ResumeInsightsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ResumeInsights.experienceMonths is calculated when the insights are extracted, counting jobs without
+ * end date up to that day. Once a day the months of resumes with such jobs are calculated again,
+ * so CandidatePreFilter and MatchScorer do not use months that stay behind.
+ * Updates are idempotent, every node may run the refresh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExperienceRefreshService {
+
+    private static final int PAGE = 1000;
+
+    // Jobs that ended since the last refresh are counted up to their end, missed runs included
+    private static final int ENDED_WITHIN_DAYS = 31;
+
+    private final ResumeExperienceRepository resumeExperienceRepository;
+    private final ResumeInsightsRepository resumeInsightsRepository;
+
+    @Scheduled(cron = "${magnet.match.experience-refresh-cron:0 30 3 * * *}")
+    public void refresh() {
+        LocalDate today = LocalDate.now();
+        LocalDate since = today.minusDays(ENDED_WITHIN_DAYS);
+        long updated = 0;
+        long afterId = 0;
+        while(true) {
+            List<Long> resumeIds = resumeExperienceRepository
+                    .findOngoingResumeIdsAfter(afterId, since, PageRequest.of(0, PAGE));
+            if(resumeIds.isEmpty()) {
+                break;
+            }
+            Map<Long, List<Resume.Experience>> experiencesByResume = new HashMap<>();
+            for(ResumeExperienceRepository.ExperienceDates dates : resumeExperienceRepository.findDatesByResumeIdIn(resumeIds)) {
+                Resume.Experience experience = new Resume.Experience();
+                experience.setStartDate(dates.getStartDate());
+                experience.setEndDate(dates.getEndDate());
+                experiencesByResume.computeIfAbsent(dates.getResumeId(), id -> new ArrayList<>()).add(experience);
+            }
+            for(Long resumeId : resumeIds) {
+                Integer months = ExperienceCalculator.totalMonths(experiencesByResume.get(resumeId), today);
+                if(months != null) {
+                    updated += resumeInsightsRepository.updateExperience(resumeId, months, ExperienceCalculator.describe(months));
+                }
+            }
+            afterId = resumeIds.get(resumeIds.size() - 1);
+        }
+        if(updated > 0) {
+            log.info("Refreshed months of experience of {} resumes", updated);
+        }
+    }
+}
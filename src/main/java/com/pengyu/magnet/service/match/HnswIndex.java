@@ -0,0 +1,367 @@
+package com.pengyu.magnet.service.match;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory HNSW (Hierarchical Navigable Small World) graph for approximate
+ * nearest neighbour search over unit vectors by cosine similarity.
+ * Vectors are quantized to bytes with a per vector scale to keep 500k+ entries
+ * affordable in heap.
+ * Re-adding or removing a key leaves a tombstone which is never returned but still
+ * used for navigation, the graph is rebuilt from live nodes once tombstones make up
+ * a quarter of it.
+ */
+public class HnswIndex {
+
+    // Rebuild once at least this many nodes and a quarter of the graph are tombstones
+    private static final int COMPACT_MIN = 1000;
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelFactor;
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Long, Integer> nodeByKey = new HashMap<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int deletedCount;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Search hit
+     * @param key
+     * @param similarity cosine similarity
+     */
+    public record Hit(long key, float similarity) {
+    }
+
+    private record Quantized(byte[] values, float scale) {
+    }
+
+    private static final class Node {
+        final long key;
+        final Quantized vector;
+        final int[][] links;
+        final int[] linkCounts;
+        boolean deleted;
+
+        Node(long key, Quantized vector, int level, int m, int maxM0) {
+            this.key = key;
+            this.vector = vector;
+            this.links = new int[level + 1][];
+            this.linkCounts = new int[level + 1];
+            links[0] = new int[maxM0 + 1];
+            for (int l = 1; l <= level; l++) {
+                links[l] = new int[m + 1];
+            }
+        }
+
+        int level() {
+            return links.length - 1;
+        }
+    }
+
+    private record Candidate(int node, float similarity) {
+    }
+
+    public HnswIndex(int m, int efConstruction, int efSearch) {
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levelFactor = 1 / Math.log(m);
+    }
+
+    /**
+     * Add or replace the vector of a key
+     * @param key
+     * @param vector unit vector
+     */
+    public void put(long key, float[] vector) {
+        Quantized quantized = quantize(vector);
+        lock.writeLock().lock();
+        try {
+            markDeleted(key);
+            int level = (int) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * levelFactor);
+            insert(key, quantized, level);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Link a new node into the graph, the write lock must be held
+     */
+    private void insert(long key, Quantized quantized, int level) {
+        int id = nodes.size();
+        Node node = new Node(key, quantized, level, m, maxM0);
+        nodes.add(node);
+        nodeByKey.put(key, id);
+
+        if (entryPoint < 0) {
+            entryPoint = id;
+            maxLevel = level;
+            return;
+        }
+
+        // Greedy descent through the layers above the new node
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(quantized, current, l);
+        }
+
+        // Connect the node on every layer it lives in
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(quantized, current, efConstruction, l);
+            int maxLinks = l == 0 ? maxM0 : m;
+            int count = Math.min(m, candidates.size());
+            for (int i = 0; i < count; i++) {
+                int neighbour = candidates.get(i).node();
+                addLink(node, l, neighbour);
+                addLink(nodes.get(neighbour), l, id);
+                if (nodes.get(neighbour).linkCounts[l] > maxLinks) {
+                    shrinkLinks(neighbour, l, maxLinks);
+                }
+            }
+            current = candidates.get(0).node();
+        }
+
+        if (level > maxLevel) {
+            entryPoint = id;
+            maxLevel = level;
+        }
+    }
+
+    /**
+     * Remove a key from the search results
+     * @param key
+     */
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            markDeleted(key);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate top k most similar keys
+     * @param vector unit vector
+     * @param k
+     * @return hits ordered by similarity desc
+     */
+    public List<Hit> search(float[] vector, int k) {
+        Quantized query = quantize(vector);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+            int current = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                current = greedyClosest(query, current, l);
+            }
+
+            // Replaced nodes are skipped, so look a little wider than k
+            List<Candidate> candidates = searchLayer(query, current, Math.max(efSearch, k * 2), 0);
+            List<Hit> hits = new ArrayList<>(k);
+            for (Candidate candidate : candidates) {
+                Node node = nodes.get(candidate.node());
+                if (!node.deleted) {
+                    hits.add(new Hit(node.key, candidate.similarity()));
+                    if (hits.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of live keys
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of nodes in the graph, live and tombstones
+     */
+    int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void markDeleted(long key) {
+        Integer old = nodeByKey.remove(key);
+        if (old != null) {
+            nodes.get(old).deleted = true;
+            deletedCount++;
+        }
+    }
+
+    /**
+     * Rebuild the graph from live nodes, keeping their vectors and levels
+     */
+    private void compactIfNeeded() {
+        if (deletedCount < COMPACT_MIN || deletedCount * 4L < nodes.size()) {
+            return;
+        }
+        List<Node> live = new ArrayList<>(nodeByKey.size());
+        for (Node node : nodes) {
+            if (!node.deleted) {
+                live.add(node);
+            }
+        }
+        nodes.clear();
+        nodeByKey.clear();
+        entryPoint = -1;
+        maxLevel = -1;
+        deletedCount = 0;
+        for (Node node : live) {
+            insert(node.key, node.vector, node.level());
+        }
+    }
+
+    private int greedyClosest(Quantized query, int start, int level) {
+        int current = start;
+        float best = similarity(query, nodes.get(current).vector);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Node node = nodes.get(current);
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbour = node.links[level][i];
+                float s = similarity(query, nodes.get(neighbour).vector);
+                if (s > best) {
+                    best = s;
+                    current = neighbour;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best first search on one layer
+     * @return up to ef candidates ordered by similarity desc
+     */
+    private List<Candidate> searchLayer(Quantized query, int start, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        // Closest first
+        PriorityQueue<Candidate> frontier =
+                new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity).reversed());
+        // Furthest first, bound to ef
+        PriorityQueue<Candidate> results =
+                new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity));
+
+        Candidate first = new Candidate(start, similarity(query, nodes.get(start).vector));
+        visited.set(start);
+        frontier.add(first);
+        results.add(first);
+
+        while (!frontier.isEmpty()) {
+            Candidate candidate = frontier.poll();
+            if (results.size() >= ef && candidate.similarity() < results.peek().similarity()) {
+                break;
+            }
+            Node node = nodes.get(candidate.node());
+            if (node.level() < level) {
+                continue;
+            }
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbour = node.links[level][i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float s = similarity(query, nodes.get(neighbour).vector);
+                if (results.size() < ef || s > results.peek().similarity()) {
+                    Candidate next = new Candidate(neighbour, s);
+                    frontier.add(next);
+                    results.add(next);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> ordered = new ArrayList<>(results);
+        ordered.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        return ordered;
+    }
+
+    private static void addLink(Node node, int level, int target) {
+        node.links[level][node.linkCounts[level]++] = target;
+    }
+
+    /**
+     * Keep only the closest maxLinks neighbours of a node
+     */
+    private void shrinkLinks(int id, int level, int maxLinks) {
+        Node node = nodes.get(id);
+        int count = node.linkCounts[level];
+        List<Candidate> neighbours = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int neighbour = node.links[level][i];
+            neighbours.add(new Candidate(neighbour, similarity(node.vector, nodes.get(neighbour).vector)));
+        }
+        neighbours.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        for (int i = 0; i < maxLinks; i++) {
+            node.links[level][i] = neighbours.get(i).node();
+        }
+        node.linkCounts[level] = maxLinks;
+    }
+
+    private static Quantized quantize(float[] vector) {
+        float max = 0;
+        for (float v : vector) {
+            max = Math.max(max, Math.abs(v));
+        }
+        float scale = max > 0 ? max / 127f : 1f;
+        byte[] values = new byte[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            values[i] = (byte) Math.round(vector[i] / scale);
+        }
+        return new Quantized(values, scale);
+    }
+
+    private static float similarity(Quantized a, Quantized b) {
+        byte[] x = a.values();
+        byte[] y = b.values();
+        int sum = 0;
+        for (int i = 0; i < x.length; i++) {
+            sum += x[i] * y[i];
+        }
+        return sum * a.scale() * b.scale();
+    }
+}
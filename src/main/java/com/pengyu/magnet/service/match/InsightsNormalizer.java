@@ -0,0 +1,254 @@
+package com.pengyu.magnet.service.match;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns the free text fields of JobInsights and ResumeInsights into comparable numbers
+ */
+public final class InsightsNormalizer {
+
+    public static final int DEGREE_NONE = 0;
+    public static final int DEGREE_DIPLOMA = 1;
+    public static final int DEGREE_BACHELOR = 2;
+    public static final int DEGREE_MASTER = 3;
+    public static final int DEGREE_DOCTOR = 4;
+
+    public static final int LANGUAGE_NONE = 0;
+    public static final int LANGUAGE_BASIC = 1;
+    public static final int LANGUAGE_INTERMEDIATE = 2;
+    public static final int LANGUAGE_PROFESSIONAL = 3;
+    public static final int LANGUAGE_FLUENT = 4;
+    public static final int LANGUAGE_NATIVE = 5;
+
+    // Words that say nothing about a major, "Computer Science or related field"
+    private static final Set<String> MAJOR_STOP_WORDS = Set.of(
+            "a", "an", "and", "or", "of", "in", "the", "related", "field", "fields",
+            "degree", "equivalent", "similar", "relevant", "discipline", "etc");
+
+    // Degree names and abbreviations, compared without dots and in lower case
+    private static final Map<String, Integer> DEGREE_WORDS = Map.ofEntries(
+            Map.entry("phd", DEGREE_DOCTOR), Map.entry("dphil", DEGREE_DOCTOR), Map.entry("doctor", DEGREE_DOCTOR),
+            Map.entry("doctorate", DEGREE_DOCTOR), Map.entry("doctoral", DEGREE_DOCTOR),
+            Map.entry("master", DEGREE_MASTER), Map.entry("masters", DEGREE_MASTER), Map.entry("msc", DEGREE_MASTER),
+            Map.entry("meng", DEGREE_MASTER), Map.entry("mtech", DEGREE_MASTER), Map.entry("mba", DEGREE_MASTER),
+            Map.entry("mphil", DEGREE_MASTER), Map.entry("mres", DEGREE_MASTER), Map.entry("mca", DEGREE_MASTER),
+            Map.entry("postgraduate", DEGREE_MASTER),
+            Map.entry("bachelor", DEGREE_BACHELOR), Map.entry("bachelors", DEGREE_BACHELOR), Map.entry("bsc", DEGREE_BACHELOR),
+            Map.entry("beng", DEGREE_BACHELOR), Map.entry("btech", DEGREE_BACHELOR), Map.entry("bcom", DEGREE_BACHELOR),
+            Map.entry("bba", DEGREE_BACHELOR), Map.entry("bca", DEGREE_BACHELOR), Map.entry("undergraduate", DEGREE_BACHELOR),
+            Map.entry("honours", DEGREE_BACHELOR), Map.entry("hons", DEGREE_BACHELOR),
+            Map.entry("diploma", DEGREE_DIPLOMA), Map.entry("associate", DEGREE_DIPLOMA), Map.entry("associates", DEGREE_DIPLOMA),
+            Map.entry("certificate", DEGREE_DIPLOMA), Map.entry("hnd", DEGREE_DIPLOMA), Map.entry("ged", DEGREE_DIPLOMA));
+    // Abbreviations that are also English words, only in capitals: "BE" but not "must be"
+    private static final Map<String, Integer> DEGREE_CAPITALS = Map.of(
+            "BA", DEGREE_BACHELOR, "BS", DEGREE_BACHELOR, "BE", DEGREE_BACHELOR,
+            "MA", DEGREE_MASTER, "MS", DEGREE_MASTER);
+
+    private InsightsNormalizer() {
+    }
+
+    /**
+     * Degree level of a resume, the highest degree mentioned, DEGREE_NONE if not specified or not recognized
+     * @param degree
+     * @return
+     */
+    public static int degreeLevel(String degree) {
+        return degreeLevel(degree, false);
+    }
+
+    /**
+     * Degree level a job requires, the lowest degree mentioned, so "Bachelor's or Master's" requires a bachelor,
+     * DEGREE_NONE if not specified or not recognized
+     * @param degree
+     * @return
+     */
+    public static int requiredDegreeLevel(String degree) {
+        return degreeLevel(degree, true);
+    }
+
+    private static int degreeLevel(String degree, boolean lowest) {
+        if (degree == null || degree.isBlank()) {
+            return DEGREE_NONE;
+        }
+        // "M.Sc." is "MSc", "Bachelor's" is "Bachelors"
+        String text = degree.replace(".", "").replace("'", "").replace("\u2019", "");
+        int level = DEGREE_NONE;
+        if (text.toLowerCase(Locale.ROOT).contains("high school")) {
+            level = DEGREE_DIPLOMA;
+        }
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            Integer wordLevel = DEGREE_WORDS.get(word.toLowerCase(Locale.ROOT));
+            if (wordLevel == null) {
+                wordLevel = DEGREE_CAPITALS.get(word);
+            }
+            if (wordLevel != null) {
+                level = level == DEGREE_NONE ? wordLevel
+                        : lowest ? Math.min(level, wordLevel) : Math.max(level, wordLevel);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Language level, LANGUAGE_NONE if not specified
+     * @param language
+     * @return
+     */
+    public static int languageLevel(String language) {
+        if (language == null || language.isBlank()) {
+            return LANGUAGE_NONE;
+        }
+        String text = language.toLowerCase();
+        if (containsAny(text, "native", "bilingual", "mother tongue")) {
+            return LANGUAGE_NATIVE;
+        }
+        if (containsAny(text, "fluent", "fluency", "proficient", "advanced", "excellent")) {
+            return LANGUAGE_FLUENT;
+        }
+        if (containsAny(text, "intermediate", "conversational")) {
+            return LANGUAGE_INTERMEDIATE;
+        }
+        if (containsAny(text, "basic", "elementary", "beginner")) {
+            return LANGUAGE_BASIC;
+        }
+        // Professional, working, good or just the name of a language
+        return LANGUAGE_PROFESSIONAL;
+    }
+
+    /**
+     * Months of experience from texts like "4+ years", "18 months", 0 if there is no number
+     * @param experience
+     * @return
+     */
+    public static int experienceMonths(String experience) {
+        if (experience == null) {
+            return 0;
+        }
+        float value = 0;
+        float fraction = 0;
+        boolean found = false;
+        int i = 0;
+        for (; i < experience.length(); i++) {
+            char c = experience.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (fraction > 0) {
+                    value += (c - '0') * fraction;
+                    fraction /= 10;
+                } else {
+                    value = value * 10 + (c - '0');
+                }
+                found = true;
+            } else if (c == '.' && found && fraction == 0) {
+                fraction = 0.1f;
+            } else if (found) {
+                break;
+            }
+        }
+        if (!found) {
+            return 0;
+        }
+        boolean months = experience.regionMatches(true, skipSpaces(experience, i), "month", 0, 5);
+        return Math.round(months ? value : value * 12);
+    }
+
+    /**
+     * Value of a level column, null for level 0 of a degree, language or experience that is not stated,
+     * so an unknown level is not taken for a low one
+     * @param level
+     * @return
+     */
+    public static Integer known(int level) {
+        return level > 0 ? level : null;
+    }
+
+    /**
+     * Sorted distinct hashes of the meaningful words of a text, used to compare majors
+     * @param text
+     * @return
+     */
+    public static long[] wordHashes(String text) {
+        if (text == null || text.isBlank()) {
+            return new long[0];
+        }
+        String[] words = text.toLowerCase().split("[^a-z0-9+#]+");
+        long[] hashes = new long[words.length];
+        int count = 0;
+        for (String word : words) {
+            if (!word.isEmpty() && !MAJOR_STOP_WORDS.contains(word)) {
+                hashes[count++] = hash(word);
+            }
+        }
+        return distinctSorted(hashes, count);
+    }
+
+    /**
+     * Lookup key of a skill name in SkillDictionary, case, spaces and punctuation other than + and # are ignored,
+     * so "Node.js", "NodeJS" and "node js" are the same skill, letters and digits of every script are kept
+     * @param skill
+     * @return empty if the skill is blank
+     */
+    public static String skillKey(String skill) {
+        if (skill == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(skill.length());
+        // Code points, letters of any script are kept, "数据分析" is not blank
+        skill.codePoints()
+                .map(Character::toLowerCase)
+                .filter(c -> Character.isLetterOrDigit(c) || c == '+' || c == '#')
+                .forEach(key::appendCodePoint);
+        return key.toString();
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static long hash(String word) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < word.length(); i++) {
+            hash = (hash ^ word.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    static long[] distinctSorted(long[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, distinct);
+    }
+
+    static int[] distinctSorted(int[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, distinct);
+    }
+
+    private static int skipSpaces(String text, int from) {
+        while (from < text.length() && (text.charAt(from) == ' ' || text.charAt(from) == '+')) {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean containsAny(String text, String... words) {
+        for (String word : words) {
+            if (text.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,12 +2,16 @@ package com.pengyu.magnet.service.match;
 
 import com.pengyu.magnet.domain.Job;
 import com.pengyu.magnet.domain.match.JobInsights;
+import com.pengyu.magnet.domain.match.Skill;
 import com.pengyu.magnet.exception.ResourceNotFoundException;
 import com.pengyu.magnet.repository.JobRepository;
 import com.pengyu.magnet.repository.match.JobRequirementsRepository;
+import com.pengyu.magnet.service.search.JobIndexListener;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 /**
  * Job Requirement Service, used to operation generated Job Requirement by AI
  */
@@ -18,6 +22,11 @@ public class JobInsightsServiceImpl implements JobInsightsService {
     private final JobRequirementsRepository jobRequirementsRepository;
 
     private final JobRepository jobRepository;
+
+    private final JobIndexListener jobIndexListener;
+
+    private final SkillDictionary skillDictionary;
+
     @Override
     public JobInsights save(JobInsights jobRequirements, Long jobId) {
 
@@ -30,9 +39,22 @@ public class JobInsightsServiceImpl implements JobInsightsService {
         jobRequirements.setJob(job);
 
         // Bind Skills with jobRequirements
-        jobRequirements.getSkills().forEach(skill -> skill.setJobInsights(jobRequirements));
+        Map<String, Integer> skillIds = skillDictionary.resolveAll(jobRequirements.getSkills().stream().map(Skill::getSkill).toList());
+        jobRequirements.getSkills().forEach(skill -> {
+            skill.setJobInsights(jobRequirements);
+            skill.setSkillId(skillIds.get(skill.getSkill()));
+        });
+
+        // Normalized levels for candidate pre-filtering
+        jobRequirements.setDegreeLevel(InsightsNormalizer.known(InsightsNormalizer.requiredDegreeLevel(jobRequirements.getDegree())));
+        jobRequirements.setLanguageLevel(InsightsNormalizer.known(InsightsNormalizer.languageLevel(jobRequirements.getLanguage())));
+        jobRequirements.setExperienceMonths(InsightsNormalizer.known(InsightsNormalizer.experienceMonths(jobRequirements.getExperience())));
+
+        JobInsights saved = jobRequirementsRepository.save(jobRequirements);
 
-        return jobRequirementsRepository.save(jobRequirements);
+        // Extracted skills become searchable and a facet
+        jobIndexListener.update(job, saved.getSkills());
+        return saved;
     }
 
     /**
@@ -0,0 +1,81 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.match.JobInsights;
+import com.pengyu.magnet.domain.match.ResumeInsights;
+import com.pengyu.magnet.domain.match.Skill;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Normalized JobInsights or ResumeInsights, prepared once and scored against many counterparts
+ * @param degreeLevel see InsightsNormalizer
+ * @param majorWords sorted word hashes of the major
+ * @param languageLevel see InsightsNormalizer
+ * @param experienceMonths
+ * @param skills sorted skill ids, see SkillDictionary
+ * @param skillWeights weight of every skill in skills, at least 1
+ */
+public record MatchFeatures(int degreeLevel,
+                            long[] majorWords,
+                            int languageLevel,
+                            int experienceMonths,
+                            int[] skills,
+                            int[] skillWeights) {
+
+    public static MatchFeatures of(JobInsights jobInsights) {
+        return of(InsightsNormalizer.requiredDegreeLevel(jobInsights.getDegree()), jobInsights.getMajor(), jobInsights.getLanguage(),
+                experienceMonths(jobInsights.getExperienceMonths(), jobInsights.getExperience()), jobInsights.getSkills());
+    }
+
+    public static MatchFeatures of(ResumeInsights resumeInsights) {
+        return of(resumeInsights.getDegree(), resumeInsights.getMajor(), resumeInsights.getLanguage(),
+                experienceMonths(resumeInsights.getExperienceMonths(), resumeInsights.getExperience()), resumeInsights.getSkills());
+    }
+
+    /**
+     * Stored experience months, parsed from the text for insights saved before the column existed
+     * @param months
+     * @param experience
+     * @return
+     */
+    public static int experienceMonths(Integer months, String experience) {
+        return months != null ? months : InsightsNormalizer.experienceMonths(experience);
+    }
+
+    public static MatchFeatures of(String degree, String major, String language, int experienceMonths, List<Skill> skillList) {
+        return of(InsightsNormalizer.degreeLevel(degree), major, language, experienceMonths, skillList);
+    }
+
+    private static MatchFeatures of(int degreeLevel, String major, String language, int experienceMonths, List<Skill> skillList) {
+        int size = skillList == null ? 0 : skillList.size();
+
+        // Sort skills by id, weights follow their skill. Skills without id are blank.
+        int[] keyed = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            Skill skill = skillList.get(i);
+            if (skill.getSkillId() != null) {
+                keyed[count++] = skill.getSkillId();
+            }
+        }
+        int[] skills = InsightsNormalizer.distinctSorted(keyed, count);
+        int[] weights = new int[skills.length];
+        for (int i = 0; i < size; i++) {
+            Skill skill = skillList.get(i);
+            int index = skill.getSkillId() == null ? -1 : Arrays.binarySearch(skills, skill.getSkillId());
+            if (index >= 0) {
+                // A skill listed twice keeps its highest weight
+                weights[index] = Math.max(weights[index], Math.max(skill.getWeight(), 1));
+            }
+        }
+
+        return new MatchFeatures(
+                degreeLevel,
+                InsightsNormalizer.wordHashes(major),
+                InsightsNormalizer.languageLevel(language),
+                experienceMonths,
+                skills,
+                weights);
+    }
+}
@@ -0,0 +1,13 @@
+package com.pengyu.magnet.service.match;
+
+/**
+ * How a job and a resume are matched
+ */
+public enum MatchMode {
+    // Ask the LLM with JobResumeMatchingPrompt
+    LLM,
+    // Local embedding similarity, see EmbeddingMatchEngine
+    EMBEDDING,
+    // Deterministic weighted rules, see MatchScorer
+    RULE
+}
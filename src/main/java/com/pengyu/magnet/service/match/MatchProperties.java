@@ -0,0 +1,20 @@
+package com.pengyu.magnet.service.match;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Match config
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "magnet.match")
+public class MatchProperties {
+
+    // How AIService.match scores a pair when no mode is given
+    private MatchMode mode = MatchMode.LLM;
+
+    // Weight profile of MatchScorer when no profile is given
+    private String weightProfile = WeightProfile.DEFAULT.name();
+}
@@ -0,0 +1,159 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.match.JobInsights;
+import com.pengyu.magnet.domain.match.MatchingIndex;
+import com.pengyu.magnet.domain.match.ResumeInsights;
+import com.pengyu.magnet.exception.ApiException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deterministic weighted match scorer, does the arithmetic of JobResumeMatchingPrompt
+ * in plain Java. Scoring a pair of prepared MatchFeatures allocates nothing.
+ */
+@Component
+public class MatchScorer {
+
+    // Positions in the score array
+    public static final int DEGREE = 0;
+    public static final int MAJOR = 1;
+    public static final int LANGUAGE = 2;
+    public static final int EXPERIENCE = 3;
+    public static final int SKILL = 4;
+    public static final int OVERALL = 5;
+    public static final int SCORE_SIZE = 6;
+
+    private final Map<String, WeightProfile> profiles = new ConcurrentHashMap<>();
+
+    private final String defaultProfileName;
+
+    public MatchScorer(MatchProperties matchProperties) {
+        this.defaultProfileName = matchProperties.getWeightProfile();
+        register(WeightProfile.DEFAULT);
+        register(WeightProfile.SENIOR);
+        register(WeightProfile.GRADUATE);
+    }
+
+    /**
+     * Register or replace a weight profile
+     * @param profile
+     */
+    public void register(WeightProfile profile) {
+        profiles.put(profile.name(), profile);
+    }
+
+    /**
+     * Find weight profile by name, the configured default profile if name is null
+     * @param name
+     * @return
+     */
+    public WeightProfile profile(String name) {
+        WeightProfile profile = profiles.get(name == null ? defaultProfileName : name);
+        if (profile == null) {
+            throw new ApiException("No such weight profile " + name);
+        }
+        return profile;
+    }
+
+    /**
+     * Score a job and a resume with the default weight profile, the result is not bound to job and resume yet
+     * @param jobInsights
+     * @param resumeInsights
+     * @return
+     */
+    public MatchingIndex score(JobInsights jobInsights, ResumeInsights resumeInsights) {
+        float[] scores = new float[SCORE_SIZE];
+        score(MatchFeatures.of(jobInsights), MatchFeatures.of(resumeInsights), profile(null), scores);
+
+        MatchingIndex matchingIndex = new MatchingIndex();
+        matchingIndex.setDegree(scores[DEGREE]);
+        matchingIndex.setMajor(scores[MAJOR]);
+        matchingIndex.setLanguage(scores[LANGUAGE]);
+        matchingIndex.setExperience(scores[EXPERIENCE]);
+        matchingIndex.setSkill(scores[SKILL]);
+        matchingIndex.setOverall(scores[OVERALL]);
+        return matchingIndex;
+    }
+
+    /**
+     * Score a job and a resume into out, every field is 1 if the job has no requirement for it
+     * @param job
+     * @param resume
+     * @param weights
+     * @param out array of SCORE_SIZE
+     * @return overall score
+     */
+    public float score(MatchFeatures job, MatchFeatures resume, WeightProfile weights, float[] out) {
+        out[DEGREE] = level(job.degreeLevel(), resume.degreeLevel());
+        out[MAJOR] = words(job.majorWords(), resume.majorWords());
+        out[LANGUAGE] = level(job.languageLevel(), resume.languageLevel());
+        out[EXPERIENCE] = level(job.experienceMonths(), resume.experienceMonths());
+        out[SKILL] = skills(job.skills(), job.skillWeights(), resume.skills());
+        out[OVERALL] = (out[DEGREE] + out[MAJOR] + out[LANGUAGE]) / 3 * weights.education()
+                + out[SKILL] * weights.skill()
+                + out[EXPERIENCE] * weights.experience();
+        return out[OVERALL];
+    }
+
+    /**
+     * Ratio of actual to required level, capped at 1
+     */
+    private static float level(int required, int actual) {
+        if (required <= 0) {
+            return 1;
+        }
+        return Math.min((float) actual / required, 1);
+    }
+
+    /**
+     * Share of the required major words found in the actual major
+     */
+    private static float words(long[] required, long[] actual) {
+        if (required.length == 0) {
+            return 1;
+        }
+        return (float) intersect(required, actual) / required.length;
+    }
+
+    /**
+     * Weighted share of the required skills found in the actual skills
+     */
+    private static float skills(int[] required, int[] weights, int[] actual) {
+        if (required.length == 0) {
+            return 1;
+        }
+        int matched = 0;
+        int total = 0;
+        int j = 0;
+        for (int i = 0; i < required.length; i++) {
+            total += weights[i];
+            while (j < actual.length && actual[j] < required[i]) {
+                j++;
+            }
+            if (j < actual.length && actual[j] == required[i]) {
+                matched += weights[i];
+            }
+        }
+        return (float) matched / total;
+    }
+
+    private static int intersect(long[] a, long[] b) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+}
@@ -1,16 +1,28 @@
 package com.pengyu.magnet.service.match;
 
 import com.pengyu.magnet.domain.JobApplication;
+import com.pengyu.magnet.domain.match.MatchingIndex;
+import com.pengyu.magnet.dto.CursorPage;
+import com.pengyu.magnet.dto.MatchSummary;
 import com.pengyu.magnet.dto.MatchingIndexDTO;
+import com.pengyu.magnet.utils.KeysetCursor;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
 public interface MatchingIndexService {
-    List<MatchingIndexDTO> findAll(Pageable pageable);
+    List<MatchSummary> findAll(Pageable pageable);
+
+    CursorPage<MatchSummary> findAll(KeysetCursor.Request request);
 
     MatchingIndexDTO find(Long id);
     public long count();
 
     MatchingIndexDTO findByMatchingIndexByJobApplication(JobApplication jobApplication);
+
+    MatchingIndexDTO match(Long jobId, Long resumeId, MatchMode mode);
+
+    MatchingIndexDTO matchIfReady(Long jobId, Long resumeId);
+
+    MatchingIndexDTO save(MatchingIndex matchingIndex, Long jobId, Long resumeId);
 }
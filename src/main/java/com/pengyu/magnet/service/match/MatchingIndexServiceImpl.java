@@ -1,19 +1,32 @@
 package com.pengyu.magnet.service.match;
 
+import com.pengyu.magnet.domain.Job;
 import com.pengyu.magnet.domain.JobApplication;
 import com.pengyu.magnet.domain.Resume;
+import com.pengyu.magnet.domain.match.JobInsights;
 import com.pengyu.magnet.domain.match.MatchingIndex;
+import com.pengyu.magnet.domain.match.ResumeInsights;
+import com.pengyu.magnet.dto.CursorPage;
+import com.pengyu.magnet.dto.MatchSummary;
 import com.pengyu.magnet.dto.MatchingIndexDTO;
+import com.pengyu.magnet.exception.ApiException;
 import com.pengyu.magnet.exception.ResourceNotFoundException;
 import com.pengyu.magnet.mapper.JobMapper;
 import com.pengyu.magnet.mapper.MatchingIndexMapper;
+import com.pengyu.magnet.repository.JobRepository;
+import com.pengyu.magnet.repository.KeysetRepository;
 import com.pengyu.magnet.repository.ResumeRepository;
+import com.pengyu.magnet.repository.match.JobRequirementsRepository;
 import com.pengyu.magnet.repository.match.MatchingIndexRepository;
+import com.pengyu.magnet.repository.match.ResumeInsightsRepository;
 import com.pengyu.magnet.service.compnay.JobServiceImpl;
 import com.pengyu.magnet.service.resume.ResumeServiceImpl;
+import com.pengyu.magnet.utils.KeysetCursor;
+import com.pengyu.magnet.service.count.TotalCountService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -25,21 +38,48 @@ import java.util.List;
 public class MatchingIndexServiceImpl implements MatchingIndexService{
 
     private final MatchingIndexRepository matchingIndexRepository;
+    private final TotalCountService totalCountService;
     private final ResumeRepository resumeRepository;
+    private final JobRepository jobRepository;
+    private final JobRequirementsRepository jobRequirementsRepository;
+    private final ResumeInsightsRepository resumeInsightsRepository;
+
+    private final EmbeddingMatchEngine embeddingMatchEngine;
+    private final MatchScorer matchScorer;
+    private final KeysetRepository keysetRepository;
+
+    private final MatchProperties matchProperties;
 
     /**
-     * Find All MatchingIndex
+     * Find list rows of matching indexes
      * @param pageable
      * @return
      */
     @Override
-    public List<MatchingIndexDTO> findAll(Pageable pageable) {
-        return matchingIndexRepository.findAll(pageable).map(matchingIndex -> {
-            MatchingIndexDTO matchingIndexDTO = MatchingIndexMapper.INSTANCE.mapMatchingIndexToMatchingIndexDTO(matchingIndex);
-            matchingIndexDTO.setResumeDTO(ResumeServiceImpl.mapResumeToResumeDTO(matchingIndex.getResume()));
-            matchingIndexDTO.setJobResponse(JobMapper.INSTANCE.mapJobToJobResponse(matchingIndex.getJob()));
-            return matchingIndexDTO;
-        }).toList();
+    public List<MatchSummary> findAll(Pageable pageable) {
+        return matchingIndexRepository.findSummaries(pageable);
+    }
+
+    /**
+     * Find a keyset page of list rows
+     * @param request
+     * @return
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MatchSummary> findAll(KeysetCursor.Request request) {
+        return keysetRepository.find(MatchingIndex.class, null, request, "job", "resume")
+                .map(MatchingIndexServiceImpl::mapToMatchSummary);
+    }
+
+    // List row of a matching index loaded as entity, same columns as MatchingIndexRepository.findSummaries
+    private static MatchSummary mapToMatchSummary(MatchingIndex m) {
+        Job job = m.getJob();
+        Resume resume = m.getResume();
+        return new MatchSummary(m.getId(),
+                job == null ? null : job.getId(), job == null ? null : job.getTitle(),
+                resume == null ? null : resume.getId(), resume == null ? null : resume.getFullName(),
+                m.getDegree(), m.getMajor(), m.getExperience(), m.getSkill(), m.getLanguage(), m.getOverall());
     }
 
     /**
@@ -48,6 +88,7 @@ public class MatchingIndexServiceImpl implements MatchingIndexService{
      * @return
      */
     @Override
+    @Transactional(readOnly = true)
     public MatchingIndexDTO find(Long id) {
         MatchingIndex matchingIndex = matchingIndexRepository
                 .findById(id)
@@ -61,7 +102,7 @@ public class MatchingIndexServiceImpl implements MatchingIndexService{
 
     @Override
     public long count() {
-        return matchingIndexRepository.count();
+        return totalCountService.countAll(TotalCountService.tableOf(MatchingIndex.class), matchingIndexRepository::count);
     }
 
     @Override
@@ -74,4 +115,90 @@ public class MatchingIndexServiceImpl implements MatchingIndexService{
                 .orElse(null);
         return MatchingIndexMapper.INSTANCE.mapMatchingIndexToMatchingIndexDTO(matchingIndex);
     }
+
+    /**
+     * Match job and resume locally, no AI API call
+     * @param jobId
+     * @param resumeId
+     * @param mode EMBEDDING or RULE
+     * @return
+     */
+    @Override
+    public MatchingIndexDTO match(Long jobId, Long resumeId, MatchMode mode) {
+        if(mode == MatchMode.LLM) {
+            throw new ApiException("LLM matching is not a local match mode");
+        }
+        JobInsights jobInsights = jobRequirementsRepository
+                .findByJobId(jobId)
+                .orElseThrow(() -> new ApiException("There is no JobInsights extract for this job"));
+        ResumeInsights resumeInsights = resumeInsightsRepository
+                .findByResumeId(resumeId)
+                .orElseThrow(() -> new ApiException("There is no ResumeInsights extract for this resume"));
+
+        return save(score(jobInsights, resumeInsights, mode), jobId, resumeId);
+    }
+
+    /**
+     * Match job and resume locally with the configured mode if both insights are already extracted
+     * @param jobId
+     * @param resumeId
+     * @return null if JobInsights or ResumeInsights is not extracted yet, or the configured mode is LLM
+     */
+    @Override
+    public MatchingIndexDTO matchIfReady(Long jobId, Long resumeId) {
+        if(matchProperties.getMode() == MatchMode.LLM) {
+            return null;
+        }
+        JobInsights jobInsights = jobRequirementsRepository.findByJobId(jobId).orElse(null);
+        ResumeInsights resumeInsights = resumeInsightsRepository.findByResumeId(resumeId).orElse(null);
+        if(jobInsights == null || resumeInsights == null) {
+            return null;
+        }
+        return save(score(jobInsights, resumeInsights, matchProperties.getMode()), jobId, resumeId);
+    }
+
+    private MatchingIndex score(JobInsights jobInsights, ResumeInsights resumeInsights, MatchMode mode) {
+        return mode == MatchMode.EMBEDDING
+                ? embeddingMatchEngine.score(jobInsights, resumeInsights)
+                : matchScorer.score(jobInsights, resumeInsights);
+    }
+
+    /**
+     * Save scores of a job and resume pair, the existing MatchingIndex of this pair will be updated
+     * @param matchingIndex
+     * @param jobId
+     * @param resumeId
+     * @return
+     */
+    @Override
+    @Transactional
+    public MatchingIndexDTO save(MatchingIndex matchingIndex, Long jobId, Long resumeId) {
+        // Keep one MatchingIndex per job and resume
+        MatchingIndex existing = matchingIndexRepository
+                .findByJobIdAndResumeId(jobId, resumeId)
+                .orElse(null);
+        if(existing != null) {
+            matchingIndex.setId(existing.getId());
+        }
+
+        // Bind MatchingIndex and Job, Resume
+        Job job = jobRepository
+                .findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("No such job found with jobId " + jobId));
+        matchingIndex.setJob(job);
+
+        Resume resume = resumeRepository
+                .findDetailsById(resumeId)
+                .orElseThrow(() -> new ResourceNotFoundException("No such Resume found with resumeId " + resumeId));
+        matchingIndex.setResume(resume);
+
+        // Sava to Database
+        MatchingIndex saved = matchingIndexRepository.save(matchingIndex);
+
+        // return
+        MatchingIndexDTO matchingIndexDTO = MatchingIndexMapper.INSTANCE.mapMatchingIndexToMatchingIndexDTO(saved);
+        matchingIndexDTO.setResumeDTO(ResumeServiceImpl.mapResumeToResumeDTO(resume));
+        matchingIndexDTO.setJobResponse(JobMapper.INSTANCE.mapJobToJobResponse(job));
+        return matchingIndexDTO;
+    }
 }
@@ -2,12 +2,18 @@ package com.pengyu.magnet.service.match;
 
 import com.pengyu.magnet.domain.Resume;
 import com.pengyu.magnet.domain.match.ResumeInsights;
+import com.pengyu.magnet.domain.match.Skill;
 import com.pengyu.magnet.exception.ResourceNotFoundException;
+import com.pengyu.magnet.repository.ResumeExperienceRepository;
 import com.pengyu.magnet.repository.ResumeRepository;
 import com.pengyu.magnet.repository.match.ResumeInsightsRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Resume Insights Service, used to operation generated Resume Insights by AI
  */
@@ -18,6 +24,13 @@ public class ResumeInsightsServiceImpl implements ResumeInsightsService {
     private final ResumeInsightsRepository resumeInsightsRepository;
 
     private final ResumeRepository resumeRepository;
+
+    private final ResumeExperienceRepository resumeExperienceRepository;
+
+    private final ResumeVectorIndex resumeVectorIndex;
+
+    private final SkillDictionary skillDictionary;
+
     @Override
     public ResumeInsights save(ResumeInsights resumeInsights, Long resumeId) {
 
@@ -30,10 +43,30 @@ public class ResumeInsightsServiceImpl implements ResumeInsightsService {
         resumeInsights.setResume(resume);
 
         // Bind Skills with jobRequirements
-        resumeInsights.getSkills().forEach(skill -> skill.setResumeInsights(resumeInsights));
+        Map<String, Integer> skillIds = skillDictionary.resolveAll(resumeInsights.getSkills().stream().map(Skill::getSkill).toList());
+        resumeInsights.getSkills().forEach(skill -> {
+            skill.setResumeInsights(resumeInsights);
+            skill.setSkillId(skillIds.get(skill.getSkill()));
+        });
+
+        // Normalized levels for candidate pre-filtering
+        resumeInsights.setDegreeLevel(InsightsNormalizer.known(InsightsNormalizer.degreeLevel(resumeInsights.getDegree())));
+        resumeInsights.setLanguageLevel(InsightsNormalizer.known(InsightsNormalizer.languageLevel(resumeInsights.getLanguage())));
+
+        // Experience from the dates of the work experiences, not extracted by AI,
+        // ExperienceRefreshService keeps it growing for ongoing jobs
+        List<Resume.Experience> experiences = resumeExperienceRepository.findByResumeId(resumeId);
+        // Unknown without dates, which CandidatePreFilter does not prune
+        Integer months = ExperienceCalculator.totalMonths(experiences, LocalDate.now());
+        resumeInsights.setExperienceMonths(months);
+        resumeInsights.setExperience(months == null ? null : ExperienceCalculator.describe(months));
+
+        ResumeInsights saved = resumeInsightsRepository.save(resumeInsights);
 
+        // Keep candidate retrieval up to date
+        resumeVectorIndex.update(resumeId, saved);
 
-        return resumeInsightsRepository.save(resumeInsights);
+        return saved;
     }
 
     @Override
@@ -0,0 +1,164 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.Resume;
+import com.pengyu.magnet.domain.match.JobInsights;
+import com.pengyu.magnet.domain.match.ResumeInsights;
+import com.pengyu.magnet.domain.match.Skill;
+import com.pengyu.magnet.dto.CandidateDTO;
+import com.pengyu.magnet.exception.ApiException;
+import com.pengyu.magnet.repository.ResumeRepository;
+import com.pengyu.magnet.repository.match.JobRequirementsRepository;
+import com.pengyu.magnet.repository.match.ResumeInsightsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Approximate nearest neighbour index over resume profile embeddings,
+ * used to retrieve the top K candidates of a job without pairwise scoring
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResumeVectorIndex {
+
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int EF_SEARCH = 128;
+    private static final int LOAD_BATCH = 1000;
+    public static final int MAX_K = 500;
+
+    private final EmbeddingMatchEngine embeddingMatchEngine;
+    private final ResumeInsightsRepository resumeInsightsRepository;
+    private final JobRequirementsRepository jobRequirementsRepository;
+    private final ResumeRepository resumeRepository;
+
+    private final HnswIndex index = new HnswIndex(M, EF_CONSTRUCTION, EF_SEARCH);
+
+    // Resumes updated while the loader runs, the loader's older rows must not overwrite them
+    private final Set<Long> updatedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    /**
+     * Load all resume insights in background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loading = true;
+        Thread loader = new Thread(this::loadAll, "resume-vector-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadAll() {
+        try {
+            long maxId = resumeInsightsRepository.findMaxId();
+            for(long fromId = 0; fromId < maxId; fromId += LOAD_BATCH) {
+                try {
+                    // Group skill rows by resume, then embed every profile
+                    Map<Long, List<ResumeInsightsRepository.ProfileRow>> rowsByResume = resumeInsightsRepository
+                            .findProfileRows(fromId, fromId + LOAD_BATCH, Resume.Status.DELETED)
+                            .stream()
+                            .collect(Collectors.groupingBy(ResumeInsightsRepository.ProfileRow::getResumeId,
+                                    LinkedHashMap::new, Collectors.toList()));
+                    rowsByResume.forEach(this::load);
+                } catch (RuntimeException e) {
+                    log.error("Failed to index resume insights after id {}", fromId, e);
+                }
+            }
+        } finally {
+            synchronized (updatedDuringLoad) {
+                loading = false;
+                updatedDuringLoad.clear();
+            }
+        }
+        log.info("Resume vector index loaded, {} resumes", index.size());
+    }
+
+    private void load(Long resumeId, List<ResumeInsightsRepository.ProfileRow> rows) {
+        List<Skill> skills = new ArrayList<>(rows.size());
+        for(ResumeInsightsRepository.ProfileRow row : rows) {
+            if(row.getSkill() != null) {
+                Skill skill = new Skill();
+                skill.setSkill(row.getSkill());
+                skill.setWeight(row.getWeight() == null ? 0 : row.getWeight());
+                skills.add(skill);
+            }
+        }
+        float[] vector = embeddingMatchEngine.embedProfile(rows.get(0).getMajor(), skills);
+        if(vector == null) {
+            return;
+        }
+        synchronized (updatedDuringLoad) {
+            if(!updatedDuringLoad.contains(resumeId)) {
+                index.put(resumeId, vector);
+            }
+        }
+    }
+
+    /**
+     * Add or replace the profile of a resume, deleted resumes are removed
+     * @param resumeId
+     * @param resumeInsights
+     */
+    public void update(Long resumeId, ResumeInsights resumeInsights) {
+        Resume resume = resumeInsights.getResume();
+        float[] vector = resume != null && resume.getStatus() == Resume.Status.DELETED
+                ? null
+                : embeddingMatchEngine.embedProfile(resumeInsights.getMajor(), resumeInsights.getSkills());
+        synchronized (updatedDuringLoad) {
+            if(loading) {
+                updatedDuringLoad.add(resumeId);
+            }
+            if(vector == null) {
+                index.remove(resumeId);
+            } else {
+                index.put(resumeId, vector);
+            }
+        }
+    }
+
+    /**
+     * Top K resumes for a job by profile similarity
+     * @param jobId
+     * @param k
+     * @return candidates ordered by similarity desc
+     */
+    public List<CandidateDTO> topCandidates(Long jobId, int k) {
+        if(k < 1 || k > MAX_K) {
+            throw new ApiException("k must be between 1 and " + MAX_K);
+        }
+
+        JobInsights jobInsights = jobRequirementsRepository
+                .findByJobId(jobId)
+                .orElseThrow(() -> new ApiException("There is no JobInsights extract for this job"));
+
+        float[] query = embeddingMatchEngine.embedProfile(jobInsights.getMajor(), jobInsights.getSkills());
+        if(query == null) {
+            return List.of();
+        }
+
+        List<HnswIndex.Hit> hits = index.search(query, k);
+
+        // Fetch names only, not whole resumes
+        Map<Long, String> names = resumeRepository
+                .findNamesByIdIn(hits.stream().map(HnswIndex.Hit::key).toList())
+                .stream()
+                .collect(Collectors.toMap(ResumeRepository.ResumeName::getId,
+                        name -> name.getFullName() == null ? "" : name.getFullName()));
+
+        return hits.stream()
+                .map(hit -> new CandidateDTO(hit.key(), names.get(hit.key()), hit.similarity()))
+                .toList();
+    }
+}
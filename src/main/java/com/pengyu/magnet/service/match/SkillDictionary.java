@@ -0,0 +1,155 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.match.SkillCatalog;
+import com.pengyu.magnet.repository.match.SkillAliasRepository;
+import com.pengyu.magnet.repository.match.SkillCatalogRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical skill ids, kept in memory.
+ * Skill names are looked up by InsightsNormalizer.skillKey among canonical names and aliases,
+ * a name never seen before becomes a new canonical skill.
+ * New skills are added with INSERT IGNORE on the connection of the caller and read back,
+ * so concurrent callers and other instances agree on one id without a lock in the application.
+ * The rows stay locked until the caller's transaction ends, so callers resolving several names
+ * use resolveAll, which creates them in key order and two transactions never wait for each other's skills.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SkillDictionary {
+
+    // Common other names, added as aliases unless the alias is a skill already
+    private static final Map<String, List<String>> SEED_ALIASES = Map.ofEntries(
+            Map.entry("JavaScript", List.of("JS", "ECMAScript")),
+            Map.entry("TypeScript", List.of("TS")),
+            Map.entry("Node.js", List.of("Node")),
+            Map.entry("React", List.of("ReactJS", "React.js")),
+            Map.entry("Vue.js", List.of("Vue", "VueJS")),
+            Map.entry("Angular", List.of("AngularJS")),
+            Map.entry("Go", List.of("Golang")),
+            Map.entry("C#", List.of("CSharp", "C Sharp")),
+            Map.entry("PostgreSQL", List.of("Postgres", "Postgre")),
+            Map.entry("MongoDB", List.of("Mongo")),
+            Map.entry("Kubernetes", List.of("K8s")),
+            Map.entry("AWS", List.of("Amazon Web Services")),
+            Map.entry("GCP", List.of("Google Cloud", "Google Cloud Platform")),
+            Map.entry("Azure", List.of("Microsoft Azure")),
+            Map.entry("CI/CD", List.of("Continuous Integration")),
+            Map.entry("Machine Learning", List.of("ML")));
+
+    // Inserts nothing if the key was added by another caller, the id is read back either way
+    private static final String INSERT_SKILL_SQL = "INSERT IGNORE INTO skill_catalog (name, name_key) VALUES (?, ?)";
+    private static final String INSERT_ALIAS_SQL = "INSERT IGNORE INTO skill_alias (alias_key, skill_id) VALUES (?, ?)";
+    // A locking read, it sees a row committed after the snapshot of the caller's transaction
+    private static final String FIND_SKILL_SQL = "SELECT id FROM skill_catalog WHERE name_key = ? FOR UPDATE";
+    private static final String FIND_ALIAS_SQL = "SELECT skill_id FROM skill_alias WHERE alias_key = ?";
+
+    private final SkillCatalogRepository skillCatalogRepository;
+    private final SkillAliasRepository skillAliasRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Integer> idsByKey = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        int skills = 0;
+        for(SkillCatalog skill : skillCatalogRepository.findAll()) {
+            idsByKey.put(skill.getNameKey(), skill.getId());
+            skills++;
+        }
+        for(SkillAliasRepository.AliasRow alias : skillAliasRepository.findAllRows()) {
+            idsByKey.put(alias.getAliasKey(), alias.getSkillId());
+        }
+        SEED_ALIASES.forEach((name, aliases) -> aliases.forEach(alias -> addAlias(alias, name)));
+        log.info("Skill dictionary loaded, {} skills and {} names", skills, idsByKey.size());
+    }
+
+    /**
+     * Canonical id of a skill name, created if the name is new.
+     * Inside a transaction the new skill is part of it and cached once it commits,
+     * a rolled back caller leaves no id behind.
+     * @param name
+     * @return null if the name is blank
+     */
+    public Integer resolve(String name) {
+        String key = InsightsNormalizer.skillKey(name);
+        if(key.isEmpty()) {
+            return null;
+        }
+        Integer id = idsByKey.get(key);
+        if(id != null) {
+            return id;
+        }
+        Integer resolved = findOrCreate(name.trim(), key);
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    idsByKey.put(key, resolved);
+                }
+            });
+        } else {
+            idsByKey.put(key, resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * Canonical ids of skill names, new skills are created in the order of their keys
+     * @param names
+     * @return id by name, null for blank names
+     */
+    public Map<String, Integer> resolveAll(Collection<String> names) {
+        List<String> sorted = names.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted(Comparator.comparing(InsightsNormalizer::skillKey))
+                .toList();
+        Map<String, Integer> ids = new HashMap<>();
+        for(String name : sorted) {
+            ids.put(name, resolve(name));
+        }
+        return ids;
+    }
+
+    /**
+     * Make alias another name of a skill, nothing changes if the alias is known already
+     * @param alias
+     * @param name canonical name, created if new
+     */
+    private void addAlias(String alias, String name) {
+        String key = InsightsNormalizer.skillKey(alias);
+        Integer skillId = resolve(name);
+        if(key.isEmpty() || skillId == null || idsByKey.containsKey(key)) {
+            return;
+        }
+        // Added by another instance, its skill wins
+        jdbcTemplate.update(INSERT_ALIAS_SQL, key, skillId);
+        idsByKey.put(key, jdbcTemplate.queryForObject(FIND_ALIAS_SQL, Integer.class, key));
+    }
+
+    private Integer findOrCreate(String name, String key) {
+        // Added by another instance since load
+        List<Integer> aliased = jdbcTemplate.queryForList(FIND_ALIAS_SQL, Integer.class, key);
+        if(!aliased.isEmpty()) {
+            return aliased.get(0);
+        }
+        jdbcTemplate.update(INSERT_SKILL_SQL, name, key);
+        return jdbcTemplate.queryForObject(FIND_SKILL_SQL, Integer.class, key);
+    }
+}
@@ -0,0 +1,29 @@
+package com.pengyu.magnet.service.match;
+
+/**
+ * Weights of the overall match index,
+ * overall = (degree + major + language) / 3 * education + skill * skill + experience * experience
+ * @param name
+ * @param education
+ * @param skill
+ * @param experience
+ */
+public record WeightProfile(String name, float education, float skill, float experience) {
+
+    // Same weights as JobResumeMatchingPrompt
+    public static final WeightProfile DEFAULT = new WeightProfile("default", 0.2f, 0.4f, 0.4f);
+    public static final WeightProfile SENIOR = new WeightProfile("senior", 0.1f, 0.35f, 0.55f);
+    public static final WeightProfile GRADUATE = new WeightProfile("graduate", 0.4f, 0.45f, 0.15f);
+
+    public WeightProfile {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Weight profile name is required");
+        }
+        if (education < 0 || skill < 0 || experience < 0) {
+            throw new IllegalArgumentException("Weights of profile " + name + " must not be negative");
+        }
+        if (Math.abs(education + skill + experience - 1) > 0.001f) {
+            throw new IllegalArgumentException("Weights of profile " + name + " must add up to 1");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.pengyu.magnet.service.resume;
 
 import com.pengyu.magnet.dto.ResumeDTO;
+import com.pengyu.magnet.dto.ResumeSummary;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
@@ -8,7 +9,7 @@ import java.util.List;
 public interface ResumeService {
     ResumeDTO save(ResumeDTO resumeRequest);
     ResumeDTO find(Long id);
-    List<ResumeDTO> findAll(Pageable pageable);
+    List<ResumeSummary> findAll(Pageable pageable);
 
     long count();
 
@@ -23,6 +24,4 @@ public interface ResumeService {
     void deleteExperience(Long id);
 
     void deleteProject(Long id);
-
-    List<Long> getResumeCounts();
 }
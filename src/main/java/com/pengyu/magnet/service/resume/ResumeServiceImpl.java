@@ -3,12 +3,14 @@ package com.pengyu.magnet.service.resume;
 import com.pengyu.magnet.domain.Resume;
 import com.pengyu.magnet.domain.User;
 import com.pengyu.magnet.dto.ResumeDTO;
+import com.pengyu.magnet.dto.ResumeSummary;
 import com.pengyu.magnet.exception.ResourceNotFoundException;
 import com.pengyu.magnet.mapper.*;
 import com.pengyu.magnet.repository.*;
 import com.pengyu.magnet.service.ai.AsyncTaskService;
+import com.pengyu.magnet.service.count.TotalCountService;
+import com.pengyu.magnet.service.match.SkillDictionary;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * CV service
@@ -28,6 +31,7 @@ public class ResumeServiceImpl implements ResumeService {
 
     private final ResumeRepository resumeRepository;
     private final UserRepository userRepository;
+    private final TotalCountService totalCountService;
 
     private final AsyncTaskService asynTaskService;
 
@@ -36,6 +40,8 @@ public class ResumeServiceImpl implements ResumeService {
     private final ResumeExperienceRepository resumeExperienceRepository;
     private final ResumeProjectRepository resumeProjectRepository;
 
+    private final SkillDictionary skillDictionary;
+
 
     /**
      * Add or Edit Resume
@@ -57,6 +63,10 @@ public class ResumeServiceImpl implements ResumeService {
         resume.setUser(user);
         resume.setCreatedAt(LocalDateTime.now());
 
+        // Canonical ids of the skills
+        Map<String, Integer> skillIds = skillDictionary.resolveAll(resume.getSkillList().stream().map(Resume.Skill::getSkill).toList());
+        resume.getSkillList().forEach(skill -> skill.setSkillId(skillIds.get(skill.getSkill())));
+
 
         // Save
         resume = resumeRepository.save(resume);
@@ -75,7 +85,7 @@ public class ResumeServiceImpl implements ResumeService {
     @Override
     public ResumeDTO find(Long id) {
         Resume resume = resumeRepository
-                .findById(id)
+                .findDetailsById(id)
                 .orElseThrow(()-> new ResourceNotFoundException("Resume doesn't exist with id "+ id));
         return mapResumeToResumeDTO(resume);
     }
@@ -86,14 +96,13 @@ public class ResumeServiceImpl implements ResumeService {
      * @return
      */
     @Override
-    public List<ResumeDTO> findAll(Pageable pageable) {
-        Page<Resume> resumes = resumeRepository.findAll(pageable);
-        return resumes.map(resume -> mapResumeToResumeDTO(resume)).toList();
+    public List<ResumeSummary> findAll(Pageable pageable) {
+        return resumeRepository.findSummaries(pageable);
     }
 
     @Override
     public long count() {
-        return resumeRepository.count();
+        return totalCountService.countAll(TotalCountService.tableOf(Resume.class), resumeRepository::count);
     }
 
     @Override
@@ -103,11 +112,15 @@ public class ResumeServiceImpl implements ResumeService {
         String email = authentication.getName();
         User user = userRepository.findByEmail(email);
         Resume resume = resumeRepository
-                .findByUserId(user.getId())
+                .findDetailsByUserId(user.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Current user doesn't create a resume"));
         return mapResumeToResumeDTO(resume);
     }
 
+    /**
+     * Current user's resume, its lists load when first read
+     * @return
+     */
     public Resume findMyResume() {
         // Get Current login user
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -125,7 +138,7 @@ public class ResumeServiceImpl implements ResumeService {
     @Override
     public ResumeDTO findResumeByUserId(Long userId) {
         Resume resume = resumeRepository
-                .findByUserId(userId)
+                .findDetailsByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Current user doesn't create a resume"));
         return mapResumeToResumeDTO(resume);
     }
@@ -195,11 +208,6 @@ public class ResumeServiceImpl implements ResumeService {
         }
     }
 
-    @Override
-    public List<Long> getResumeCounts() {
-        return resumeRepository.getResumeCounts();
-    }
-
     /**
      * Map resume to dto
      * @param resume
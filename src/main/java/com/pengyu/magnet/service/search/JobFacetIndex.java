@@ -0,0 +1,273 @@
+package com.pengyu.magnet.service.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory bitmap index of job facets.
+ * Every facet value has a bitmap over job ids. Values of one facet combine with OR,
+ * facets combine with AND. Facet counts are disjunctive: the counts of a facet
+ * ignore its own filter, so the other values of a selected facet stay visible.
+ */
+public class JobFacetIndex {
+
+    public enum Facet {
+        LOCATION,
+        SALARY,
+        STATUS,
+        SKILL
+    }
+
+    /**
+     * Number of matching jobs with a facet value
+     * @param value normalized value, used in filters
+     * @param label value as first seen
+     * @param count
+     */
+    public record FacetCount(String value, String label, int count) {
+    }
+
+    /**
+     * Matching job ids and facet counts
+     * @param jobIds
+     * @param facets
+     */
+    public record Result(BitSet jobIds, Map<Facet, List<FacetCount>> facets) {
+    }
+
+    private static final String UNSPECIFIED_SALARY = "unspecified";
+    // "€15/hour", "€200 per day", "£500 a week"
+    private static final Pattern RATE_PERIOD =
+            Pattern.compile("\\b(hour|hourly|hr|day|daily|week|weekly|wk)\\b|/\\s*h\\b|\\bp\\.?h\\b");
+    // "€3,000 per month", "€3k/mo", "£2,500 pcm"
+    private static final Pattern MONTH_PERIOD = Pattern.compile("\\b(month|monthly|mo|pcm)\\b");
+
+    private final Map<Facet, Map<String, BitSet>> bitmaps = new EnumMap<>(Facet.class);
+    private final Map<Facet, Map<String, String>> labels = new EnumMap<>(Facet.class);
+    // Values of every job, needed to clear its bits
+    private final Map<Integer, Map<Facet, Set<String>>> valuesByJob = new HashMap<>();
+    private final BitSet all = new BitSet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public JobFacetIndex() {
+        for(Facet facet : Facet.values()) {
+            bitmaps.put(facet, new HashMap<>());
+            labels.put(facet, new HashMap<>());
+        }
+    }
+
+    /**
+     * Normalized facet value, blank values are dropped
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Add or replace a job
+     * @param jobId
+     * @param values values of every facet
+     */
+    public void put(long jobId, Map<Facet, ? extends Collection<String>> values) {
+        int id = Math.toIntExact(jobId);
+        Map<Facet, Set<String>> normalized = new EnumMap<>(Facet.class);
+        Map<Facet, Map<String, String>> newLabels = new EnumMap<>(Facet.class);
+        values.forEach((facet, labelsOfFacet) -> {
+            for(String label : labelsOfFacet) {
+                String value = normalize(label);
+                if(value != null && !value.isEmpty()) {
+                    normalized.computeIfAbsent(facet, f -> new HashSet<>()).add(value);
+                    newLabels.computeIfAbsent(facet, f -> new HashMap<>()).putIfAbsent(value, label.trim());
+                }
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            normalized.forEach((facet, valuesOfFacet) -> {
+                for(String value : valuesOfFacet) {
+                    bitmaps.get(facet).computeIfAbsent(value, v -> new BitSet()).set(id);
+                    labels.get(facet).putIfAbsent(value, newLabels.get(facet).get(value));
+                }
+            });
+            valuesByJob.put(id, normalized);
+            all.set(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a job
+     * @param jobId
+     */
+    public void remove(long jobId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(Math.toIntExact(jobId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        Map<Facet, Set<String>> old = valuesByJob.remove(id);
+        if(old == null) {
+            return;
+        }
+        all.clear(id);
+        old.forEach((facet, valuesOfFacet) -> {
+            for(String value : valuesOfFacet) {
+                BitSet bitmap = bitmaps.get(facet).get(value);
+                if(bitmap != null) {
+                    bitmap.clear(id);
+                    if(bitmap.isEmpty()) {
+                        bitmaps.get(facet).remove(value);
+                        labels.get(facet).remove(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Number of indexed jobs
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return all.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filter jobs and count facet values
+     * @param filters selected values of every facet, empty or missing facets do not filter
+     * @param maxValues most frequent values returned per facet
+     * @return
+     */
+    public Result query(Map<Facet, ? extends Collection<String>> filters, int maxValues) {
+        lock.readLock().lock();
+        try {
+            // OR inside every filtered facet
+            Map<Facet, BitSet> facetMatches = new EnumMap<>(Facet.class);
+            filters.forEach((facet, selected) -> {
+                if(selected == null || selected.isEmpty()) {
+                    return;
+                }
+                BitSet union = new BitSet();
+                for(String value : selected) {
+                    BitSet bitmap = bitmaps.get(facet).get(normalize(value));
+                    if(bitmap != null) {
+                        union.or(bitmap);
+                    }
+                }
+                facetMatches.put(facet, union);
+            });
+
+            // AND across facets
+            BitSet jobIds = intersect(facetMatches, null);
+
+            Map<Facet, List<FacetCount>> facets = new EnumMap<>(Facet.class);
+            for(Facet facet : Facet.values()) {
+                // Disjunctive: every filter except the one of this facet
+                BitSet base = facetMatches.containsKey(facet) ? intersect(facetMatches, facet) : jobIds;
+                List<FacetCount> counts = new ArrayList<>();
+                bitmaps.get(facet).forEach((value, bitmap) -> {
+                    BitSet hits = (BitSet) bitmap.clone();
+                    hits.and(base);
+                    int count = hits.cardinality();
+                    if(count > 0) {
+                        counts.add(new FacetCount(value, labels.get(facet).get(value), count));
+                    }
+                });
+                counts.sort(Comparator.comparingInt(FacetCount::count).reversed().thenComparing(FacetCount::value));
+                facets.put(facet, counts.size() > maxValues ? List.copyOf(counts.subList(0, maxValues)) : counts);
+            }
+            return new Result(jobIds, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet intersect(Map<Facet, BitSet> facetMatches, Facet skip) {
+        BitSet result = (BitSet) all.clone();
+        facetMatches.forEach((facet, bitmap) -> {
+            if(facet != skip) {
+                result.and(bitmap);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Salary bucket of a free text annual salary range like "€40k - €60k" or "45,000-55,000",
+     * by the lower bound. Monthly salaries are annualized, hourly, daily and weekly rates
+     * depend on the hours worked and are left unspecified like text without a number.
+     * @param salaryRange
+     * @return
+     */
+    public static String salaryBucket(String salaryRange) {
+        if(salaryRange == null) {
+            return UNSPECIFIED_SALARY;
+        }
+        String text = salaryRange.toLowerCase(Locale.ROOT).replace(",", "");
+        if(RATE_PERIOD.matcher(text).find()) {
+            return UNSPECIFIED_SALARY;
+        }
+        int i = 0;
+        while(i < text.length() && !Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        int start = i;
+        while(i < text.length() && (Character.isDigit(text.charAt(i)) || text.charAt(i) == '.')) {
+            i++;
+        }
+        double value;
+        try {
+            value = Double.parseDouble(text.substring(start, i));
+        } catch (NumberFormatException e) {
+            return UNSPECIFIED_SALARY;
+        }
+        boolean monthly = MONTH_PERIOD.matcher(text).find();
+        // "40k", or "40-60" meaning thousands a year
+        if(i < text.length() && text.charAt(i) == 'k' || !monthly && value < 1000) {
+            value *= 1000;
+        }
+        if(monthly) {
+            value *= 12;
+        }
+        if(value <= 0) {
+            return UNSPECIFIED_SALARY;
+        }
+        if(value < 30_000) {
+            return "<30k";
+        }
+        if(value < 50_000) {
+            return "30k-50k";
+        }
+        if(value < 80_000) {
+            return "50k-80k";
+        }
+        if(value < 120_000) {
+            return "80k-120k";
+        }
+        return "120k+";
+    }
+}
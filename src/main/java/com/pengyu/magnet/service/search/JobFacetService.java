@@ -0,0 +1,118 @@
+package com.pengyu.magnet.service.search;
+
+import com.pengyu.magnet.domain.Job;
+import com.pengyu.magnet.dto.JobFacetResult;
+import com.pengyu.magnet.dto.JobResponse;
+import com.pengyu.magnet.exception.ApiException;
+import com.pengyu.magnet.repository.JobRepository;
+import com.pengyu.magnet.service.compnay.JobServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faceted job search by location, salary bucket, status and skill,
+ * backed by an in-memory JobFacetIndex over active and paused jobs kept current by JobIndexListener
+ */
+@Service
+@RequiredArgsConstructor
+public class JobFacetService {
+
+    // Most frequent values returned per facet
+    private static final int MAX_FACET_VALUES = 20;
+    private static final List<Job.Status> INDEXED_STATUSES = List.of(Job.Status.ACTIVE, Job.Status.PAUSED);
+
+    private final JobRepository jobRepository;
+
+    private final JobFacetIndex index = new JobFacetIndex();
+
+    /**
+     * Add or replace a job, only active and paused jobs are indexed
+     * @param jobId
+     * @param location
+     * @param salaryRange
+     * @param status
+     * @param skills extracted skill names
+     */
+    void put(Long jobId, String location, String salaryRange, Job.Status status, List<String> skills) {
+        if(!INDEXED_STATUSES.contains(status)) {
+            index.remove(jobId);
+            return;
+        }
+        index.put(jobId, values(location, salaryRange, status, skills));
+    }
+
+    /**
+     * Remove a job
+     * @param jobId
+     */
+    void remove(Long jobId) {
+        index.remove(jobId);
+    }
+
+    private static Map<JobFacetIndex.Facet, List<String>> values(String location, String salaryRange,
+                                                                 Job.Status status, List<String> skills) {
+        Map<JobFacetIndex.Facet, List<String>> values = new EnumMap<>(JobFacetIndex.Facet.class);
+        if(location != null) {
+            values.put(JobFacetIndex.Facet.LOCATION, List.of(location));
+        }
+        values.put(JobFacetIndex.Facet.SALARY, List.of(JobFacetIndex.salaryBucket(salaryRange)));
+        values.put(JobFacetIndex.Facet.STATUS, List.of(status.name()));
+        values.put(JobFacetIndex.Facet.SKILL, skills);
+        return values;
+    }
+
+    /**
+     * Filter jobs by facets, newest first, with the facet counts of the whole result
+     * @param filters selected values by facet
+     * @param offset
+     * @param size
+     * @return
+     */
+    public JobFacetResult search(Map<JobFacetIndex.Facet, ? extends Collection<String>> filters, int offset, int size) {
+        if(offset < 0 || size < 1) {
+            throw new ApiException("Invalid page");
+        }
+        JobFacetIndex.Result result = index.query(filters, MAX_FACET_VALUES);
+
+        // Newest first, walk the bitmap down from the highest id
+        BitSet jobIds = result.jobIds();
+        List<Long> pageIds = new ArrayList<>(size);
+        int skipped = 0;
+        for(int id = jobIds.previousSetBit(jobIds.length() - 1); id >= 0 && pageIds.size() < size; id = jobIds.previousSetBit(id - 1)) {
+            if(skipped++ >= offset) {
+                pageIds.add((long) id);
+            }
+        }
+
+        // One query for the jobs of the page
+        Map<Long, Job> jobs = new HashMap<>();
+        jobRepository.findAllById(pageIds).forEach(job -> jobs.put(job.getId(), job));
+        List<JobResponse> content = new ArrayList<>(pageIds.size());
+        for(Long id : pageIds) {
+            Job job = jobs.get(id);
+            if(job != null) {
+                content.add(JobServiceImpl.mapToJobResponse(job));
+            }
+        }
+
+        Map<String, List<JobFacetResult.FacetValue>> facets = new LinkedHashMap<>();
+        result.facets().forEach((facet, counts) -> facets.put(facet.name().toLowerCase(), counts.stream()
+                .map(count -> new JobFacetResult.FacetValue(count.value(), count.label(), count.count()))
+                .toList()));
+
+        JobFacetResult jobFacetResult = new JobFacetResult();
+        jobFacetResult.setJobs(content);
+        jobFacetResult.setTotal(jobIds.cardinality());
+        jobFacetResult.setFacets(facets);
+        return jobFacetResult;
+    }
+}
@@ -0,0 +1,114 @@
+package com.pengyu.magnet.service.search;
+
+import com.pengyu.magnet.domain.Job;
+import com.pengyu.magnet.domain.match.JobInsights;
+import com.pengyu.magnet.domain.match.Skill;
+import com.pengyu.magnet.repository.JobRepository;
+import com.pengyu.magnet.repository.match.JobRequirementsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the in-memory job indexes current, the full text index of JobSearchService
+ * and the facet index of JobFacetService.
+ * Jobs and their extracted skills are loaded once for both indexes, at startup and on every job or insights write.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobIndexListener {
+
+    private static final int LOAD_BATCH = 1000;
+    // Statuses kept by any of the indexes
+    private static final List<Job.Status> INDEXED_STATUSES = List.of(Job.Status.ACTIVE, Job.Status.PAUSED);
+
+    private final JobRepository jobRepository;
+    private final JobRequirementsRepository jobRequirementsRepository;
+    private final JobSearchService jobSearchService;
+    private final JobFacetService jobFacetService;
+
+    /**
+     * Load all indexed jobs in background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Thread loader = new Thread(this::loadAll, "job-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadAll() {
+        long afterId = 0;
+        long loaded = 0;
+        while(true) {
+            try {
+                List<JobRepository.IndexRow> rows =
+                        jobRepository.findIndexRows(INDEXED_STATUSES, afterId, PageRequest.of(0, LOAD_BATCH));
+                if(rows.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<String>> skillsByJob = jobRequirementsRepository
+                        .findSkillRowsByJobIdIn(rows.stream().map(JobRepository.IndexRow::getId).toList())
+                        .stream()
+                        .collect(Collectors.groupingBy(JobRequirementsRepository.JobSkillRow::getJobId,
+                                Collectors.mapping(JobRequirementsRepository.JobSkillRow::getSkill, Collectors.toList())));
+                for(JobRepository.IndexRow row : rows) {
+                    List<String> skills = skillsByJob.getOrDefault(row.getId(), List.of());
+                    jobSearchService.put(row.getId(), row.getTitle(), row.getDescription(), row.getLocation(),
+                            row.getStatus(), skills);
+                    jobFacetService.put(row.getId(), row.getLocation(), row.getSalaryRange(), row.getStatus(), skills);
+                }
+                loaded += rows.size();
+                afterId = rows.get(rows.size() - 1).getId();
+            } catch (RuntimeException e) {
+                log.error("Failed to index jobs after id {}", afterId, e);
+                break;
+            }
+        }
+        log.info("Job indexes loaded, {} jobs", loaded);
+    }
+
+    /**
+     * Add, replace or remove a job after it is saved
+     * @param job
+     */
+    public void update(Job job) {
+        if(!INDEXED_STATUSES.contains(job.getStatus())) {
+            remove(job.getId());
+            return;
+        }
+        List<Skill> skills = jobRequirementsRepository
+                .findByJobId(job.getId())
+                .map(JobInsights::getSkills)
+                .orElse(List.of());
+        update(job, skills);
+    }
+
+    /**
+     * Add, replace or remove a job with its extracted skills
+     * @param job
+     * @param skills
+     */
+    public void update(Job job, List<Skill> skills) {
+        List<String> names = skills == null ? List.of() : skills.stream().map(Skill::getSkill).toList();
+        jobSearchService.put(job.getId(), job.getTitle(), job.getDescription(), job.getLocation(), job.getStatus(), names);
+        jobFacetService.put(job.getId(), job.getLocation(), job.getSalaryRange(), job.getStatus(), names);
+    }
+
+    /**
+     * Remove a job from both indexes
+     * @param jobId
+     */
+    public void remove(Long jobId) {
+        jobSearchService.remove(jobId);
+        jobFacetService.remove(jobId);
+    }
+}
@@ -0,0 +1,338 @@
+package com.pengyu.magnet.service.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of jobs with BM25F ranking.
+ * Every job has the fields title, description, location and skills, a term counts
+ * more in short fields and in fields with a higher boost. The last query term also
+ * matches as a prefix, so partly typed words find results.
+ */
+public class JobSearchIndex {
+
+    public static final int TITLE = 0;
+    public static final int DESCRIPTION = 1;
+    public static final int LOCATION = 2;
+    public static final int SKILLS = 3;
+    private static final int FIELD_COUNT = 4;
+
+    private static final float[] BOOSTS = {3f, 1f, 1.5f, 2f};
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Terms a query prefix expands to at most
+    private static final int MAX_EXPANSIONS = 64;
+    private static final int SNIPPET_LENGTH = 200;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "that", "the", "to", "we", "will", "with", "you", "your");
+
+    /**
+     * Search hit
+     * @param jobId
+     * @param score
+     * @param title title with matched terms in <em>, html escaped
+     * @param snippet part of the description around the first match, html escaped
+     */
+    public record Hit(long jobId, float score, String title, String snippet) {
+    }
+
+    /**
+     * One page of hits
+     * @param hits
+     * @param total number of matching jobs
+     */
+    public record Result(List<Hit> hits, int total) {
+    }
+
+    private record Doc(String[] fields, int[] lengths) {
+    }
+
+    private static final class Match {
+        float score;
+        final Set<String> terms = new HashSet<>();
+    }
+
+    // term -> job id -> term frequency per field
+    private final TreeMap<String, Map<Long, int[]>> postings = new TreeMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final long[] totalLengths = new long[FIELD_COUNT];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace a job
+     * @param jobId
+     * @param fields title, description, location and skills, nulls allowed
+     */
+    public void put(long jobId, String... fields) {
+        // Tokenize outside the lock
+        Map<String, int[]> frequencies = new HashMap<>();
+        int[] lengths = new int[FIELD_COUNT];
+        String[] texts = new String[FIELD_COUNT];
+        for(int field = 0; field < FIELD_COUNT; field++) {
+            texts[field] = field < fields.length && fields[field] != null ? fields[field] : "";
+            for(String term : tokens(texts[field])) {
+                frequencies.computeIfAbsent(term, t -> new int[FIELD_COUNT])[field]++;
+                lengths[field]++;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(jobId);
+            docs.put(jobId, new Doc(texts, lengths));
+            for(int field = 0; field < FIELD_COUNT; field++) {
+                totalLengths[field] += lengths[field];
+            }
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(jobId, tf));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a job
+     * @param jobId
+     */
+    public void remove(long jobId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(jobId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(long jobId) {
+        Doc doc = docs.remove(jobId);
+        if(doc == null) {
+            return;
+        }
+        for(int field = 0; field < FIELD_COUNT; field++) {
+            totalLengths[field] -= doc.lengths()[field];
+        }
+        Set<String> terms = new HashSet<>();
+        for(String text : doc.fields()) {
+            terms.addAll(tokens(text));
+        }
+        for(String term : terms) {
+            Map<Long, int[]> posting = postings.get(term);
+            if(posting != null) {
+                posting.remove(jobId);
+                if(posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of indexed jobs
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search
+     * @param query free text
+     * @param offset
+     * @param size
+     * @return hits ordered by score desc
+     */
+    public Result search(String query, int offset, int size) {
+        List<String> queryTerms = tokens(query);
+        if(queryTerms.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+        // A query not ending with a separator is still being typed
+        boolean prefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            int docCount = docs.size();
+            float[] averageLengths = new float[FIELD_COUNT];
+            for(int field = 0; field < FIELD_COUNT; field++) {
+                averageLengths[field] = docCount == 0 ? 1 : Math.max(1f, (float) totalLengths[field] / docCount);
+            }
+
+            Map<Long, Match> matches = new HashMap<>();
+            for(int i = 0; i < queryTerms.size(); i++) {
+                String queryTerm = queryTerms.get(i);
+                List<String> terms = prefix && i == queryTerms.size() - 1 ? expand(queryTerm) : List.of(queryTerm);
+                for(String term : terms) {
+                    Map<Long, int[]> posting = postings.get(term);
+                    if(posting != null) {
+                        score(term, posting, docCount, averageLengths, matches);
+                    }
+                }
+            }
+
+            // Keep only offset + size best
+            int limit = offset + size;
+            Comparator<Map.Entry<Long, Match>> byScore = Comparator.comparingDouble(entry -> entry.getValue().score);
+            PriorityQueue<Map.Entry<Long, Match>> best = new PriorityQueue<>(byScore);
+            for(Map.Entry<Long, Match> entry : matches.entrySet()) {
+                if(best.size() < limit) {
+                    best.add(entry);
+                } else if(limit > 0 && entry.getValue().score > best.peek().getValue().score) {
+                    best.poll();
+                    best.add(entry);
+                }
+            }
+            List<Map.Entry<Long, Match>> ordered = new ArrayList<>(best);
+            ordered.sort(byScore.reversed());
+
+            List<Hit> hits = new ArrayList<>(size);
+            for(int i = offset; i < ordered.size(); i++) {
+                Map.Entry<Long, Match> entry = ordered.get(i);
+                Doc doc = docs.get(entry.getKey());
+                Set<String> terms = entry.getValue().terms;
+                hits.add(new Hit(entry.getKey(), entry.getValue().score,
+                        highlight(doc.fields()[TITLE], terms, Integer.MAX_VALUE),
+                        highlight(doc.fields()[DESCRIPTION], terms, SNIPPET_LENGTH)));
+            }
+            return new Result(hits, matches.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> expand(String prefix) {
+        List<String> terms = new ArrayList<>();
+        for(String term : postings.tailMap(prefix, true).keySet()) {
+            if(!term.startsWith(prefix) || terms.size() == MAX_EXPANSIONS) {
+                break;
+            }
+            terms.add(term);
+        }
+        return terms;
+    }
+
+    /**
+     * Add the BM25F score of one term to every job containing it
+     */
+    private void score(String term, Map<Long, int[]> posting, int docCount, float[] averageLengths,
+                       Map<Long, Match> matches) {
+        int df = posting.size();
+        double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+        for(Map.Entry<Long, int[]> entry : posting.entrySet()) {
+            int[] tf = entry.getValue();
+            int[] lengths = docs.get(entry.getKey()).lengths();
+            // Field frequencies normalized by field length, then saturated once
+            float weighted = 0;
+            for(int field = 0; field < FIELD_COUNT; field++) {
+                if(tf[field] > 0) {
+                    weighted += BOOSTS[field] * tf[field] / (1 - B + B * lengths[field] / averageLengths[field]);
+                }
+            }
+            Match match = matches.computeIfAbsent(entry.getKey(), id -> new Match());
+            match.score += (float) (idf * weighted * (K1 + 1) / (weighted + K1));
+            match.terms.add(term);
+        }
+    }
+
+    /**
+     * Lower case terms of a text, letters, digits, '+' and '#' so "c++" and "c#" survive
+     */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if(text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for(int i = 0; i <= text.length(); i++) {
+            boolean termChar = i < text.length() && isTermChar(text.charAt(i));
+            if(termChar && start < 0) {
+                start = i;
+            } else if(!termChar && start >= 0) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if(!STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isTermChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#';
+    }
+
+    /**
+     * Html escaped text with matched terms in <em>, cut to maxLength around the first match
+     */
+    static String highlight(String text, Set<String> terms, int maxLength) {
+        if(text == null || text.isEmpty()) {
+            return text;
+        }
+        // Term ranges in the text
+        List<int[]> ranges = new ArrayList<>();
+        int start = -1;
+        for(int i = 0; i <= text.length(); i++) {
+            boolean termChar = i < text.length() && isTermChar(text.charAt(i));
+            if(termChar && start < 0) {
+                start = i;
+            } else if(!termChar && start >= 0) {
+                if(terms.contains(text.substring(start, i).toLowerCase(Locale.ROOT))) {
+                    ranges.add(new int[]{start, i});
+                }
+                start = -1;
+            }
+        }
+
+        int from = 0;
+        int to = text.length();
+        if(text.length() > maxLength) {
+            int first = ranges.isEmpty() ? 0 : ranges.get(0)[0];
+            from = Math.max(0, first - maxLength / 4);
+            // Start at a word
+            while(from > 0 && from < first && !Character.isWhitespace(text.charAt(from - 1))) {
+                from++;
+            }
+            to = Math.min(text.length(), from + maxLength);
+        }
+
+        StringBuilder builder = new StringBuilder(to - from + 32);
+        if(from > 0) {
+            builder.append("...");
+        }
+        int position = from;
+        for(int[] range : ranges) {
+            if(range[0] < from || range[1] > to) {
+                continue;
+            }
+            builder.append(HtmlUtils.htmlEscape(text.substring(position, range[0])))
+                    .append("<em>")
+                    .append(HtmlUtils.htmlEscape(text.substring(range[0], range[1])))
+                    .append("</em>");
+            position = range[1];
+        }
+        builder.append(HtmlUtils.htmlEscape(text.substring(position, to)));
+        if(to < text.length()) {
+            builder.append("...");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package com.pengyu.magnet.service.search;
+
+import com.pengyu.magnet.domain.Job;
+import com.pengyu.magnet.dto.JobSearchResult;
+import com.pengyu.magnet.exception.ApiException;
+import com.pengyu.magnet.repository.JobRepository;
+import com.pengyu.magnet.service.compnay.JobServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full text search over active jobs, backed by an in-memory JobSearchIndex
+ * that JobIndexListener loads at startup and keeps current on every job and insights write
+ */
+@Service
+@RequiredArgsConstructor
+public class JobSearchService {
+
+    public static final int MAX_RESULTS = 1000;
+
+    private final JobRepository jobRepository;
+
+    private final JobSearchIndex index = new JobSearchIndex();
+
+    /**
+     * Add or replace a job, only active jobs are searchable
+     * @param jobId
+     * @param title
+     * @param description
+     * @param location
+     * @param status
+     * @param skills extracted skill names
+     */
+    void put(Long jobId, String title, String description, String location, Job.Status status, List<String> skills) {
+        if(status != Job.Status.ACTIVE) {
+            index.remove(jobId);
+            return;
+        }
+        index.put(jobId, title, description, location, String.join(", ", skills));
+    }
+
+    /**
+     * Remove a job
+     * @param jobId
+     */
+    void remove(Long jobId) {
+        index.remove(jobId);
+    }
+
+    /**
+     * Number of jobs matching a query
+     * @param query
+     * @return
+     */
+    public long count(String query) {
+        return index.search(query == null ? "" : query, 0, 0).total();
+    }
+
+    /**
+     * Ranked search with highlights
+     * @param query
+     * @param offset
+     * @param size
+     * @return
+     */
+    public Page<JobSearchResult> search(String query, int offset, int size) {
+        if(offset < 0 || size < 1 || offset + size > MAX_RESULTS) {
+            throw new ApiException("Only the first " + MAX_RESULTS + " results can be paged");
+        }
+        JobSearchIndex.Result result = index.search(query == null ? "" : query, offset, size);
+
+        // One query for the jobs of the page
+        Map<Long, Job> jobs = new HashMap<>();
+        jobRepository.findAllById(result.hits().stream().map(JobSearchIndex.Hit::jobId).toList())
+                .forEach(job -> jobs.put(job.getId(), job));
+
+        List<JobSearchResult> content = new ArrayList<>(result.hits().size());
+        for(JobSearchIndex.Hit hit : result.hits()) {
+            Job job = jobs.get(hit.jobId());
+            if(job == null) {
+                continue;
+            }
+            JobSearchResult searchResult = new JobSearchResult();
+            searchResult.setJob(JobServiceImpl.mapToJobResponse(job));
+            searchResult.setScore(hit.score());
+            searchResult.setTitleHighlight(hit.title());
+            searchResult.setSnippet(hit.snippet());
+            content.add(searchResult);
+        }
+        return new PageImpl<>(content, PageRequest.of(offset / size, size), result.total());
+    }
+}
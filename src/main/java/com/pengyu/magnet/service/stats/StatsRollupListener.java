@@ -0,0 +1,38 @@
+package com.pengyu.magnet.service.stats;
+
+import com.pengyu.magnet.domain.Company;
+import com.pengyu.magnet.domain.Job;
+import com.pengyu.magnet.domain.JobApplication;
+import com.pengyu.magnet.domain.Resume;
+import com.pengyu.magnet.domain.User;
+import com.pengyu.magnet.domain.stats.StatsDailyRollup;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener, marks the day of every inserted or deleted counted row for the next rollup refresh
+ */
+@Component
+@RequiredArgsConstructor
+public class StatsRollupListener {
+
+    private final StatsRollupService statsRollupService;
+
+    @PostPersist
+    @PostRemove
+    public void onWrite(Object entity) {
+        if(entity instanceof User user) {
+            statsRollupService.markDirty(StatsDailyRollup.Metric.USER, user.getCreatedAt());
+        } else if(entity instanceof Company company) {
+            statsRollupService.markDirty(StatsDailyRollup.Metric.COMPANY, company.getCreatedAt());
+        } else if(entity instanceof Job job) {
+            statsRollupService.markDirty(StatsDailyRollup.Metric.JOB, job.getCreatedAt());
+        } else if(entity instanceof Resume resume) {
+            statsRollupService.markDirty(StatsDailyRollup.Metric.RESUME, resume.getCreatedAt());
+        } else if(entity instanceof JobApplication application) {
+            statsRollupService.markDirty(StatsDailyRollup.Metric.JOB_APPLICATION, application.getAppliedDate());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.pengyu.magnet.service.stats;
+
+import com.pengyu.magnet.domain.stats.StatsDailyRollup;
+import com.pengyu.magnet.repository.stats.StatsDailyRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Daily created counts of users, companies, jobs, resumes and applications in the
+ * stats_daily_rollup table. Statistics read the rollup, so any window costs a scan
+ * of its days instead of a scan of the counted tables.
+ * Days are always recomputed, never incremented, so every refresh is idempotent:
+ * the most recent days are recomputed on every run, any day when a row of it is
+ * inserted or deleted, and a metric without any rollup is rebuilt once.
+ */
+@Slf4j
+@Service
+public class StatsRollupService {
+
+    // Start of "all time" windows
+    public static final LocalDate FIRST_DAY = LocalDate.of(1970, 1, 1);
+
+    private record Day(StatsDailyRollup.Metric metric, LocalDate day) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StatsDailyRollupRepository statsDailyRollupRepository;
+    private final int recentDays;
+
+    // Days of rows inserted or deleted since the last refresh
+    private final Set<Day> dirtyDays = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilt;
+
+    public StatsRollupService(JdbcTemplate jdbcTemplate,
+                              StatsDailyRollupRepository statsDailyRollupRepository,
+                              @Value("${magnet.stats.recent-days:1}") int recentDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statsDailyRollupRepository = statsDailyRollupRepository;
+        this.recentDays = recentDays;
+    }
+
+    /**
+     * Recompute the rollup of every day with rows created since a date
+     */
+    private static String rangeSql(StatsDailyRollup.Metric metric) {
+        String column = metric.getDateColumn();
+        return "INSERT INTO stats_daily_rollup (metric, day, total) " +
+                "SELECT ?, DATE(" + column + "), COUNT(*) FROM " + metric.getTable() + " " +
+                "WHERE " + column + " >= ? GROUP BY DATE(" + column + ") " +
+                "ON DUPLICATE KEY UPDATE total = VALUES(total)";
+    }
+
+    /**
+     * Recompute the rollup of one day, also writes days that have no rows left
+     */
+    private static String daySql(StatsDailyRollup.Metric metric) {
+        String column = metric.getDateColumn();
+        return "INSERT INTO stats_daily_rollup (metric, day, total) " +
+                "SELECT ?, ?, COUNT(*) FROM " + metric.getTable() + " " +
+                "WHERE " + column + " >= ? AND " + column + " < ? " +
+                "ON DUPLICATE KEY UPDATE total = VALUES(total)";
+    }
+
+    /**
+     * Recompute the day of a written row once the running transaction completes
+     * @param metric
+     * @param createdAt
+     */
+    public void markDirty(StatsDailyRollup.Metric metric, LocalDateTime createdAt) {
+        if(createdAt == null) {
+            return;
+        }
+        Day day = new Day(metric, createdAt.toLocalDate());
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    dirtyDays.add(day);
+                }
+            });
+        } else {
+            dirtyDays.add(day);
+        }
+    }
+
+    /**
+     * Periodic delta job: rebuild empty metrics once, then recompute recent and dirty days
+     */
+    @Scheduled(fixedDelayString = "${magnet.stats.refresh-interval:60000}")
+    public void refresh() {
+        if(!rebuilt) {
+            for(StatsDailyRollup.Metric metric : StatsDailyRollup.Metric.values()) {
+                if(!statsDailyRollupRepository.existsByMetric(metric)) {
+                    recompute(metric, FIRST_DAY);
+                    log.info("Stats rollup of {} rebuilt", metric);
+                }
+            }
+            rebuilt = true;
+        }
+
+        // Also covers rows written by other instances or outside of JPA
+        LocalDate from = LocalDate.now().minusDays(recentDays);
+        for(StatsDailyRollup.Metric metric : StatsDailyRollup.Metric.values()) {
+            recompute(metric, from);
+        }
+
+        List<Day> days = new ArrayList<>(dirtyDays);
+        for(Day day : days) {
+            dirtyDays.remove(day);
+            try {
+                jdbcTemplate.update(daySql(day.metric()), day.metric().name(), day.day(),
+                        day.day().atStartOfDay(), day.day().plusDays(1).atStartOfDay());
+            } catch (RuntimeException e) {
+                dirtyDays.add(day);
+                throw e;
+            }
+        }
+    }
+
+    private void recompute(StatsDailyRollup.Metric metric, LocalDate from) {
+        jdbcTemplate.update(rangeSql(metric), metric.name(), from.atStartOfDay());
+    }
+
+    /**
+     * Rows created in a window, by metric
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return
+     */
+    public Map<StatsDailyRollup.Metric, Long> totals(LocalDate from, LocalDate to) {
+        Map<StatsDailyRollup.Metric, Long> totals = new EnumMap<>(StatsDailyRollup.Metric.class);
+        for(StatsDailyRollup.Metric metric : StatsDailyRollup.Metric.values()) {
+            totals.put(metric, 0L);
+        }
+        statsDailyRollupRepository.sumByMetric(from, to)
+                .forEach(row -> totals.put(row.getMetric(), row.getTotal()));
+        return totals;
+    }
+
+    /**
+     * Rows created per month of a window, by metric, one value for every month from the first to the last
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return
+     */
+    public Map<StatsDailyRollup.Metric, List<Long>> monthly(LocalDate from, LocalDate to) {
+        YearMonth first = YearMonth.from(from);
+        int months = (int) ChronoUnit.MONTHS.between(first, YearMonth.from(to)) + 1;
+
+        Map<StatsDailyRollup.Metric, List<Long>> monthly = new EnumMap<>(StatsDailyRollup.Metric.class);
+        for(StatsDailyRollup.Metric metric : StatsDailyRollup.Metric.values()) {
+            monthly.put(metric, new ArrayList<>(Collections.nCopies(months, 0L)));
+        }
+        statsDailyRollupRepository.sumByMonth(from, to).forEach(row -> {
+            int index = (int) ChronoUnit.MONTHS.between(first, YearMonth.of(row.getYear(), row.getMonth()));
+            monthly.get(row.getMetric()).set(index, row.getTotal());
+        });
+        return monthly;
+    }
+}
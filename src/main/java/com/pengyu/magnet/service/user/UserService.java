@@ -4,6 +4,7 @@ import com.pengyu.magnet.dto.UserLoginRequest;
 import com.pengyu.magnet.dto.UserRegisterRequest;
 import com.pengyu.magnet.dto.UserRequest;
 import com.pengyu.magnet.dto.UserResponse;
+import com.pengyu.magnet.dto.UserSummary;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
@@ -17,13 +18,11 @@ public interface UserService {
 
     long count();
 
-    List<UserResponse> findAll(Pageable pageable);
+    List<UserSummary> findAll(Pageable pageable);
 
     UserResponse find(Long id);
 
     UserResponse save(UserRequest userRequest);
 
-    List<Long> getRegistrationCounts();
-
     void resetPassword(String newPassword);
 }
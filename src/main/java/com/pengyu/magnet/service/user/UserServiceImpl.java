@@ -5,11 +5,13 @@ import com.pengyu.magnet.dto.UserLoginRequest;
 import com.pengyu.magnet.dto.UserRegisterRequest;
 import com.pengyu.magnet.dto.UserRequest;
 import com.pengyu.magnet.dto.UserResponse;
+import com.pengyu.magnet.dto.UserSummary;
 import com.pengyu.magnet.exception.ApiException;
 import com.pengyu.magnet.exception.ResourceNotFoundException;
 import com.pengyu.magnet.mapper.UserMapper;
 import com.pengyu.magnet.repository.UserRepository;
 import com.pengyu.magnet.security.JwtService;
+import com.pengyu.magnet.service.count.TotalCountService;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Pageable;
@@ -31,6 +33,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final TotalCountService totalCountService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
@@ -87,14 +90,17 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public long count() {
-        return userRepository.count();
+        return totalCountService.countAll(TotalCountService.tableOf(User.class), userRepository::count);
     }
 
+    /**
+     * Find list rows of users, without password hashes
+     * @param pageable
+     * @return
+     */
     @Override
-    public List<UserResponse> findAll(Pageable pageable) {
-        return userRepository.findAll(pageable)
-                .map(user -> UserMapper.INSTANCE.mapUserToUserResponse(user))
-                .toList();
+    public List<UserSummary> findAll(Pageable pageable) {
+        return userRepository.findSummaries(pageable);
     }
 
     /**
@@ -156,11 +162,6 @@ public class UserServiceImpl implements UserService {
         return userResponse;
     }
 
-    @Override
-    public List<Long> getRegistrationCounts() {
-        return userRepository.getRegistrationCounts();
-    }
-
     @Override
     public void resetPassword(String newPassword) {
         // Get Current login user
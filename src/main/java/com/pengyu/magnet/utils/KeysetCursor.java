@@ -0,0 +1,52 @@
+package com.pengyu.magnet.utils;
+
+import com.pengyu.magnet.exception.ApiException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor of keyset pagination, the sort key and the id of the last row of a page.
+ * Encoded as url safe base64 of "id:sortKey", a null sort key is encoded without ':'.
+ * @param id
+ * @param sortKey sort key as text, null if the row has no value
+ */
+public record KeysetCursor(long id, String sortKey) {
+
+    /**
+     * Keyset page request
+     * @param after cursor of the last row of the previous page, null for the first page
+     * @param size
+     * @param sortBy entity attribute, the id breaks ties
+     * @param desc
+     */
+    public record Request(KeysetCursor after, int size, String sortBy, boolean desc) {
+    }
+
+    public String encode() {
+        String text = sortKey == null ? String.valueOf(id) : id + ":" + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor sent by the client
+     * @param cursor
+     * @return null if the cursor is blank
+     */
+    public static KeysetCursor decode(String cursor) {
+        if(StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = text.indexOf(':');
+            if(colon < 0) {
+                return new KeysetCursor(Long.parseLong(text), null);
+            }
+            return new KeysetCursor(Long.parseLong(text.substring(0, colon)), text.substring(colon + 1));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Invalid cursor " + cursor);
+        }
+    }
+}
@@ -1,19 +1,53 @@
 package com.pengyu.magnet.utils;
 
-import org.jetbrains.annotations.NotNull;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 public class PageUtil {
+
+    // Upper bound of page size for both offset and keyset pages
+    public static final int MAX_PAGE_SIZE = 1000;
+
     public static Pageable getPageable(Integer _start, Integer _end, String sort, String order) {
         // process sort factor
         Sort sortBy = "desc".equals(order) ? Sort.by(sort).descending() : Sort.by(sort).ascending();
 
-        // create pageable
-        int pageSize = _end - _start;
-        int page = _start / (pageSize - 1);
+        // create pageable, _start is a row offset and always a multiple of the page size
+        int pageSize = pageSize(_start, _end);
+        int page = Math.max(_start, 0) / pageSize;
         Pageable pageable = PageRequest.of(page, pageSize, sortBy);
         return pageable;
     }
+
+    /**
+     * Keyset page request, used instead of offset paging when the client sends the "after" cursor
+     * @param after cursor of the last row of the previous page, blank for the first page
+     * @param _start
+     * @param _end
+     * @param sort
+     * @param order
+     * @return
+     */
+    public static KeysetCursor.Request getKeyset(String after, Integer _start, Integer _end, String sort, String order) {
+        return new KeysetCursor.Request(KeysetCursor.decode(after), pageSize(_start, _end), sort, "desc".equals(order));
+    }
+
+    /**
+     * Expose the cursor of the next page, no header on the last page
+     * @param response
+     * @param nextCursor
+     */
+    public static void setNextCursor(HttpServletResponse response, String nextCursor) {
+        if(nextCursor != null) {
+            response.addHeader("x-next-cursor", nextCursor);
+        }
+        response.addHeader("Access-Control-Expose-Headers", "x-total-count, x-next-cursor");
+    }
+
+    private static int pageSize(Integer _start, Integer _end) {
+        int pageSize = _end - _start;
+        return Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+    }
 }
@@ -0,0 +1,120 @@
+package com.pengyu.magnet.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        // Two separate H2 databases, each knows its own name
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+
+        routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica),
+                Duration.ofSeconds(5), Duration.ofMillis(300));
+        routing.setLag("replica-1", Duration.ZERO);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        ReplicaRoutingDataSource.setReadRequest(false);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+        jdbcTemplate.execute("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+        assertThat(readWrite.execute(status -> node())).isEqualTo("primary");
+    }
+
+    @Test
+    void readRequestsOutsideTransactionsGoToReplica() {
+        assertThat(node()).isEqualTo("primary");
+
+        ReplicaRoutingDataSource.setReadRequest(true);
+        assertThat(node()).isEqualTo("replica");
+        // A write inside a GET request still goes to the primary
+        assertThat(readWrite.execute(status -> node())).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaGetsNoReads() {
+        routing.setLag("replica-1", Duration.ofSeconds(30));
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+
+        routing.setLag("replica-1", null);
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+
+        routing.setLag("replica-1", Duration.ofSeconds(1));
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+    }
+
+    @Test
+    void usersReadTheirOwnWrites() throws InterruptedException {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("writer@magnet.com", null, "JOB_SEEKER"));
+        readWrite.execute(status -> node());
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+
+        // Other users still read from the replica
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("reader@magnet.com", null, "JOB_SEEKER"));
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+
+        // Back to the replica after the sticky window
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("writer@magnet.com", null, "JOB_SEEKER"));
+        Thread.sleep(400);
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWritesAreNotSticky() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("writer@magnet.com", null, "JOB_SEEKER"));
+        readWrite.executeWithoutResult(status -> {
+            assertThat(node()).isEqualTo("primary");
+            status.setRollbackOnly();
+        });
+
+        // Sticky from the commit on, nothing was committed
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+    }
+}
@@ -0,0 +1,142 @@
+package com.pengyu.magnet.datasource;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing through JPA, where the entity manager and not the transaction decides when a connection is released
+ */
+class ReplicaRoutingJpaTest {
+
+    @Entity(name = "Entry")
+    @Table(name = "entry")
+    public static class Entry {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+        private String name;
+    }
+
+    private DataSource primary;
+    private DataSource replica;
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("jpa-primary");
+        replica = database("jpa-replica");
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica),
+                Duration.ofSeconds(5), Duration.ofSeconds(5));
+        routing.setLag("replica-1", Duration.ZERO);
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(new LazyConnectionDataSourceProxy(routing));
+        factoryBean.setPackagesToScan(ReplicaRoutingJpaTest.class.getPackageName());
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // Connection handling of Spring Boot
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_HOLD",
+                "hibernate.hbm2ddl.auto", "none"));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+        // What repositories and @PersistenceContext get injected
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.setReadRequest(false);
+        factoryBean.destroy();
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS entry (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(16))");
+        jdbcTemplate.execute("DELETE FROM entry");
+        jdbcTemplate.update("INSERT INTO entry (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static List<String> names(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForList("SELECT name FROM entry ORDER BY id", String.class);
+    }
+
+    private List<String> read() {
+        return entityManager.createQuery("select e.name from Entry e order by e.id", String.class).getResultList();
+    }
+
+    private void write() {
+        readWrite.executeWithoutResult(status -> {
+            Entry entry = new Entry();
+            entry.name = "written";
+            entityManager.persist(entry);
+        });
+    }
+
+    @Test
+    void writeAfterReadsOfGetRequestGoesToPrimary() {
+        ReplicaRoutingDataSource.setReadRequest(true);
+
+        // Outside of a transaction and in a read-only repository transaction
+        assertThat(read()).containsExactly("jpa-replica");
+        assertThat(readOnly.execute(status -> read())).containsExactly("jpa-replica");
+        write();
+
+        assertThat(names(primary)).containsExactly("jpa-primary", "written");
+        assertThat(names(replica)).containsExactly("jpa-replica");
+    }
+
+    @Test
+    void openEntityManagerInViewWritesOnConnectionOfFirstRead() {
+        // The request entity manager of open-in-view, the reason it is off with replicas
+        EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+        ReplicaRoutingDataSource.setReadRequest(true);
+        try {
+            assertThat(read()).containsExactly("jpa-replica");
+            write();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            requestEntityManager.close();
+        }
+
+        assertThat(names(replica)).containsExactly("jpa-replica", "written");
+        assertThat(names(primary)).containsExactly("jpa-primary");
+    }
+}
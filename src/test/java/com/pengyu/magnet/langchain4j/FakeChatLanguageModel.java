@@ -0,0 +1,59 @@
+package com.pengyu.magnet.langchain4j;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local chat model for tests, answers "ok" after a delay, reports a fixed token usage
+ * and can reject the first calls like a provider over its rate limit
+ */
+public class FakeChatLanguageModel implements ChatLanguageModel {
+
+    private final long latencyMillis;
+    private final int tokensPerCall;
+    private final AtomicInteger rateLimitedCalls;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    public FakeChatLanguageModel(long latencyMillis, int tokensPerCall, int rateLimitedCalls) {
+        this.latencyMillis = latencyMillis;
+        this.tokensPerCall = tokensPerCall;
+        this.rateLimitedCalls = new AtomicInteger(rateLimitedCalls);
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        calls.incrementAndGet();
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            if (rateLimitedCalls.getAndDecrement() > 0) {
+                throw new RuntimeException("status code: 429; Rate limit reached for requests. Please try again in 20ms.");
+            }
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            return Response.from(AiMessage.from("ok"), new TokenUsage(tokensPerCall / 2, tokensPerCall - tokensPerCall / 2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    public int getCalls() {
+        return calls.get();
+    }
+
+    public int getMaxRunning() {
+        return maxRunning.get();
+    }
+}
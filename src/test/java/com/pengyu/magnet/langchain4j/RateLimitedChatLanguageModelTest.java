@@ -0,0 +1,115 @@
+package com.pengyu.magnet.langchain4j;
+
+import com.pengyu.magnet.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitedChatLanguageModelTest {
+
+    private static final Duration PERIOD = Duration.ofMillis(500);
+
+    @Test
+    void limitsRequestsPerPeriod() {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel(0, 1, 0);
+        LlmRateLimiter limiter = new LlmRateLimiter(5, 1_000_000, PERIOD, 8, Duration.ofSeconds(10));
+        RateLimitedChatLanguageModel model = new RateLimitedChatLanguageModel(fake, limiter, 0, 0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            assertThat(model.generate("hello")).isEqualTo("ok");
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 5 calls burst, the next 5 wait for one refill period
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(400);
+        assertThat(fake.getCalls()).isEqualTo(10);
+    }
+
+    @Test
+    void limitsTokensPerPeriodByActualUsage() {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel(0, 1800, 0);
+        LlmRateLimiter limiter = new LlmRateLimiter(1000, 1000, PERIOD, 8, Duration.ofSeconds(10));
+        RateLimitedChatLanguageModel model = new RateLimitedChatLanguageModel(fake, limiter, 10, 0);
+
+        long start = System.nanoTime();
+        model.generate("hello");
+        // The first call went 800 tokens over budget, the second one waits for the debt to refill
+        model.generate("hello");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(350);
+    }
+
+    @Test
+    void limitsConcurrency() throws Exception {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel(50, 1, 0);
+        LlmRateLimiter limiter = new LlmRateLimiter(1000, 1_000_000, PERIOD, 2, Duration.ofSeconds(10));
+        RateLimitedChatLanguageModel model = new RateLimitedChatLanguageModel(fake, limiter, 0, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> model.generate("hello")));
+            }
+            for (Future<String> future : futures) {
+                assertThat(future.get()).isEqualTo("ok");
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(fake.getMaxRunning()).isLessThanOrEqualTo(2);
+        assertThat(fake.getCalls()).isEqualTo(8);
+    }
+
+    @Test
+    void retriesAfterRateLimited() {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel(0, 1, 2);
+        LlmRateLimiter limiter = new LlmRateLimiter(1000, 1_000_000, PERIOD, 8, Duration.ofSeconds(10));
+        RateLimitedChatLanguageModel model = new RateLimitedChatLanguageModel(fake, limiter, 0, 3);
+
+        assertThat(model.generate("hello")).isEqualTo("ok");
+        assertThat(fake.getCalls()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsWhenRetriesAreExhausted() {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel(0, 1, 5);
+        LlmRateLimiter limiter = new LlmRateLimiter(1000, 1_000_000, PERIOD, 8, Duration.ofSeconds(10));
+        RateLimitedChatLanguageModel model = new RateLimitedChatLanguageModel(fake, limiter, 0, 1);
+
+        assertThatThrownBy(() -> model.generate("hello")).isInstanceOf(TooManyRequestsException.class);
+        assertThat(fake.getCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsWhenWaitIsTooLong() {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel(0, 1, 0);
+        LlmRateLimiter limiter = new LlmRateLimiter(1, 1_000_000, Duration.ofMinutes(1), 8, Duration.ofMillis(100));
+        RateLimitedChatLanguageModel model = new RateLimitedChatLanguageModel(fake, limiter, 0, 0);
+
+        model.generate("hello");
+        assertThatThrownBy(() -> model.generate("hello")).isInstanceOf(TooManyRequestsException.class);
+        assertThat(fake.getCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void parsesRetryAfter() {
+        assertThat(RateLimitedChatLanguageModel.retryAfter(new RuntimeException("Please try again in 1.5s.")))
+                .isEqualTo(Duration.ofMillis(1500));
+        assertThat(RateLimitedChatLanguageModel.retryAfter(new RuntimeException("wrapped",
+                new RuntimeException("Please try again in 120ms."))))
+                .isEqualTo(Duration.ofMillis(120));
+        assertThat(RateLimitedChatLanguageModel.retryAfter(new RuntimeException("Rate limit reached"))).isNull();
+    }
+}
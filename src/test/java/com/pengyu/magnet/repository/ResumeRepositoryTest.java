@@ -0,0 +1,114 @@
+package com.pengyu.magnet.repository;
+
+import com.pengyu.magnet.domain.Resume;
+import com.pengyu.magnet.service.count.TotalCountService;
+import com.pengyu.magnet.service.stats.StatsRollupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session.events.auto=com.pengyu.magnet.repository.ResumeRepositoryTest$BatchCounter"
+})
+class ResumeRepositoryTest {
+
+    // Entity listeners of Resume
+    @MockBean
+    private TotalCountService totalCountService;
+    @MockBean
+    private StatsRollupService statsRollupService;
+
+    @Autowired
+    private ResumeRepository resumeRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Counts the JDBC batches executed by every session
+     */
+    public static class BatchCounter implements SessionEventListener {
+        static final AtomicInteger BATCHES = new AtomicInteger();
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            BATCHES.incrementAndGet();
+        }
+    }
+
+    private static <T> List<T> list(int size, Function<Integer, T> item) {
+        return new ArrayList<>(IntStream.range(0, size).boxed().map(item).toList());
+    }
+
+    private static Resume resume() {
+        Resume resume = new Resume();
+        resume.setFullName("Jane Doe");
+        resume.setCreatedAt(LocalDateTime.now());
+        resume.setStatus(Resume.Status.ACTIVE);
+        resume.setSkillList(list(20, i -> {
+            Resume.Skill skill = new Resume.Skill();
+            skill.setSkill("Skill " + i);
+            skill.setResume(resume);
+            return skill;
+        }));
+        resume.setEducationList(list(3, i -> {
+            Resume.Education education = new Resume.Education();
+            education.setSchoolName("School " + i);
+            education.setStartDate(LocalDate.of(2010 + i, 9, 1));
+            education.setResume(resume);
+            return education;
+        }));
+        resume.setWorkExperienceList(list(5, i -> {
+            Resume.Experience experience = new Resume.Experience();
+            experience.setCompanyName("Company " + i);
+            experience.setStartDate(LocalDate.of(2015 + i, 1, 1));
+            experience.setResume(resume);
+            return experience;
+        }));
+        resume.setProjectList(list(4, i -> {
+            Resume.Project project = new Resume.Project();
+            project.setName("Project " + i);
+            project.setResume(resume);
+            return project;
+        }));
+        return resume;
+    }
+
+    @Test
+    void savesResumeListsInOneBatchPerTable() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        BatchCounter.BATCHES.set(0);
+
+        resumeRepository.save(resume());
+        testEntityManager.flush();
+
+        // The resume and its 32 list items
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(33);
+        // One batch per list table, the IDENTITY resume is inserted on its own
+        assertThat(BatchCounter.BATCHES.get()).isEqualTo(4);
+        // Resume insert, one insert per list table and at most two calls of each new pooled sequence,
+        // instead of one statement per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1 + 4 + 2 * 4);
+    }
+}
@@ -0,0 +1,56 @@
+package com.pengyu.magnet.service.assessment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuestionStreamParserTest {
+
+    private static final String FIRST = "{\"question\": \"What is {} in \\\"Java\\\"?\", \"type\": \"FREE_TEXT\", " +
+            "\"standardAnswer\": \"An empty block, ends with }\"}";
+    private static final String SECOND = "{\"question\": \"Pick one\", \"type\": \"MULTIPLE_CHOICE\", " +
+            "\"optionList\": [{\"content\": \"[a]\"}, {\"content\": \"b\\\\\"}]}";
+    private static final String PAPER = "{\"type\": \"TECHNOLOGY\", \"jobId\": 1, \"questionList\": [" +
+            FIRST + ", " + SECOND + "]}";
+
+    private static List<String> feed(QuestionStreamParser parser, String text, int chunkSize) {
+        List<String> questions = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += chunkSize) {
+            questions.addAll(parser.feed(text.substring(i, Math.min(i + chunkSize, text.length()))));
+        }
+        return questions;
+    }
+
+    @Test
+    void parsesWholePaper() {
+        assertThat(new QuestionStreamParser().feed(PAPER)).containsExactly(FIRST, SECOND);
+    }
+
+    @Test
+    void parsesPaperSplitIntoAnyChunks() {
+        for (int chunkSize = 1; chunkSize <= 16; chunkSize++) {
+            assertThat(feed(new QuestionStreamParser(), PAPER, chunkSize)).containsExactly(FIRST, SECOND);
+        }
+    }
+
+    @Test
+    void returnsQuestionOnlyOnceItIsComplete() {
+        QuestionStreamParser parser = new QuestionStreamParser();
+        int split = PAPER.indexOf(FIRST) + FIRST.length() - 1;
+
+        // Everything but the closing brace of the first question
+        assertThat(parser.feed(PAPER.substring(0, split))).isEmpty();
+        assertThat(parser.feed(PAPER.substring(split, split + 1))).containsExactly(FIRST);
+        assertThat(parser.feed(PAPER.substring(split + 1))).containsExactly(SECOND);
+    }
+
+    @Test
+    void ignoresTextAroundJson() {
+        String answer = "Sure, here are the questions:\n```json\n" + PAPER + "\n```";
+
+        assertThat(feed(new QuestionStreamParser(), answer, 7)).containsExactly(FIRST, SECOND);
+    }
+}
@@ -0,0 +1,71 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.match.JobInsights;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandidatePreFilterTest {
+
+    private final CandidatePreFilter preFilter = new CandidatePreFilter(true, 1, 1, 0.5f);
+
+    private static JobInsights job(Integer degreeLevel, Integer languageLevel, Integer experienceMonths) {
+        JobInsights jobInsights = new JobInsights();
+        jobInsights.setDegreeLevel(degreeLevel);
+        jobInsights.setLanguageLevel(languageLevel);
+        jobInsights.setExperienceMonths(experienceMonths);
+        return jobInsights;
+    }
+
+    @Test
+    void levelsAreLoweredBySlack() {
+        CandidatePreFilter.Minimums minimums = preFilter.minimums(job(InsightsNormalizer.DEGREE_MASTER,
+                InsightsNormalizer.LANGUAGE_FLUENT, null));
+
+        assertThat(minimums.degreeLevel()).isEqualTo(InsightsNormalizer.DEGREE_BACHELOR);
+        assertThat(minimums.languageLevel()).isEqualTo(InsightsNormalizer.LANGUAGE_PROFESSIONAL);
+    }
+
+    @Test
+    void slackDoesNotGoBelowZero() {
+        CandidatePreFilter wideSlack = new CandidatePreFilter(true, 3, 3, 0.5f);
+
+        CandidatePreFilter.Minimums minimums = wideSlack.minimums(job(InsightsNormalizer.DEGREE_DIPLOMA,
+                InsightsNormalizer.LANGUAGE_BASIC, null));
+
+        assertThat(minimums.degreeLevel()).isZero();
+        assertThat(minimums.languageLevel()).isZero();
+    }
+
+    @Test
+    void experienceIsShareOfRequired() {
+        assertThat(preFilter.minimums(job(null, null, 48)).experienceMonths()).isEqualTo(24);
+        // Rounded down
+        assertThat(preFilter.minimums(job(null, null, 5)).experienceMonths()).isEqualTo(2);
+    }
+
+    @Test
+    void unknownLevelsPruneNothing() {
+        assertThat(preFilter.minimums(job(null, null, null))).isEqualTo(CandidatePreFilter.Minimums.NONE);
+    }
+
+    @Test
+    void textIsNormalizedWithoutLevels() {
+        // Saved before the level columns existed
+        JobInsights jobInsights = job(null, null, null);
+        jobInsights.setDegree("Master degree in Computer Science");
+        jobInsights.setLanguage("Fluent English");
+        jobInsights.setExperience("3+ years");
+
+        assertThat(preFilter.minimums(jobInsights)).isEqualTo(new CandidatePreFilter.Minimums(
+                InsightsNormalizer.DEGREE_BACHELOR, InsightsNormalizer.LANGUAGE_PROFESSIONAL, 18));
+    }
+
+    @Test
+    void disabledPrunesNothing() {
+        CandidatePreFilter disabled = new CandidatePreFilter(false, 1, 1, 0.5f);
+
+        assertThat(disabled.minimums(job(InsightsNormalizer.DEGREE_DOCTOR, InsightsNormalizer.LANGUAGE_NATIVE, 120)))
+                .isEqualTo(CandidatePreFilter.Minimums.NONE);
+    }
+}
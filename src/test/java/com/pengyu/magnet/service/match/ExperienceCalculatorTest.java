@@ -0,0 +1,66 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.Resume;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExperienceCalculatorTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 1);
+
+    private static Resume.Experience experience(String start, String end, String description) {
+        Resume.Experience experience = new Resume.Experience();
+        experience.setStartDate(start == null ? null : LocalDate.parse(start));
+        experience.setEndDate(end == null ? null : LocalDate.parse(end));
+        experience.setDescription(description);
+        return experience;
+    }
+
+    @Test
+    void mergesOverlappingJobs() {
+        List<Resume.Experience> experiences = List.of(
+                experience("2020-01-01", "2022-01-01", null),
+                // Held at the same time as the first job
+                experience("2021-01-01", "2021-07-01", null),
+                experience("2021-07-01", "2023-01-01", null));
+
+        assertThat(ExperienceCalculator.totalMonths(experiences, TODAY)).isEqualTo(36);
+    }
+
+    @Test
+    void addsGapsSeparately() {
+        List<Resume.Experience> experiences = List.of(
+                experience("2022-01-01", "2023-01-01", null),
+                experience("2018-01-01", "2019-01-01", null));
+
+        assertThat(ExperienceCalculator.totalMonths(experiences, TODAY)).isEqualTo(24);
+    }
+
+    @Test
+    void currentJobEndsToday() {
+        List<Resume.Experience> experiences = List.of(
+                experience("2023-01-01", null, null),
+                experience("2022-07-01", "2030-01-01", null),
+                // No start date, not counted
+                experience(null, "2020-01-01", null));
+
+        assertThat(ExperienceCalculator.totalMonths(experiences, TODAY)).isEqualTo(18);
+    }
+
+    @Test
+    void unknownWithoutDates() {
+        assertThat(ExperienceCalculator.totalMonths(List.of(experience(null, "2020-01-01", null)), TODAY)).isNull();
+        assertThat(ExperienceCalculator.totalMonths(List.of(), TODAY)).isNull();
+    }
+
+    @Test
+    void describesMonths() {
+        assertThat(ExperienceCalculator.describe(51)).isEqualTo("4 years 3 months");
+        assertThat(ExperienceCalculator.describe(12)).isEqualTo("1 year");
+        assertThat(ExperienceCalculator.describe(1)).isEqualTo("1 month");
+    }
+}
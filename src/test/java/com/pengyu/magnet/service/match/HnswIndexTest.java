@@ -0,0 +1,103 @@
+package com.pengyu.magnet.service.match;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    private static float[] randomUnit(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Test
+    void findsMostOfTheExactNeighbours() {
+        Random random = new Random(42);
+        float[][] vectors = new float[3000][];
+        HnswIndex index = new HnswIndex(16, 100, 128);
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomUnit(random);
+            index.put(i, vectors[i]);
+        }
+
+        int k = 10;
+        int found = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnit(random);
+            List<Long> exact = IntStream.range(0, vectors.length)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble((Integer i) -> dot(query, vectors[i])).reversed())
+                    .limit(k)
+                    .map(Integer::longValue)
+                    .toList();
+            List<Long> approximate = index.search(query, k).stream().map(HnswIndex.Hit::key).toList();
+            found += (int) approximate.stream().filter(exact::contains).count();
+        }
+
+        assertThat(found / (double) (queries * k)).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void replacesVectorOfKey() {
+        Random random = new Random(7);
+        HnswIndex index = new HnswIndex(16, 100, 128);
+        for (int i = 0; i < 200; i++) {
+            index.put(i, randomUnit(random));
+        }
+        float[] before = randomUnit(random);
+        float[] after = randomUnit(random);
+        index.put(1000, before);
+        index.put(1000, after);
+
+        List<HnswIndex.Hit> hits = index.search(after, 1);
+        assertThat(hits.get(0).key()).isEqualTo(1000);
+        assertThat((double) hits.get(0).similarity()).isGreaterThan(0.95);
+
+        // The old vector is never returned
+        assertThat(index.search(before, 200))
+                .allSatisfy(hit -> assertThat(hit.key() != 1000 || hit.similarity() < 0.95).isTrue());
+        assertThat(index.size()).isEqualTo(201);
+    }
+
+    @Test
+    void reclaimsReplacedNodes() {
+        Random random = new Random(3);
+        HnswIndex index = new HnswIndex(16, 100, 128);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 500; i++) {
+                index.put(i, randomUnit(random));
+            }
+        }
+        index.remove(0);
+
+        assertThat(index.size()).isEqualTo(499);
+        // 9500 replacements, compaction keeps the graph near its live size
+        assertThat(index.nodeCount()).isLessThan(2000);
+        assertThat(index.search(randomUnit(random), 10)).hasSize(10).noneMatch(hit -> hit.key() == 0);
+    }
+}
@@ -0,0 +1,110 @@
+package com.pengyu.magnet.service.match;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InsightsNormalizerTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            ", 0",
+            "'', 0",
+            "PhD in Computer Science, 4",
+            "Doctorate, 4",
+            "Master degree, 3",
+            "MBA, 3",
+            "Bachelor degree, 2",
+            "BSc, 2",
+            "Diploma, 1",
+            "High school, 1",
+            "BEng, 2",
+            "B.Tech, 2",
+            "BE in Computer Engineering, 2",
+            "MS, 3",
+            "M.S. in CS, 3",
+            "MEng, 3",
+            "M.Tech, 3",
+            "Bachelors and Masters, 3",
+            // Not recognized, unknown rather than low
+            "Some college, 0",
+            "Degree must be completed, 0"
+    })
+    void degreeLevel(String degree, int level) {
+        assertThat(InsightsNormalizer.degreeLevel(degree)).isEqualTo(level);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Bachelors or Masters, 2",
+            "MSc or PhD, 3",
+            "Master degree, 3",
+            "Any degree, 0"
+    })
+    void requiredDegreeLevelIsLowestMentioned(String degree, int level) {
+        assertThat(InsightsNormalizer.requiredDegreeLevel(degree)).isEqualTo(level);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            ", 0",
+            "Native speaker, 5",
+            "Fluent English, 4",
+            "Professional working proficiency, 3",
+            "English, 3",
+            "Conversational, 2",
+            "Basic, 1"
+    })
+    void languageLevel(String language, int level) {
+        assertThat(InsightsNormalizer.languageLevel(language)).isEqualTo(level);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            ", 0",
+            "several years, 0",
+            "4+ years, 48",
+            "at least 3 years, 36",
+            "2.5 years, 30",
+            "18 months, 18"
+    })
+    void experienceMonths(String experience, int months) {
+        assertThat(InsightsNormalizer.experienceMonths(experience)).isEqualTo(months);
+    }
+
+    @Test
+    void majorWordsIgnoreStopWords() {
+        assertThat(InsightsNormalizer.wordHashes("Computer Science or related field"))
+                .isEqualTo(InsightsNormalizer.wordHashes("computer science"));
+        assertThat(InsightsNormalizer.wordHashes("Science, Computer")).isEqualTo(InsightsNormalizer.wordHashes("Computer Science"));
+        assertThat(InsightsNormalizer.wordHashes(" ")).isEmpty();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Node.js, nodejs",
+            "NodeJS, nodejs",
+            "' node js ', nodejs",
+            "C++, c++",
+            "C#, c#",
+            "CI/CD, cicd",
+            "Spring Boot 3, springboot3",
+            "数据分析, 数据分析",
+            "Машинное Обучение, машинноеобучение",
+            "Café, café",
+            "'', ''",
+            "., ''"
+    })
+    void skillKeyIgnoresCaseSpacesAndPunctuation(String skill, String key) {
+        assertThat(InsightsNormalizer.skillKey(skill)).isEqualTo(key);
+    }
+
+    @Test
+    void levelsNotStatedAreUnknown() {
+        assertThat(InsightsNormalizer.known(InsightsNormalizer.degreeLevel(null))).isNull();
+        assertThat(InsightsNormalizer.known(InsightsNormalizer.experienceMonths("No experience required"))).isNull();
+        assertThat(InsightsNormalizer.known(InsightsNormalizer.languageLevel("English"))).isEqualTo(InsightsNormalizer.LANGUAGE_PROFESSIONAL);
+    }
+}
@@ -0,0 +1,123 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.domain.match.Skill;
+import com.pengyu.magnet.exception.ApiException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class MatchScorerTest {
+
+    private final MatchScorer scorer = new MatchScorer(new MatchProperties());
+
+    private static Skill skill(int skillId, int weight) {
+        Skill skill = new Skill();
+        skill.setSkillId(skillId);
+        skill.setWeight(weight);
+        return skill;
+    }
+
+    private static MatchFeatures features(String degree, String major, String language, int months, List<Skill> skills) {
+        return MatchFeatures.of(degree, major, language, months, skills);
+    }
+
+    private float[] score(MatchFeatures job, MatchFeatures resume, WeightProfile weights) {
+        float[] scores = new float[MatchScorer.SCORE_SIZE];
+        scorer.score(job, resume, weights, scores);
+        return scores;
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Master degree, Bachelor degree, 0.6667",
+            "Bachelor degree, PhD, 1",
+            "Bachelor degree, , 0",
+            ", Diploma, 1",
+            ", , 1"
+    })
+    void degree(String required, String actual, float expected) {
+        float[] scores = score(features(required, null, null, 0, List.of()),
+                features(actual, null, null, 0, List.of()), WeightProfile.DEFAULT);
+        assertThat(scores[MatchScorer.DEGREE]).isCloseTo(expected, within(1e-4f));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Fluent, Intermediate, 0.5",
+            "Fluent, Native, 1",
+            "Professional, , 0",
+            ", Basic, 1"
+    })
+    void language(String required, String actual, float expected) {
+        float[] scores = score(features(null, null, required, 0, List.of()),
+                features(null, null, actual, 0, List.of()), WeightProfile.DEFAULT);
+        assertThat(scores[MatchScorer.LANGUAGE]).isCloseTo(expected, within(1e-4f));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Computer Science, Computer Engineering, 0.5",
+            "Computer Science or related field, Computer Science and Engineering, 1",
+            "Computer Science, Accounting, 0",
+            ", Accounting, 1"
+    })
+    void major(String required, String actual, float expected) {
+        float[] scores = score(features(null, required, null, 0, List.of()),
+                features(null, actual, null, 0, List.of()), WeightProfile.DEFAULT);
+        assertThat(scores[MatchScorer.MAJOR]).isCloseTo(expected, within(1e-4f));
+    }
+
+    @Test
+    void skillsAreWeighted() {
+        MatchFeatures job = features(null, null, null, 0, List.of(skill(1, 10), skill(2, 5), skill(3, 5)));
+
+        assertThat(score(job, features(null, null, null, 0, List.of(skill(3, 1), skill(1, 1), skill(9, 1))),
+                WeightProfile.DEFAULT)[MatchScorer.SKILL]).isCloseTo(0.75f, within(1e-4f));
+        assertThat(score(job, features(null, null, null, 0, List.of(skill(2, 1))),
+                WeightProfile.DEFAULT)[MatchScorer.SKILL]).isCloseTo(0.25f, within(1e-4f));
+        assertThat(score(job, features(null, null, null, 0, List.of()),
+                WeightProfile.DEFAULT)[MatchScorer.SKILL]).isZero();
+        // No skill required
+        assertThat(score(features(null, null, null, 0, List.of()), features(null, null, null, 0, List.of(skill(1, 1))),
+                WeightProfile.DEFAULT)[MatchScorer.SKILL]).isEqualTo(1f);
+    }
+
+    @Test
+    void skillListedTwiceKeepsHighestWeight() {
+        MatchFeatures job = features(null, null, null, 0, List.of(skill(1, 2), skill(1, 8), skill(2, 2)));
+
+        assertThat(job.skills()).containsExactly(1, 2);
+        assertThat(job.skillWeights()).containsExactly(8, 2);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "default, 0.7",
+            "senior, 0.6375",
+            "graduate, 0.8125"
+    })
+    void weightProfiles(String profile, float expected) {
+        // Education 1, skill 0.75, experience 0.5
+        MatchFeatures job = features(null, null, null, 48, List.of(skill(1, 10), skill(2, 5), skill(3, 5)));
+        MatchFeatures resume = features(null, null, null, 24, List.of(skill(1, 1), skill(3, 1)));
+
+        float[] scores = score(job, resume, scorer.profile(profile));
+
+        assertThat(scores[MatchScorer.EXPERIENCE]).isCloseTo(0.5f, within(1e-4f));
+        assertThat(scores[MatchScorer.OVERALL]).isCloseTo(expected, within(1e-4f));
+    }
+
+    @Test
+    void findsProfiles() {
+        assertThat(scorer.profile(null)).isEqualTo(WeightProfile.DEFAULT);
+        assertThatThrownBy(() -> scorer.profile("junior")).isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> new WeightProfile("broken", 0.5f, 0.5f, 0.5f))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
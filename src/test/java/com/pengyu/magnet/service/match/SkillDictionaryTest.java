@@ -0,0 +1,122 @@
+package com.pengyu.magnet.service.match;
+
+import com.pengyu.magnet.repository.match.SkillAliasRepository;
+import com.pengyu.magnet.repository.match.SkillCatalogRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SkillDictionaryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // INSERT IGNORE of MySQL
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:skills;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS skill_alias");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS skill_catalog");
+        jdbcTemplate.execute("CREATE TABLE skill_catalog (id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "name VARCHAR(255), name_key VARCHAR(255) UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE skill_alias (id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "alias_key VARCHAR(255) UNIQUE, skill_id INT)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * A dictionary of a new instance, the repositories only load what is known at startup
+     */
+    private SkillDictionary dictionary() {
+        SkillDictionary dictionary = new SkillDictionary(mock(SkillCatalogRepository.class),
+                mock(SkillAliasRepository.class), jdbcTemplate);
+        dictionary.load();
+        return dictionary;
+    }
+
+    private int rows(String table, String keyColumn, String key) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + keyColumn + " = ?",
+                Integer.class, key);
+    }
+
+    @Test
+    void seedsAliases() {
+        SkillDictionary dictionary = dictionary();
+
+        assertThat(dictionary.resolve("Golang")).isEqualTo(dictionary.resolve("Go"));
+        assertThat(dictionary.resolve("k8s")).isEqualTo(dictionary.resolve("Kubernetes"));
+        assertThat(dictionary.resolve("ReactJS")).isEqualTo(dictionary.resolve("react"));
+        // An alias that is the skill key already is not stored
+        assertThat(rows("skill_alias", "alias_key", "vuejs")).isZero();
+        assertThat(rows("skill_alias", "alias_key", "golang")).isEqualTo(1);
+    }
+
+    @Test
+    void sameNamesResolveToOneSkill() {
+        SkillDictionary dictionary = dictionary();
+
+        assertThat(dictionary.resolve("Node.js")).isEqualTo(dictionary.resolve("nodejs"));
+        assertThat(dictionary.resolve("Spring Boot")).isEqualTo(dictionary.resolve("spring-boot"));
+        assertThat(dictionary.resolve(" ")).isNull();
+        assertThat(dictionary.resolve(null)).isNull();
+    }
+
+    @Test
+    void resolvesSkillAddedByAnotherInstance() {
+        SkillDictionary dictionary = dictionary();
+        jdbcTemplate.update("INSERT INTO skill_catalog (name, name_key) VALUES (?, ?)", "Rust", "rust");
+        Integer id = jdbcTemplate.queryForObject("SELECT id FROM skill_catalog WHERE name_key = 'rust'", Integer.class);
+
+        // The duplicate key is ignored and the existing row is read back
+        assertThat(dictionary.resolve("RUST")).isEqualTo(id);
+        assertThat(rows("skill_catalog", "name_key", "rust")).isEqualTo(1);
+    }
+
+    @Test
+    void secondInstanceKeepsSeededIds() {
+        Integer go = dictionary().resolve("Golang");
+
+        assertThat(dictionary().resolve("Golang")).isEqualTo(go);
+        assertThat(rows("skill_catalog", "name_key", "go")).isEqualTo(1);
+        assertThat(rows("skill_alias", "alias_key", "golang")).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackCallerLeavesNoSkill() {
+        SkillDictionary dictionary = dictionary();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(dictionary.resolve("Elixir")).isNotNull();
+            status.setRollbackOnly();
+        });
+        assertThat(rows("skill_catalog", "name_key", "elixir")).isZero();
+
+        // Not cached, created again
+        Integer id = dictionary.resolve("Elixir");
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM skill_catalog WHERE name_key = 'elixir'", Integer.class))
+                .isEqualTo(id);
+    }
+
+    @Test
+    void resolvesAllNewSkillsInKeyOrder() {
+        SkillDictionary dictionary = dictionary();
+
+        Map<String, Integer> ids = dictionary.resolveAll(Arrays.asList("Zig", "Elm", "elm", " ", null));
+
+        assertThat(ids.get("Elm")).isNotNull().isEqualTo(ids.get("elm"));
+        assertThat(ids.get(" ")).isNull();
+        // Created by key, not by position in the list
+        assertThat(ids.get("Elm")).isLessThan(ids.get("Zig"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.pengyu.magnet.service.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class JobFacetIndexTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "'€40k - €60k', 30k-50k",
+            "'45,000-55,000', 30k-50k",
+            "'€25,000 per year', <30k",
+            "'60-80', 50k-80k",
+            "'£95k', 80k-120k",
+            "'$150,000+', 120k+",
+            "'€3,000 per month', 30k-50k",
+            "'€5k/month', 50k-80k",
+            "'€15/hour', unspecified",
+            "'€400 per day', unspecified",
+            "'£500 a week', unspecified",
+            "'Competitive', unspecified",
+            "'', unspecified"
+    })
+    void bucketsSalaryByAnnualLowerBound(String salaryRange, String bucket) {
+        assertThat(JobFacetIndex.salaryBucket(salaryRange)).isEqualTo(bucket);
+    }
+
+    @Test
+    void missingSalaryIsUnspecified() {
+        assertThat(JobFacetIndex.salaryBucket(null)).isEqualTo("unspecified");
+    }
+
+    @Test
+    void countsOtherValuesOfSelectedFacet() {
+        JobFacetIndex index = new JobFacetIndex();
+        index.put(1, Map.of(JobFacetIndex.Facet.LOCATION, List.of("Dublin"), JobFacetIndex.Facet.SKILL, List.of("Java")));
+        index.put(2, Map.of(JobFacetIndex.Facet.LOCATION, List.of("Cork"), JobFacetIndex.Facet.SKILL, List.of("Java", "Go")));
+        index.put(3, Map.of(JobFacetIndex.Facet.LOCATION, List.of("Dublin"), JobFacetIndex.Facet.SKILL, List.of("Go")));
+
+        JobFacetIndex.Result result = index.query(Map.of(
+                JobFacetIndex.Facet.LOCATION, List.of("dublin"),
+                JobFacetIndex.Facet.SKILL, List.of("java")), 10);
+
+        assertThat(result.jobIds().stream().boxed().toList()).containsExactly(1);
+        // Locations of Java jobs, skills of Dublin jobs
+        assertThat(result.facets().get(JobFacetIndex.Facet.LOCATION))
+                .extracting(JobFacetIndex.FacetCount::label, JobFacetIndex.FacetCount::count)
+                .containsExactlyInAnyOrder(tuple("Dublin", 1), tuple("Cork", 1));
+        assertThat(result.facets().get(JobFacetIndex.Facet.SKILL))
+                .extracting(JobFacetIndex.FacetCount::value, JobFacetIndex.FacetCount::count)
+                .containsExactlyInAnyOrder(tuple("java", 1), tuple("go", 1));
+    }
+
+    @Test
+    void replacesAndRemovesJobs() {
+        JobFacetIndex index = new JobFacetIndex();
+        index.put(1, Map.of(JobFacetIndex.Facet.STATUS, List.of("ACTIVE")));
+        index.put(1, Map.of(JobFacetIndex.Facet.STATUS, List.of("PAUSED")));
+
+        assertThat(index.query(Map.of(JobFacetIndex.Facet.STATUS, List.of("active")), 10).jobIds().isEmpty()).isTrue();
+        assertThat(index.query(Map.of(JobFacetIndex.Facet.STATUS, List.of("paused")), 10).jobIds().get(1)).isTrue();
+
+        index.remove(1);
+        assertThat(index.size()).isZero();
+        assertThat(index.query(Map.of(), 10).facets().get(JobFacetIndex.Facet.STATUS)).isEmpty();
+    }
+}
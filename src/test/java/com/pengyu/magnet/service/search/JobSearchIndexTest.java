@@ -0,0 +1,98 @@
+package com.pengyu.magnet.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobSearchIndexTest {
+
+    private static List<Long> ids(JobSearchIndex.Result result) {
+        return result.hits().stream().map(JobSearchIndex.Hit::jobId).toList();
+    }
+
+    @Test
+    void tokenizesKeepingPlusAndHash() {
+        assertThat(JobSearchIndex.tokens("Senior C++/C# Developer, in the Cloud"))
+                .containsExactly("senior", "c++", "c#", "developer", "cloud");
+        assertThat(JobSearchIndex.tokens(null)).isEmpty();
+        assertThat(JobSearchIndex.tokens(" - ")).isEmpty();
+    }
+
+    @Test
+    void highlightsMatchedTermsAndEscapesHtml() {
+        assertThat(JobSearchIndex.highlight("Java & <Spring> developer", Set.of("java", "spring"), Integer.MAX_VALUE))
+                .isEqualTo("<em>Java</em> &amp; &lt;<em>Spring</em>&gt; developer");
+        // Part of a word is not a match
+        assertThat(JobSearchIndex.highlight("JavaScript", Set.of("java"), Integer.MAX_VALUE)).isEqualTo("JavaScript");
+    }
+
+    @Test
+    void cutsLongTextAroundFirstMatch() {
+        String text = "word ".repeat(100) + "kotlin " + "word ".repeat(20);
+
+        String snippet = JobSearchIndex.highlight(text, Set.of("kotlin"), 40);
+
+        assertThat(snippet).startsWith("...word ").contains("<em>kotlin</em>").endsWith("...");
+        assertThat(snippet.replace("<em>", "").replace("</em>", "")).hasSize(46);
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        JobSearchIndex index = new JobSearchIndex();
+        index.put(1, "Project Manager", "Manage java projects", "Auckland", null);
+        index.put(2, "Java Developer", "Build services", "Auckland", "Spring");
+        index.put(3, "Python Developer", "Data pipelines", "Wellington", "Python");
+
+        JobSearchIndex.Result result = index.search("java ", 0, 10);
+
+        assertThat(ids(result)).containsExactly(2L, 1L);
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.hits().get(0).title()).isEqualTo("<em>Java</em> Developer");
+        assertThat(result.hits().get(1).snippet()).isEqualTo("Manage <em>java</em> projects");
+    }
+
+    @Test
+    void ranksShortFieldsAndMoreMatchedTermsHigher() {
+        JobSearchIndex index = new JobSearchIndex();
+        index.put(1, "Engineer", "Kotlin " + "backend services ".repeat(30), null, null);
+        index.put(2, "Engineer", "Kotlin backend", null, null);
+        index.put(3, "Engineer", "Go", null, null);
+        index.put(4, "Engineer", "Kotlin and Go and Rust services", null, null);
+
+        // Same term frequency, the shorter description wins
+        assertThat(ids(index.search("kotlin ", 0, 10))).containsExactly(2L, 4L, 1L);
+        // Both terms beat one
+        assertThat(ids(index.search("kotlin go ", 0, 10)).get(0)).isEqualTo(4L);
+    }
+
+    @Test
+    void lastTermMatchesAsPrefixWhileTyping() {
+        JobSearchIndex index = new JobSearchIndex();
+        index.put(1, "JavaScript Developer", null, null, null);
+        index.put(2, "Java Developer", null, null, null);
+
+        assertThat(ids(index.search("jav", 0, 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("jav ", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void pagesAndReplacesJobs() {
+        JobSearchIndex index = new JobSearchIndex();
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, "Java Developer " + "senior ".repeat((int) id), null, null, null);
+        }
+
+        JobSearchIndex.Result page = index.search("java ", 2, 2);
+        assertThat(page.hits()).hasSize(2);
+        assertThat(page.total()).isEqualTo(5);
+
+        index.put(3, "Rust Developer", null, null, null);
+        index.remove(4);
+        assertThat(index.search("java ", 0, 10).total()).isEqualTo(3);
+        assertThat(ids(index.search("rust ", 0, 10))).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+}